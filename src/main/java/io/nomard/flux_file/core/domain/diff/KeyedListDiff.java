@@ -0,0 +1,238 @@
+package io.nomard.flux_file.core.domain.diff;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Minimal set of edits that turns one keyed listing into another.
+ * <p>
+ * Items are matched by key. Items whose key disappeared are removed, new keys
+ * are inserted and matched items that are no longer equal are replaced in place.
+ * Matched items that changed position are moved (removed and re-inserted), keeping
+ * the longest run of items that are already in order untouched.
+ * <p>
+ * The diff is computed off the FX thread and applied with one change event per
+ * contiguous run, so refresh cost is proportional to what actually changed.
+ *
+ * @param <T> the listing item type
+ */
+public final class KeyedListDiff<T> {
+
+    // Past this many edit runs a single setAll is cheaper than incremental changes
+    private static final int MAX_INCREMENTAL_OPERATIONS = 512;
+
+    private final int sourceSize;
+    private final List<T> target;
+    private final List<int[]> removals;
+    private final List<int[]> insertions;
+    private final List<Integer> replacements;
+    private final int moved;
+    private final boolean wholesale;
+
+    private KeyedListDiff(int sourceSize, List<T> target, List<int[]> removals, List<int[]> insertions,
+                          List<Integer> replacements, int moved, boolean wholesale) {
+        this.sourceSize = sourceSize;
+        this.target = target;
+        this.removals = removals;
+        this.insertions = insertions;
+        this.replacements = replacements;
+        this.moved = moved;
+        this.wholesale = wholesale;
+    }
+
+    /**
+     * Compute the edits that turn {@code source} into {@code target}.
+     * Keys are expected to be unique within each list; duplicates force a wholesale replace.
+     */
+    public static <T, K> KeyedListDiff<T> compute(List<T> source, List<T> target, Function<? super T, K> keyOf) {
+        List<T> finalTarget = List.copyOf(target);
+        if (source.isEmpty() || finalTarget.isEmpty()) {
+            return wholesale(source.size(), finalTarget);
+        }
+
+        Map<K, Integer> targetIndex = new HashMap<>(finalTarget.size() * 2);
+        for (int j = 0; j < finalTarget.size(); j++) {
+            if (targetIndex.put(keyOf.apply(finalTarget.get(j)), j) != null) {
+                return wholesale(source.size(), finalTarget);
+            }
+        }
+
+        // Match source items to their target positions
+        boolean[] removeSource = new boolean[source.size()];
+        int[] survivorSource = new int[source.size()];
+        int[] survivorTarget = new int[source.size()];
+        int survivors = 0;
+        for (int i = 0; i < source.size(); i++) {
+            Integer j = targetIndex.get(keyOf.apply(source.get(i)));
+            if (j == null) {
+                removeSource[i] = true;
+            } else {
+                survivorSource[survivors] = i;
+                survivorTarget[survivors] = j;
+                survivors++;
+            }
+        }
+
+        // Survivors on the longest increasing run stay put; the rest are moved
+        boolean[] stays = longestIncreasingRun(survivorTarget, survivors);
+        boolean[] keptTarget = new boolean[finalTarget.size()];
+        List<Integer> replacements = new ArrayList<>();
+        int moved = 0;
+        for (int s = 0; s < survivors; s++) {
+            int i = survivorSource[s];
+            int j = survivorTarget[s];
+            if (stays[s] && !keptTarget[j]) {
+                keptTarget[j] = true;
+                if (!Objects.equals(source.get(i), finalTarget.get(j))) {
+                    replacements.add(j);
+                }
+            } else {
+                removeSource[i] = true;
+                moved++;
+            }
+        }
+
+        // Removal runs, highest index first so earlier indices stay valid
+        List<int[]> removals = new ArrayList<>();
+        int i = source.size() - 1;
+        while (i >= 0) {
+            if (!removeSource[i]) {
+                i--;
+                continue;
+            }
+            int end = i + 1;
+            while (i >= 0 && removeSource[i]) {
+                i--;
+            }
+            removals.add(new int[]{i + 1, end});
+        }
+
+        // Insertion runs, lowest index first so every earlier position is already final
+        List<int[]> insertions = new ArrayList<>();
+        int j = 0;
+        while (j < finalTarget.size()) {
+            if (keptTarget[j]) {
+                j++;
+                continue;
+            }
+            int start = j;
+            while (j < finalTarget.size() && !keptTarget[j]) {
+                j++;
+            }
+            insertions.add(new int[]{start, j});
+        }
+
+        int operations = removals.size() + insertions.size() + replacements.size();
+        boolean wholesale = operations > MAX_INCREMENTAL_OPERATIONS;
+        return new KeyedListDiff<>(source.size(), finalTarget, removals, insertions, replacements, moved, wholesale);
+    }
+
+    private static <T> KeyedListDiff<T> wholesale(int sourceSize, List<T> target) {
+        return new KeyedListDiff<>(sourceSize, target, Collections.emptyList(), Collections.emptyList(),
+                Collections.emptyList(), 0, true);
+    }
+
+    /**
+     * Marks the entries of the longest strictly increasing subsequence of {@code values[0..length)}.
+     */
+    private static boolean[] longestIncreasingRun(int[] values, int length) {
+        boolean[] marked = new boolean[length];
+        if (length == 0) {
+            return marked;
+        }
+
+        int[] tails = new int[length];
+        int[] previous = new int[length];
+        int runLength = 0;
+        for (int k = 0; k < length; k++) {
+            int low = 0;
+            int high = runLength;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (values[tails[mid]] < values[k]) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            previous[k] = low > 0 ? tails[low - 1] : -1;
+            tails[low] = k;
+            if (low == runLength) {
+                runLength++;
+            }
+        }
+
+        for (int k = tails[runLength - 1]; k >= 0; k = previous[k]) {
+            marked[k] = true;
+        }
+        return marked;
+    }
+
+    /**
+     * Apply the edits to {@code list}, which must still hold the source listing.
+     * Wholesale diffs clear and refill the list; callers with an {@code ObservableList}
+     * should prefer {@code setAll(target())} in that case.
+     */
+    public void applyTo(List<T> list) {
+        if (wholesale || list.size() != sourceSize) {
+            list.clear();
+            list.addAll(target);
+            return;
+        }
+
+        for (int[] range : removals) {
+            if (range[1] - range[0] == 1) {
+                list.remove(range[0]);
+            } else {
+                list.subList(range[0], range[1]).clear();
+            }
+        }
+        for (int[] range : insertions) {
+            list.addAll(range[0], target.subList(range[0], range[1]));
+        }
+        for (int index : replacements) {
+            list.set(index, target.get(index));
+        }
+    }
+
+    public List<T> target() {
+        return target;
+    }
+
+    public boolean isWholesale() {
+        return wholesale;
+    }
+
+    public boolean isEmpty() {
+        return !wholesale && removals.isEmpty() && insertions.isEmpty() && replacements.isEmpty();
+    }
+
+    public int insertedCount() {
+        int count = 0;
+        for (int[] range : insertions) {
+            count += range[1] - range[0];
+        }
+        return count - moved;
+    }
+
+    public int removedCount() {
+        int count = 0;
+        for (int[] range : removals) {
+            count += range[1] - range[0];
+        }
+        return count - moved;
+    }
+
+    public int changedCount() {
+        return replacements.size();
+    }
+
+    public int movedCount() {
+        return moved;
+    }
+}
@@ -0,0 +1,20 @@
+package io.nomard.flux_file.core.domain.model;
+
+/**
+ * What a batch paste does when an item already exists in the target folder.
+ * Chosen once per batch and applied to every top-level item.
+ */
+public enum ConflictPolicy {
+    /**
+     * Paste under a free name such as {@code report (1).pdf}.
+     */
+    KEEP_BOTH,
+    /**
+     * Swap the existing item for the pasted one once the paste has succeeded; folders are not merged.
+     */
+    REPLACE,
+    /**
+     * Leave the existing item and do not paste this one.
+     */
+    SKIP
+}
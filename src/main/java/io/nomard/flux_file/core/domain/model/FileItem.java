@@ -5,10 +5,18 @@ import java.time.Instant;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 
-public record FileItem(Path path, String name, boolean isDirectory, long size, Instant modified) {
+public record FileItem(Path path, String name, boolean isDirectory, long size, Instant modified,
+                       boolean hidden, boolean symbolicLink) {
     private static final DateTimeFormatter DATE_FORMATTER =
             DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneId.systemDefault());
 
+    /**
+     * Item whose hidden flag is derived from its name (dotfiles) and that is not a link.
+     */
+    public FileItem(Path path, String name, boolean isDirectory, long size, Instant modified) {
+        this(path, name, isDirectory, size, modified, name != null && name.startsWith("."), false);
+    }
+
     public String getFormattedSize() {
         if (isDirectory) return "--";
         if (size < 1024) return size + " B";
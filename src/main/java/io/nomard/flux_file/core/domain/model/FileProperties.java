@@ -0,0 +1,10 @@
+package io.nomard.flux_file.core.domain.model;
+
+import java.time.Instant;
+
+/**
+ * Extended attributes shown in the Properties dialog, read on demand.
+ */
+public record FileProperties(Instant created, Instant accessed, boolean readable, boolean writable,
+                             boolean executable) {
+}
@@ -0,0 +1,23 @@
+package io.nomard.flux_file.core.domain.model;
+
+/**
+ * One change to a watched remote folder, as reported by a service's change feed.
+ *
+ * @param type   what happened
+ * @param itemId the entry's id, {@code null} for resets
+ * @param item   the entry as it is now, only for upserts
+ */
+public record RemoteChange(RemoteChangeType type, String itemId, RemoteFileItem item) {
+
+    public static RemoteChange upserted(RemoteFileItem item) {
+        return new RemoteChange(RemoteChangeType.UPSERTED, item.getId(), item);
+    }
+
+    public static RemoteChange removed(String itemId) {
+        return new RemoteChange(RemoteChangeType.REMOVED, itemId, null);
+    }
+
+    public static RemoteChange reset() {
+        return new RemoteChange(RemoteChangeType.RESET, null, null);
+    }
+}
@@ -0,0 +1,16 @@
+package io.nomard.flux_file.core.domain.model;
+
+public enum RemoteChangeType {
+    /**
+     * Entry created or modified in the watched folder, or moved into it.
+     */
+    UPSERTED,
+    /**
+     * Entry deleted, trashed or moved out of the watched folder.
+     */
+    REMOVED,
+    /**
+     * The feed lost track (expired token or cursor); the folder has to be listed again.
+     */
+    RESET
+}
@@ -12,12 +12,19 @@ public class RemoteFileItem {
     private final Instant modified;
     private final String service;
     private final String parentPath;
+    // In the service's own format; null when the service reports none
+    private final String contentHash;
     
     private static final DateTimeFormatter DATE_FORMATTER = 
         DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneId.systemDefault());
 
     public RemoteFileItem(String id, String name, boolean isDirectory, long size, 
                          Instant modified, String service, String parentPath) {
+        this(id, name, isDirectory, size, modified, service, parentPath, null);
+    }
+
+    public RemoteFileItem(String id, String name, boolean isDirectory, long size,
+                         Instant modified, String service, String parentPath, String contentHash) {
         this.id = id;
         this.name = name;
         this.isDirectory = isDirectory;
@@ -25,6 +32,7 @@ public class RemoteFileItem {
         this.modified = modified;
         this.service = service;
         this.parentPath = parentPath;
+        this.contentHash = contentHash;
     }
 
     public String getId() {
@@ -71,6 +79,14 @@ public class RemoteFileItem {
         return parentPath;
     }
 
+    /**
+     * The file's content hash as the service reports it, comparable with
+     * {@code RemoteFileSystemService.localContentHash}; null for folders and services without one.
+     */
+    public String getContentHash() {
+        return contentHash;
+    }
+
     public String getExtension() {
         if (isDirectory) return "";
         int lastDot = name.lastIndexOf('.');
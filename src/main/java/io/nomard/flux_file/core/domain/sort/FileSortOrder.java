@@ -0,0 +1,19 @@
+package io.nomard.flux_file.core.domain.sort;
+
+/**
+ * Ordering applied to a file listing.
+ *
+ * @param field             the column to order by
+ * @param ascending         whether the field is ordered ascending
+ * @param directoriesFirst  whether folders are grouped ahead of files regardless of direction
+ */
+public record FileSortOrder(SortField field, boolean ascending, boolean directoriesFirst) {
+
+    public static final FileSortOrder DEFAULT = new FileSortOrder(SortField.NAME, true, true);
+
+    public FileSortOrder {
+        if (field == null) {
+            field = SortField.NAME;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package io.nomard.flux_file.core.domain.sort;
+
+/**
+ * Builds collation keys that order names naturally ("file2" before "file10")
+ * and case-insensitively using a plain {@link String#compareTo(String)}.
+ * <p>
+ * Letters are folded to lower case and every run of digits is rewritten as a
+ * marker, its significant length and its significant digits, so longer numbers
+ * always sort after shorter ones and equal numbers compare digit by digit.
+ * Lengths that do not fit one {@code char} are written as an escape and two more.
+ */
+public final class NaturalSortKey {
+
+    // Sorts below letters so numbers come before words, as in most file managers
+    private static final char DIGIT_RUN_MARKER = '0';
+    // Sorts after every one-char length, so very long runs still order by length
+    private static final char LONG_RUN_LENGTH = Character.MAX_VALUE;
+
+    private NaturalSortKey() {
+    }
+
+    public static String of(String name) {
+        if (name == null || name.isEmpty()) {
+            return "";
+        }
+
+        int length = name.length();
+        StringBuilder key = new StringBuilder(length + 8);
+        int i = 0;
+        while (i < length) {
+            char c = name.charAt(i);
+            if (c >= '0' && c <= '9') {
+                int start = i;
+                while (i < length && isAsciiDigit(name.charAt(i))) {
+                    i++;
+                }
+
+                // Leading zeros do not change the value; the raw name breaks such ties
+                int significant = start;
+                while (significant < i - 1 && name.charAt(significant) == '0') {
+                    significant++;
+                }
+
+                key.append(DIGIT_RUN_MARKER);
+                appendLength(key, i - significant);
+                key.append(name, significant, i);
+            } else {
+                key.append(Character.toLowerCase(Character.toUpperCase(c)));
+                i++;
+            }
+        }
+        return key.toString();
+    }
+
+    private static void appendLength(StringBuilder key, int length) {
+        if (length < LONG_RUN_LENGTH) {
+            key.append((char) length);
+        } else {
+            key.append(LONG_RUN_LENGTH)
+                    .append((char) (length >>> 16))
+                    .append((char) length);
+        }
+    }
+
+    private static boolean isAsciiDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,11 @@
+package io.nomard.flux_file.core.domain.sort;
+
+/**
+ * Columns a file listing can be ordered by.
+ */
+public enum SortField {
+    NAME,
+    TYPE,
+    SIZE,
+    MODIFIED
+}
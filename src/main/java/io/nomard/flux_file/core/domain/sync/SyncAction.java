@@ -0,0 +1,21 @@
+package io.nomard.flux_file.core.domain.sync;
+
+import java.nio.file.Path;
+import java.time.Instant;
+
+/**
+ * One step of a sync plan.
+ *
+ * @param type     what to do
+ * @param source   the source entry, or {@code null} for deletes
+ * @param target   the target entry to create, overwrite or delete
+ * @param size     bytes to copy, 0 for folders and deletes
+ * @param modified source modification time, applied to copied files so the next sync can skip them
+ * @param link     whether the source is a symbolic link, copied as a link
+ */
+public record SyncAction(SyncActionType type, Path source, Path target, long size, Instant modified, boolean link) {
+
+    public static SyncAction delete(Path target) {
+        return new SyncAction(SyncActionType.DELETE, null, target, 0, null, false);
+    }
+}
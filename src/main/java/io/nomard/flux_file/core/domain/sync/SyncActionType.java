@@ -0,0 +1,20 @@
+package io.nomard.flux_file.core.domain.sync;
+
+public enum SyncActionType {
+    /**
+     * Folder missing on the target side.
+     */
+    CREATE_DIRECTORY,
+    /**
+     * File missing on the target side.
+     */
+    COPY,
+    /**
+     * File present on both sides but different.
+     */
+    UPDATE,
+    /**
+     * Entry on the target side that is not in the source, or is in the way of one.
+     */
+    DELETE
+}
@@ -0,0 +1,12 @@
+package io.nomard.flux_file.core.domain.sync;
+
+/**
+ * How a sync compares and what it may remove.
+ *
+ * @param deleteExtraneous delete target entries that are not in the source (a true mirror)
+ * @param verifyContents   hash files whose size and modification time match, and update them if the contents differ
+ */
+public record SyncOptions(boolean deleteExtraneous, boolean verifyContents) {
+
+    public static final SyncOptions MIRROR = new SyncOptions(true, false);
+}
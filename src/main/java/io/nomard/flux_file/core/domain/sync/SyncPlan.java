@@ -0,0 +1,33 @@
+package io.nomard.flux_file.core.domain.sync;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * The minimal set of changes that makes {@code target} match {@code source}, computed before
+ * anything is touched so it can be previewed.
+ *
+ * @param source    the folder being mirrored
+ * @param target    the folder being updated
+ * @param options   options the plan was computed with
+ * @param actions   changes, in discovery order
+ * @param unchanged files found identical and left alone
+ */
+public record SyncPlan(Path source, Path target, SyncOptions options, List<SyncAction> actions, long unchanged) {
+
+    public SyncPlan {
+        actions = List.copyOf(actions);
+    }
+
+    public long count(SyncActionType type) {
+        return actions.stream().filter(action -> action.type() == type).count();
+    }
+
+    public long bytesToCopy() {
+        return actions.stream().mapToLong(SyncAction::size).sum();
+    }
+
+    public boolean isEmpty() {
+        return actions.isEmpty();
+    }
+}
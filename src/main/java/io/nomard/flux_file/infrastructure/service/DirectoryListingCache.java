@@ -0,0 +1,137 @@
+package io.nomard.flux_file.infrastructure.service;
+
+import io.nomard.flux_file.core.domain.model.FileItem;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Bounded LRU cache of recent directory listings.
+ * <p>
+ * Listings are stored unfiltered and unsorted, exactly as {@link FileService#listFiles} produced
+ * them, so they can be shown instantly on back/forward and revalidated in the background.
+ * The cache is bounded both by entry count and by an estimated memory budget. Entries are
+ * dropped when the watcher reports a change in their directory or a local operation touches it.
+ */
+@Slf4j
+@Service
+public class DirectoryListingCache {
+
+    // Rough per-item footprint: record, Path, name string and list slot
+    private static final long ITEM_OVERHEAD_BYTES = 160;
+
+    private final int maxEntries;
+    private final long maxBytes;
+    private final LinkedHashMap<Path, CachedListing> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long usedBytes = 0;
+
+    public DirectoryListingCache(@Value("${flux.listing-cache.max-entries:64}") int maxEntries,
+                                 @Value("${flux.listing-cache.max-bytes:67108864}") long maxBytes) {
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Look up the last known listing for a directory.
+     */
+    public synchronized Optional<CachedListing> get(Path directory) {
+        return Optional.ofNullable(entries.get(normalize(directory)));
+    }
+
+    /**
+     * Whether a listing for the directory is cached.
+     * Does not count as an access for LRU ordering.
+     */
+    public synchronized boolean contains(Path directory) {
+        return entries.containsKey(normalize(directory));
+    }
+
+    /**
+     * Store a freshly read listing, evicting least recently used entries past the budget.
+     * Listings larger than the whole budget are not cached.
+     */
+    public synchronized void put(Path directory, List<FileItem> items) {
+        Path key = normalize(directory);
+        long size = estimateBytes(items);
+        if (size > maxBytes) {
+            remove(key);
+            return;
+        }
+
+        remove(key);
+        entries.put(key, new CachedListing(List.copyOf(items), Instant.now(), size));
+        usedBytes += size;
+        evict();
+    }
+
+    /**
+     * Drop the cached listing for a directory, e.g. after a watch event or a local mutation.
+     */
+    public synchronized void invalidate(Path directory) {
+        if (directory != null && remove(normalize(directory)) != null) {
+            log.debug("Invalidated cached listing: {}", directory);
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        entries.clear();
+        usedBytes = 0;
+    }
+
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private CachedListing remove(Path key) {
+        CachedListing removed = entries.remove(key);
+        if (removed != null) {
+            usedBytes -= removed.estimatedBytes();
+        }
+        return removed;
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<Path, CachedListing>> iterator = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || usedBytes > maxBytes) && iterator.hasNext()) {
+            Map.Entry<Path, CachedListing> eldest = iterator.next();
+            usedBytes -= eldest.getValue().estimatedBytes();
+            iterator.remove();
+            log.debug("Evicted cached listing: {}", eldest.getKey());
+        }
+    }
+
+    private long estimateBytes(List<FileItem> items) {
+        long bytes = 0;
+        for (FileItem item : items) {
+            // Names are held once by the record and once inside the Path
+            bytes += ITEM_OVERHEAD_BYTES + 3L * item.name().length();
+        }
+        return bytes;
+    }
+
+    private Path normalize(Path directory) {
+        return directory.toAbsolutePath().normalize();
+    }
+
+    /**
+     * A cached directory listing.
+     *
+     * @param items          the raw listing
+     * @param loadedAt       when the listing was read from disk
+     * @param estimatedBytes the listing's share of the memory budget
+     */
+    public record CachedListing(List<FileItem> items, Instant loadedAt, long estimatedBytes) {
+    }
+}
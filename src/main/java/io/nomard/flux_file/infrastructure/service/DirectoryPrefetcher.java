@@ -0,0 +1,134 @@
+package io.nomard.flux_file.infrastructure.service;
+
+import io.nomard.flux_file.core.domain.model.FileItem;
+import io.nomard.flux_file.infrastructure.service.io.IoPriority;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Speculatively lists directories the user is likely to open next and stores them
+ * in the {@link DirectoryListingCache}, so opening them is instant.
+ * <p>
+ * Prefetching runs as {@link IoPriority#BACKGROUND} work on the mount lanes, lists at most a few
+ * directories at a time, gives up on directories larger than its entry budget and is
+ * cancelled as soon as the user navigates or points at something else.
+ */
+@Slf4j
+@Service
+public class DirectoryPrefetcher {
+
+    // Let a hover settle before spending I/O on it
+    private static final Duration SETTLE_DELAY = Duration.ofMillis(150);
+    private static final int MAX_TRACKED_VISITS = 1_000;
+
+    private final FileService fileService;
+    private final DirectoryListingCache listingCache;
+    private final int maxConcurrency;
+    private final int maxEntries;
+    private final Disposable.Swap pending = Disposables.swap();
+    private final Set<Path> inFlight = ConcurrentHashMap.newKeySet();
+    private final Map<Path, AtomicInteger> visitCounts = new ConcurrentHashMap<>();
+
+    public DirectoryPrefetcher(FileService fileService,
+                               DirectoryListingCache listingCache,
+                               @Value("${flux.prefetch.max-concurrency:2}") int maxConcurrency,
+                               @Value("${flux.prefetch.max-entries:5000}") int maxEntries) {
+        this.fileService = fileService;
+        this.listingCache = listingCache;
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Replace any pending prefetch with the given candidates, most likely first.
+     * Directories that are already cached or being fetched are skipped.
+     */
+    public void prefetch(Collection<Path> candidates) {
+        if (candidates == null || candidates.isEmpty()) {
+            cancel();
+            return;
+        }
+
+        List<Path> ordered = List.copyOf(candidates);
+        Disposable next = Flux.fromIterable(ordered)
+                .delaySubscription(SETTLE_DELAY)
+                .distinct()
+                .filter(directory -> !listingCache.contains(directory))
+                .flatMap(this::fetch, maxConcurrency)
+                .subscribe();
+        pending.update(next);
+    }
+
+    /**
+     * Cancel pending and running prefetches, e.g. because the user navigated.
+     */
+    public void cancel() {
+        pending.update(Disposables.disposed());
+    }
+
+    /**
+     * Record a visit so frequently used folders are favoured as candidates.
+     */
+    public void recordVisit(Path directory) {
+        if (directory == null) {
+            return;
+        }
+        if (visitCounts.size() >= MAX_TRACKED_VISITS && !visitCounts.containsKey(directory)) {
+            visitCounts.clear();
+        }
+        visitCounts.computeIfAbsent(directory, d -> new AtomicInteger()).incrementAndGet();
+    }
+
+    /**
+     * The most visited sub-directories of {@code parent}, most visited first.
+     */
+    public List<Path> frequentChildren(Path parent, int limit) {
+        if (parent == null) {
+            return List.of();
+        }
+        return visitCounts.entrySet().stream()
+                .filter(entry -> parent.equals(entry.getKey().getParent()))
+                .sorted(Comparator.comparingInt((Map.Entry<Path, AtomicInteger> entry) -> entry.getValue().get()).reversed())
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    private Mono<Void> fetch(Path directory) {
+        if (!inFlight.add(directory)) {
+            return Mono.empty();
+        }
+
+        return fileService.listFiles(directory, IoPriority.BACKGROUND)
+                // One entry past the budget tells us the listing is too large to keep
+                .take(maxEntries + 1L)
+                .collectList()
+                .doOnNext(items -> {
+                    if (items.size() <= maxEntries) {
+                        listingCache.put(directory, items);
+                        log.debug("Prefetched {} ({} items)", directory, items.size());
+                    }
+                })
+                .onErrorResume(e -> {
+                    log.debug("Prefetch skipped for {}: {}", directory, e.getMessage());
+                    return Mono.<List<FileItem>>empty();
+                })
+                .doFinally(signal -> inFlight.remove(directory))
+                .then();
+    }
+}
@@ -1,61 +1,255 @@
 package io.nomard.flux_file.infrastructure.service;
 
+import io.nomard.flux_file.core.domain.model.ConflictPolicy;
 import io.nomard.flux_file.core.domain.model.FileItem;
+import io.nomard.flux_file.core.domain.model.FileProperties;
+import io.nomard.flux_file.core.domain.sync.SyncAction;
+import io.nomard.flux_file.core.domain.sync.SyncActionType;
+import io.nomard.flux_file.core.domain.sync.SyncOptions;
+import io.nomard.flux_file.core.domain.sync.SyncPlan;
+import io.nomard.flux_file.infrastructure.service.io.BlockingIoSchedulers;
+import io.nomard.flux_file.infrastructure.service.io.IoPriority;
+import io.nomard.flux_file.infrastructure.service.io.MountIoScheduler;
+import io.nomard.flux_file.infrastructure.service.nativeio.LinuxDirectoryLister;
+import io.nomard.flux_file.infrastructure.service.operation.OperationProgress;
 import lombok.extern.slf4j.Slf4j;
 import org.jspecify.annotations.NonNull;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
 
 import java.awt.*;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributeView;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.DosFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
 import java.util.stream.Stream;
 
 @Slf4j
 @Service
 public class FileService {
 
-    private final reactor.core.scheduler.Scheduler ioScheduler = Schedulers.boundedElastic();
+    // Entries read per pull when listing; large enough to amortise the hop, small enough to stream
+    private static final int LISTING_CHUNK_SIZE = 512;
+    // Copy buffer for tracked transfers; progress and pause are checked once per buffer
+    private static final int COPY_BUFFER_SIZE = 1024 * 1024;
+    // Files in flight during a batch paste; the per-device bulk limit is the real cap
+    private static final int BATCH_CONCURRENCY = 16;
+    // Folders compared at once per level while planning a sync
+    private static final int SYNC_CONCURRENCY = 8;
+
+    private final reactor.core.scheduler.Scheduler ioScheduler;
+    private final LinuxDirectoryLister nativeLister;
+    private final MountIoScheduler mountIo;
+
+    public FileService() {
+        this(LinuxDirectoryLister.disabled(), MountIoScheduler.withDefaults(), BlockingIoSchedulers.withDefaults(), 64);
+    }
+
+    @Autowired
+    public FileService(LinuxDirectoryLister nativeLister, MountIoScheduler mountIo, BlockingIoSchedulers blockingIo,
+                       @Value("${flux.io.max-concurrency:64}") int maxConcurrency) {
+        this.nativeLister = nativeLister;
+        this.mountIo = mountIo;
+        this.ioScheduler = blockingIo.scheduler("file-io", maxConcurrency);
+    }
 
     public Flux<FileItem> listFiles(Path directory) {
+        return listFileChunks(directory)
+                .flatMapIterable(chunk -> chunk);
+    }
+
+    /**
+     * List a directory with the given I/O priority, e.g. background for speculative work.
+     */
+    public Flux<FileItem> listFiles(Path directory, IoPriority priority) {
+        return listFileChunks(directory, priority)
+                .flatMapIterable(chunk -> chunk);
+    }
+
+    /**
+     * List a directory in chunks of up to {@value #LISTING_CHUNK_SIZE} items.
+     * <p>
+     * Entries are read in one {@link DirectoryStream} pass on a single thread, each with one
+     * attribute read that also yields the hidden bit and the symlink flag, and are emitted in
+     * directory order. No reactive operator is allocated per entry. Entries that vanish or
+     * cannot be read while listing are skipped.
+     * <p>
+     * When the native Linux backend is enabled it is used instead; if it cannot open the
+     * directory the NIO path runs as usual.
+     * <p>
+     * The reads run as interactive work on the I/O lane of the directory's mount. A mount that stops answering fails
+     * the listing with a {@link io.nomard.flux_file.infrastructure.service.io.MountUnavailableException}
+     * instead of holding a shared thread.
+     */
+    public Flux<List<FileItem>> listFileChunks(Path directory) {
+        return listFileChunks(directory, IoPriority.INTERACTIVE);
+    }
+
+    /**
+     * Like {@link #listFileChunks(Path)} with the given I/O priority.
+     */
+    public Flux<List<FileItem>> listFileChunks(Path directory, IoPriority priority) {
+        return mountIo.stream(directory, readChunks(directory), priority)
+                .doOnError(e -> log.error("Failed to list directory: {}", directory, e));
+    }
+
+    private Flux<List<FileItem>> readChunks(Path directory) {
         return Flux.defer(() -> {
-            try {
-                Stream<Path> pathStream = Files.list(directory);
-                return Flux.fromStream(pathStream)
-                        .flatMap(this::createFileItem)
-                        .onErrorResume(e -> {
-                            log.error("Error listing files in: {}", directory, e);
-                            return Flux.empty();
-                        });
-            } catch (IOException e) {
-                log.error("Failed to list directory: {}", directory, e);
-                return Flux.error(e);
+            LinuxDirectoryLister.Reader reader = nativeLister.open(directory);
+            return reader != null ? nativeChunks(reader) : nioChunks(directory);
+        });
+    }
+
+    // generate, not using: cancellation from another thread defers the close until an in-flight
+    // nextChunk returns, so the descriptor and buffers are never freed under getdents64 or statx
+    private Flux<List<FileItem>> nativeChunks(LinuxDirectoryLister.Reader reader) {
+        return Flux.<List<FileItem>, LinuxDirectoryLister.Reader>generate(
+                () -> reader,
+                (r, sink) -> {
+                    try {
+                        List<FileItem> chunk = r.nextChunk(LISTING_CHUNK_SIZE);
+                        if (chunk.isEmpty()) {
+                            sink.complete();
+                        } else {
+                            sink.next(chunk);
+                        }
+                    } catch (IOException e) {
+                        sink.error(e);
+                    }
+                    return r;
+                },
+                LinuxDirectoryLister.Reader::close
+        );
+    }
+
+    private Flux<List<FileItem>> nioChunks(Path directory) {
+        return Flux.using(
+                () -> Files.newDirectoryStream(directory),
+                stream -> Flux.<List<FileItem>, Iterator<Path>>generate(stream::iterator, (iterator, sink) -> {
+                    List<FileItem> chunk = readChunk(directory, iterator);
+                    if (chunk.isEmpty()) {
+                        sink.complete();
+                    } else {
+                        sink.next(chunk);
+                    }
+                    return iterator;
+                }),
+                this::closeQuietly
+        );
+    }
+
+    private List<FileItem> readChunk(Path directory, Iterator<Path> iterator) {
+        List<FileItem> chunk = new ArrayList<>(LISTING_CHUNK_SIZE);
+        try {
+            while (chunk.size() < LISTING_CHUNK_SIZE && iterator.hasNext()) {
+                Path path = iterator.next();
+                try {
+                    chunk.add(readFileItem(path));
+                } catch (IOException e) {
+                    log.debug("Skipping unreadable entry {}: {}", path, e.getMessage());
+                }
             }
-        }).subscribeOn(ioScheduler);
+        } catch (DirectoryIteratorException e) {
+            // Keep what was read; the rest of the directory is unreachable
+            log.error("Error listing files in: {}", directory, e);
+        }
+        return chunk;
+    }
+
+    private void closeQuietly(DirectoryStream<Path> stream) {
+        try {
+            stream.close();
+        } catch (IOException e) {
+            log.debug("Failed to close directory stream: {}", e.getMessage());
+        }
     }
 
     public Mono<FileItem> createFileItem(Path path) {
-        return Mono.fromCallable(() -> {
+        return mountIo.call(path, () -> {
             try {
-                BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
-
-                // Safe way to get file name (handles root paths)
-                String name = getFileName(path);
-//                String name1 = path.getFileName().toString();
-                boolean isDirectory = attrs.isDirectory();
-                long size = isDirectory ? 0 : attrs.size();
-                Instant modified = attrs.lastModifiedTime().toInstant();
-
-                return new FileItem(path, name, isDirectory, size, modified);
+                return readFileItem(path);
             } catch (IOException e) {
                 throw new RuntimeException("Failed to read file: " + path, e);
             }
-        }).subscribeOn(ioScheduler);
+        });
+    }
+
+    /**
+     * Read the attributes only the Properties dialog shows.
+     */
+    public Mono<FileProperties> readProperties(Path path) {
+        return mountIo.call(path, IoPriority.INTERACTIVE, () -> {
+            BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+            return new FileProperties(
+                    attrs.creationTime().toInstant(),
+                    attrs.lastAccessTime().toInstant(),
+                    Files.isReadable(path),
+                    Files.isWritable(path),
+                    Files.isExecutable(path)
+            );
+        });
+    }
+
+    /**
+     * Read one entry with a single attribute call.
+     * Links are reported with the attributes of their target, falling back to the link itself when dangling.
+     */
+    private FileItem readFileItem(Path path) throws IOException {
+        BasicFileAttributes attrs = readEntryAttributes(path);
+
+        // Safe way to get file name (handles root paths)
+        String name = getFileName(path);
+        boolean symbolicLink = attrs.isSymbolicLink();
+        boolean hidden = name.startsWith(".") || (attrs instanceof DosFileAttributes dos && dos.isHidden());
+
+        if (symbolicLink) {
+            try {
+                attrs = Files.readAttributes(path, BasicFileAttributes.class);
+            } catch (IOException dangling) {
+                // Show the link itself
+            }
+        }
+
+        boolean isDirectory = attrs.isDirectory();
+        long size = isDirectory ? 0 : attrs.size();
+        Instant modified = attrs.lastModifiedTime().toInstant();
+
+        return new FileItem(path, name, isDirectory, size, modified, hidden, symbolicLink);
+    }
+
+    private BasicFileAttributes readEntryAttributes(Path path) throws IOException {
+        Set<String> views = path.getFileSystem().supportedFileAttributeViews();
+        if (views.contains("posix")) {
+            return Files.readAttributes(path, PosixFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        }
+        if (views.contains("dos")) {
+            return Files.readAttributes(path, DosFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        }
+        return Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
     }
 
     /**
@@ -100,20 +294,38 @@ public class FileService {
                 try {
                     Files.walkFileTree(root, java.util.EnumSet.noneOf(FileVisitOption.class), Integer.MAX_VALUE,
                             new SimpleFileVisitor<>() {
+                                @Override
+                                public @NonNull FileVisitResult preVisitDirectory(@NonNull Path dir, @NonNull BasicFileAttributes attrs) {
+                                    // Stop walking as soon as the search is superseded
+                                    if (sink.isCancelled()) {
+                                        return FileVisitResult.TERMINATE;
+                                    }
+                                    mountIo.stepAside(root);
+                                    return FileVisitResult.CONTINUE;
+                                }
+
                                 @Override
                                 public @NonNull FileVisitResult visitFile(@NonNull Path file, @NonNull BasicFileAttributes attrs) {
+                                    if (sink.isCancelled()) {
+                                        return FileVisitResult.TERMINATE;
+                                    }
                                     try {
                                         Path fileName = file.getFileName();
                                         if (fileName != null &&
                                                 fileName.toString().toLowerCase().contains(lowerSearchTerm)) {
 
                                             if (!sink.isCancelled()) {
+                                                String name = fileName.toString();
+                                                boolean hidden = name.startsWith(".")
+                                                        || (attrs instanceof DosFileAttributes dos && dos.isHidden());
                                                 sink.next(new FileItem(
                                                         file,
-                                                        fileName.toString(),
+                                                        name,
                                                         false,
                                                         attrs.size(),
-                                                        attrs.lastModifiedTime().toInstant()
+                                                        attrs.lastModifiedTime().toInstant(),
+                                                        hidden,
+                                                        attrs.isSymbolicLink()
                                                 ));
                                             }
                                         }
@@ -135,9 +347,10 @@ public class FileService {
                     sink.error(e);
                 }
             });
-        }).subscribeOn(ioScheduler);
+        }).transform(search -> mountIo.bulk(search, root)).subscribeOn(ioScheduler);
     }
 
+    // Launching an application is not mount I/O: a slow start must not count against the mount's deadline or breaker
     public Mono<Void> openFile(Path path) {
         return Mono.fromRunnable(() -> {
             try {
@@ -197,54 +410,645 @@ public class FileService {
     }
 
     public Mono<Void> copyFile(Path source, Path target) {
+        return copyFile(source, target, OperationProgress.NONE);
+    }
+
+    /**
+     * Copy a file, reporting bytes to {@code progress} and honouring its pause and cancel.
+     * A cancelled copy removes the partial target.
+     */
+    public Mono<Void> copyFile(Path source, Path target, OperationProgress progress) {
         return Mono.fromRunnable(() -> {
             try {
-                Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+                if (progress == OperationProgress.NONE || Files.isDirectory(source)) {
+                    Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+                } else {
+                    progress.expect(Files.size(source), 1);
+                    copyContents(source, target, progress);
+                }
+                progress.addFiles(1);
             } catch (IOException e) {
                 throw new RuntimeException("Failed to copy file: " + source, e);
             }
-        }).subscribeOn(ioScheduler).then();
+        }).transform(copy -> mountIo.bulk(copy, source, target)).subscribeOn(ioScheduler).then();
+    }
+
+    private void copyContents(Path source, Path target, OperationProgress progress) throws IOException {
+        copyContents(source, target, progress, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+    }
+
+    private void copyContents(Path source, Path target, OperationProgress progress, OpenOption... options)
+            throws IOException {
+        try (InputStream in = Files.newInputStream(source);
+             OutputStream out = Files.newOutputStream(target, options)) {
+            transfer(in, out, progress, source, target);
+        } catch (CancellationException e) {
+            Files.deleteIfExists(target);
+            throw e;
+        }
+        try {
+            Files.setPosixFilePermissions(target, Files.getPosixFilePermissions(source));
+        } catch (UnsupportedOperationException ignored) {
+            // Not a POSIX file system; the target keeps default permissions
+        }
+    }
+
+    // For work holding the bulk permits of held, such as compress
+    private void transfer(InputStream in, OutputStream out, OperationProgress progress, Path... held)
+            throws IOException {
+        byte[] buffer = new byte[COPY_BUFFER_SIZE];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            checkpoint(progress, held);
+            out.write(buffer, 0, read);
+            progress.addBytes(read);
+        }
+    }
+
+    /**
+     * Copy a file's stream while holding the bulk permits of {@code source} and {@code target}.
+     * The time of each full-buffer read and write goes to the devices' bulk limits; partial
+     * buffers are not timed. A pause hands the permits back until it ends.
+     */
+    private void transfer(InputStream in, OutputStream out, OperationProgress progress, Path source, Path target)
+            throws IOException {
+        LongConsumer readTimer = mountIo.bulkIoTimer(source);
+        LongConsumer writeTimer = mountIo.bulkIoTimer(target);
+        byte[] buffer = new byte[COPY_BUFFER_SIZE];
+        while (true) {
+            long started = System.nanoTime();
+            int read = in.readNBytes(buffer, 0, buffer.length);
+            if (read == 0) {
+                break;
+            }
+            boolean full = read == buffer.length;
+            if (full) {
+                readTimer.accept(System.nanoTime() - started);
+            }
+            checkpoint(progress, source, target);
+            started = System.nanoTime();
+            out.write(buffer, 0, read);
+            if (full) {
+                writeTimer.accept(System.nanoTime() - started);
+            }
+            progress.addBytes(read);
+        }
+    }
+
+    /**
+     * Checkpoint for bulk work holding the permits of {@code paths}. A pause hands the permits
+     * to other work until it ends, and bulk work, being background work, steps aside while
+     * interactive work is pending on those devices.
+     */
+    private void checkpoint(OperationProgress progress, Path... paths) {
+        if (progress.isPaused()) {
+            mountIo.releasedWhile(progress::checkpoint, paths);
+        } else {
+            progress.checkpoint();
+        }
+        mountIo.stepAside(paths);
     }
 
     public Mono<Void> moveFile(Path source, Path target) {
+        return moveFile(source, target, OperationProgress.NONE);
+    }
+
+    public Mono<Void> moveFile(Path source, Path target, OperationProgress progress) {
         return Mono.fromRunnable(() -> {
             try {
+                long size = Files.isRegularFile(source) ? Files.size(source) : 0;
+                progress.expect(size, 1);
+                checkpoint(progress, source, target);
                 Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+                progress.addBytes(size);
+                progress.addFiles(1);
             } catch (IOException e) {
                 throw new RuntimeException("Failed to move file: " + source, e);
             }
+        }).transform(move -> mountIo.bulk(move, source, target)).subscribeOn(ioScheduler).then();
+    }
+
+    /**
+     * Copy a selection into {@code targetDirectory} as one job. The trees are planned first,
+     * folders are created, then files stream in concurrently; the per-device bulk limit decides
+     * how many copies actually run at once. A failed file does not stop the others; the job
+     * reports the failures at the end.
+     * <p>
+     * Items that replace an existing one are copied next to it under a hidden name and swapped
+     * in only once the whole job has succeeded, so a failed or cancelled paste leaves the
+     * existing item as it was.
+     */
+    public Mono<Void> copyBatch(List<Path> sources, Path targetDirectory, ConflictPolicy policy,
+                                OperationProgress progress) {
+        return planBatch(sources, targetDirectory, policy, false, progress)
+                .flatMap(plan -> runBatch(plan, progress)
+                        .then(commitReplacements(plan, progress))
+                        .onErrorResume(e -> discardReplacements(plan).then(Mono.error(e))));
+    }
+
+    /**
+     * Move a selection into {@code targetDirectory} as one job. Items on the same file system
+     * are renamed; the rest are copied as in {@link #copyBatch} and their sources deleted once
+     * every copy has succeeded.
+     */
+    public Mono<Void> moveBatch(List<Path> sources, Path targetDirectory, ConflictPolicy policy,
+                                OperationProgress progress) {
+        return planBatch(sources, targetDirectory, policy, true, progress)
+                .flatMap(plan -> runBatch(plan, progress)
+                        .then(commitReplacements(plan, progress))
+                        .onErrorResume(e -> discardReplacements(plan).then(Mono.error(e)))
+                        .then(deleteBatchSources(plan, progress)));
+    }
+
+    private Mono<BatchPlan> planBatch(List<Path> sources, Path targetDirectory, ConflictPolicy policy,
+                                      boolean move, OperationProgress progress) {
+        return Mono.fromCallable(() -> {
+            BatchPlan plan = new BatchPlan(new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+            FileStore targetStore = move ? Files.getFileStore(targetDirectory) : null;
+            for (Path source : sources) {
+                progress.checkpoint();
+                if (Files.isDirectory(source, LinkOption.NOFOLLOW_LINKS) && targetDirectory.startsWith(source)) {
+                    throw new IOException("Cannot paste " + source + " into itself");
+                }
+                Path target = resolveBatchTarget(source, targetDirectory, policy, move);
+                if (target == null) {
+                    continue;
+                }
+                boolean replacing = !target.equals(source) && Files.exists(target, LinkOption.NOFOLLOW_LINKS);
+                if (replacing && source.startsWith(target)) {
+                    throw new IOException("Cannot replace " + target + " with an item inside it");
+                }
+                if (move && Files.getFileStore(source).equals(targetStore)) {
+                    // Same file system: a rename, whatever the size of the tree
+                    progress.expect(0, 1);
+                    if (replacing) {
+                        swapIn(source, target);
+                    } else {
+                        Files.move(source, target);
+                    }
+                    progress.addFiles(1);
+                    continue;
+                }
+                if (replacing) {
+                    // REPLACE: build the new item beside the old one; nothing is merged into or written through it
+                    Path staging = uniqueSibling(target.resolveSibling("." + target.getFileName() + ".replacing"));
+                    plan.replacements().add(new Replacement(staging, target));
+                    target = staging;
+                }
+                planTree(source, target, plan);
+                if (move) {
+                    plan.sources().add(source);
+                }
+            }
+            long bytes = 0;
+            for (BatchFile file : plan.files()) {
+                bytes += file.size();
+            }
+            progress.expect(bytes, plan.files().size());
+            return plan;
+        }).transform(planning -> mountIo.bulk(planning, bulkPaths(targetDirectory, parentsOf(sources))))
+                .subscribeOn(ioScheduler);
+    }
+
+    /**
+     * Where a top-level item lands under the batch policy, or {@code null} to skip it.
+     */
+    private Path resolveBatchTarget(Path source, Path targetDirectory, ConflictPolicy policy, boolean move) {
+        Path target = targetDirectory.resolve(source.getFileName());
+        if (!Files.exists(target, LinkOption.NOFOLLOW_LINKS)) {
+            return target;
+        }
+        if (target.equals(source)) {
+            // Pasting into the item's own folder: a copy gets a new name, a move is a no-op
+            return move ? null : uniqueSibling(target);
+        }
+        return switch (policy) {
+            case KEEP_BOTH -> uniqueSibling(target);
+            case REPLACE -> target;
+            case SKIP -> null;
+        };
+    }
+
+    private Mono<Void> commitReplacements(BatchPlan plan, OperationProgress progress) {
+        if (plan.replacements().isEmpty()) {
+            return Mono.empty();
+        }
+        return Mono.fromRunnable(() -> {
+            try {
+                for (Replacement replacement : plan.replacements()) {
+                    progress.checkpoint();
+                    swapIn(replacement.staging(), replacement.target());
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to replace existing item", e);
+            }
+        }).transform(swap -> mountIo.bulk(swap, parentsOf(plan.replacements().stream()
+                        .map(Replacement::target).toList()).toArray(Path[]::new)))
+                .subscribeOn(ioScheduler).then();
+    }
+
+    // Staged copies not yet swapped in; the items they were to replace are untouched
+    private Mono<Void> discardReplacements(BatchPlan plan) {
+        if (plan.replacements().isEmpty()) {
+            return Mono.empty();
+        }
+        return Mono.fromRunnable(() -> {
+            for (Replacement replacement : plan.replacements()) {
+                try {
+                    if (Files.exists(replacement.staging(), LinkOption.NOFOLLOW_LINKS)) {
+                        removeExisting(replacement.staging());
+                    }
+                } catch (IOException e) {
+                    log.warn("Could not remove staged copy {}: {}", replacement.staging(), e.getMessage());
+                }
+            }
+        }).subscribeOn(ioScheduler).then();
+    }
+
+    /**
+     * Put {@code replacement} in place of {@code target}. The old item is renamed aside first and
+     * renamed back if the swap fails, so one of the two is always there under the name.
+     */
+    private void swapIn(Path replacement, Path target) throws IOException {
+        if (!Files.exists(target, LinkOption.NOFOLLOW_LINKS)) {
+            Files.move(replacement, target, LinkOption.NOFOLLOW_LINKS);
+            return;
+        }
+        Path old = uniqueSibling(target.resolveSibling("." + target.getFileName() + ".replaced"));
+        Files.move(target, old, LinkOption.NOFOLLOW_LINKS);
+        try {
+            Files.move(replacement, target, LinkOption.NOFOLLOW_LINKS);
+        } catch (IOException e) {
+            Files.move(old, target, LinkOption.NOFOLLOW_LINKS);
+            throw e;
+        }
+        removeExisting(old);
+    }
+
+    // The link itself, never what it points at
+    private void removeExisting(Path target) throws IOException {
+        if (Files.isDirectory(target, LinkOption.NOFOLLOW_LINKS)) {
+            deleteDirectoryRecursively(target, OperationProgress.NONE);
+        } else {
+            Files.delete(target);
+        }
+    }
+
+    /**
+     * {@code name (1).ext}, {@code name (2).ext}, ... : the first that does not exist yet.
+     */
+    private Path uniqueSibling(Path path) {
+        String baseName = path.getFileName().toString();
+        String extension = "";
+        int lastDot = baseName.lastIndexOf('.');
+        if (lastDot > 0) {
+            extension = baseName.substring(lastDot);
+            baseName = baseName.substring(0, lastDot);
+        }
+        Path candidate = path;
+        for (int counter = 1; Files.exists(candidate, LinkOption.NOFOLLOW_LINKS); counter++) {
+            candidate = path.resolveSibling(baseName + " (" + counter + ")" + extension);
+        }
+        return candidate;
+    }
+
+    private void planTree(Path source, Path target, BatchPlan plan) throws IOException {
+        Files.walkFileTree(source, java.util.EnumSet.noneOf(FileVisitOption.class), Integer.MAX_VALUE,
+                new SimpleFileVisitor<>() {
+                    @Override
+                    public @NonNull FileVisitResult preVisitDirectory(@NonNull Path dir, @NonNull BasicFileAttributes attrs) {
+                        plan.directories().add(target.resolve(source.relativize(dir).toString()));
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public @NonNull FileVisitResult visitFile(@NonNull Path file, @NonNull BasicFileAttributes attrs) {
+                        Path destination = file.equals(source) ? target : target.resolve(source.relativize(file).toString());
+                        plan.files().add(new BatchFile(file, destination,
+                                attrs.isRegularFile() ? attrs.size() : 0, attrs.isSymbolicLink()));
+                        return FileVisitResult.CONTINUE;
+                    }
+                });
+    }
+
+    private Mono<Void> runBatch(BatchPlan plan, OperationProgress progress) {
+        // Parents come before children in walk order, so folders can be created in one pass
+        Mono<Void> directories = Mono.fromRunnable(() -> {
+            try {
+                for (Path directory : plan.directories()) {
+                    progress.checkpoint();
+                    Files.createDirectories(directory);
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to create folder", e);
+            }
         }).subscribeOn(ioScheduler).then();
+
+        return directories.thenMany(Flux.fromIterable(plan.files())
+                        .flatMapDelayError(file -> copyBatchFile(file, progress), BATCH_CONCURRENCY, 1))
+                .then();
+    }
+
+    private Mono<Void> copyBatchFile(BatchFile file, OperationProgress progress) {
+        return Mono.fromRunnable(() -> {
+            try {
+                checkpoint(progress, file.source(), file.target());
+                if (file.symbolicLink()) {
+                    Files.copy(file.source(), file.target(), LinkOption.NOFOLLOW_LINKS, StandardCopyOption.REPLACE_EXISTING);
+                } else {
+                    // Planned targets are new: never overwrite, never write through a link someone put there
+                    copyContents(file.source(), file.target(), progress,
+                            StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE, LinkOption.NOFOLLOW_LINKS);
+                }
+                progress.addFiles(1);
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to copy file: " + file.source(), e);
+            }
+        }).transform(copy -> mountIo.bulk(copy, file.source(), file.target())).subscribeOn(ioScheduler).then();
+    }
+
+    private Mono<Void> deleteBatchSources(BatchPlan plan, OperationProgress progress) {
+        return Mono.fromRunnable(() -> {
+            try {
+                for (Path source : plan.sources()) {
+                    progress.checkpoint();
+                    if (Files.isDirectory(source, LinkOption.NOFOLLOW_LINKS)) {
+                        deleteDirectoryRecursively(source, OperationProgress.NONE);
+                    } else {
+                        Files.delete(source);
+                    }
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Copied, but failed to remove the originals", e);
+            }
+        }).transform(delete -> mountIo.bulk(delete, parentsOf(plan.sources()).toArray(Path[]::new)))
+                .subscribeOn(ioScheduler).then();
+    }
+
+    /**
+     * Compare two trees and work out what would make {@code target} match {@code source}.
+     * Folders are compared in parallel, one listing of each side per folder; files are compared
+     * by size and modification time, plus a content hash when {@link SyncOptions#verifyContents()}
+     * is set. Unchanged files cost one stat. Nothing is modified.
+     */
+    public Mono<SyncPlan> planSync(Path source, Path target, SyncOptions options) {
+        return Mono.defer(() -> {
+            if (source.startsWith(target) || target.startsWith(source)) {
+                return Mono.error(new IOException("Cannot sync a folder with a folder inside it"));
+            }
+            AtomicLong unchanged = new AtomicLong();
+            return Mono.fromCallable(() -> {
+                        if (!Files.isDirectory(source)) {
+                            throw new IOException("Not a folder: " + source);
+                        }
+                        if (Files.exists(target, LinkOption.NOFOLLOW_LINKS) && !Files.isDirectory(target, LinkOption.NOFOLLOW_LINKS)) {
+                            throw new IOException("Not a folder: " + target);
+                        }
+                        return Files.isDirectory(target, LinkOption.NOFOLLOW_LINKS);
+                    })
+                    .subscribeOn(ioScheduler)
+                    .flatMapMany(targetPresent -> {
+                        Flux<SyncAction> tree = compareTrees(new DirectoryPair(source, target, targetPresent), options, unchanged);
+                        return targetPresent
+                                ? tree
+                                : Flux.just(new SyncAction(SyncActionType.CREATE_DIRECTORY, source, target, 0, null, false))
+                                .concatWith(tree);
+                    })
+                    .collectList()
+                    .map(actions -> new SyncPlan(source, target, options, actions, unchanged.get()));
+        });
+    }
+
+    private Flux<SyncAction> compareTrees(DirectoryPair pair, SyncOptions options, AtomicLong unchanged) {
+        return Mono.fromCallable(() -> compareDirectory(pair, options))
+                .transform(compare -> mountIo.bulk(compare, pair.source(), pair.target()))
+                .subscribeOn(ioScheduler)
+                .flatMapMany(comparison -> {
+                    unchanged.addAndGet(comparison.unchanged());
+                    return Flux.fromIterable(comparison.actions())
+                            .concatWith(Flux.fromIterable(comparison.directories())
+                                    .flatMap(child -> compareTrees(child, options, unchanged), SYNC_CONCURRENCY));
+                });
+    }
+
+    private DirectoryComparison compareDirectory(DirectoryPair pair, SyncOptions options) throws IOException {
+        Map<String, BasicFileAttributes> sourceEntries = readEntries(pair.source());
+        Map<String, BasicFileAttributes> targetEntries = pair.targetPresent() ? readEntries(pair.target()) : Map.of();
+        List<SyncAction> actions = new ArrayList<>();
+        List<DirectoryPair> directories = new ArrayList<>();
+        long unchanged = 0;
+
+        for (Map.Entry<String, BasicFileAttributes> entry : sourceEntries.entrySet()) {
+            Path from = pair.source().resolve(entry.getKey());
+            Path to = pair.target().resolve(entry.getKey());
+            BasicFileAttributes sourceAttributes = entry.getValue();
+            BasicFileAttributes targetAttributes = targetEntries.get(entry.getKey());
+
+            if (sourceAttributes.isDirectory()) {
+                boolean present = targetAttributes != null && targetAttributes.isDirectory();
+                if (!present) {
+                    if (targetAttributes != null) {
+                        actions.add(SyncAction.delete(to));
+                    }
+                    actions.add(new SyncAction(SyncActionType.CREATE_DIRECTORY, from, to, 0, null, false));
+                }
+                directories.add(new DirectoryPair(from, to, present));
+            } else if (targetAttributes == null) {
+                actions.add(fileAction(SyncActionType.COPY, from, to, sourceAttributes));
+            } else if (targetAttributes.isDirectory()
+                    || targetAttributes.isSymbolicLink() != sourceAttributes.isSymbolicLink()) {
+                actions.add(SyncAction.delete(to));
+                actions.add(fileAction(SyncActionType.COPY, from, to, sourceAttributes));
+            } else if (!sameFile(from, to, sourceAttributes, targetAttributes, options)) {
+                actions.add(fileAction(SyncActionType.UPDATE, from, to, sourceAttributes));
+            } else {
+                unchanged++;
+            }
+        }
+
+        if (options.deleteExtraneous()) {
+            for (String name : targetEntries.keySet()) {
+                if (!sourceEntries.containsKey(name)) {
+                    actions.add(SyncAction.delete(pair.target().resolve(name)));
+                }
+            }
+        }
+        return new DirectoryComparison(actions, directories, unchanged);
+    }
+
+    private Map<String, BasicFileAttributes> readEntries(Path directory) throws IOException {
+        Map<String, BasicFileAttributes> entries = new TreeMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path entry : stream) {
+                try {
+                    entries.put(entry.getFileName().toString(),
+                            Files.readAttributes(entry, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS));
+                } catch (NoSuchFileException e) {
+                    // Removed while we were listing
+                }
+            }
+        }
+        return entries;
+    }
+
+    private SyncAction fileAction(SyncActionType type, Path from, Path to, BasicFileAttributes attributes) {
+        return new SyncAction(type, from, to, attributes.isSymbolicLink() ? 0 : attributes.size(),
+                attributes.lastModifiedTime().toInstant(), attributes.isSymbolicLink());
+    }
+
+    private boolean sameFile(Path from, Path to, BasicFileAttributes sourceAttributes,
+                             BasicFileAttributes targetAttributes, SyncOptions options) throws IOException {
+        // Millisecond precision: finer stamps do not survive every file system
+        if (sourceAttributes.size() != targetAttributes.size()
+                || sourceAttributes.lastModifiedTime().toMillis() != targetAttributes.lastModifiedTime().toMillis()) {
+            return false;
+        }
+        if (!options.verifyContents() || sourceAttributes.isSymbolicLink()) {
+            return true;
+        }
+        return Arrays.equals(contentHash(from), contentHash(to));
+    }
+
+    private byte[] contentHash(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        byte[] buffer = new byte[COPY_BUFFER_SIZE];
+        try (InputStream in = Files.newInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return digest.digest();
+    }
+
+    /**
+     * Apply a plan from {@link #planSync}: clear entries in the way, create folders, copy files
+     * in parallel under the per-device bulk limit, then delete what the source no longer has.
+     * Copied files take the source's modification time, so the next sync skips them.
+     */
+    public Mono<Void> executeSync(SyncPlan plan, OperationProgress progress) {
+        return Mono.defer(() -> {
+            Set<Path> written = new HashSet<>();
+            List<SyncAction> directories = new ArrayList<>();
+            List<SyncAction> files = new ArrayList<>();
+            for (SyncAction action : plan.actions()) {
+                switch (action.type()) {
+                    case CREATE_DIRECTORY -> directories.add(action);
+                    case COPY, UPDATE -> files.add(action);
+                    case DELETE -> {
+                        continue;
+                    }
+                }
+                written.add(action.target());
+            }
+            // A delete of something a copy or folder will replace has to go first
+            List<SyncAction> blocking = new ArrayList<>();
+            List<SyncAction> extraneous = new ArrayList<>();
+            for (SyncAction action : plan.actions()) {
+                if (action.type() == SyncActionType.DELETE) {
+                    (written.contains(action.target()) ? blocking : extraneous).add(action);
+                }
+            }
+            directories.sort(Comparator.comparingInt(action -> action.target().getNameCount()));
+            progress.expect(plan.bytesToCopy(), plan.actions().size());
+
+            return syncSteps(plan, blocking, progress)
+                    .then(syncSteps(plan, directories, progress))
+                    .thenMany(Flux.fromIterable(files)
+                            .flatMapDelayError(action -> syncFile(action, progress), BATCH_CONCURRENCY, 1))
+                    .then(syncSteps(plan, extraneous, progress));
+        });
+    }
+
+    private Mono<Void> syncSteps(SyncPlan plan, List<SyncAction> actions, OperationProgress progress) {
+        if (actions.isEmpty()) {
+            return Mono.empty();
+        }
+        return Mono.fromRunnable(() -> {
+            try {
+                for (SyncAction action : actions) {
+                    progress.checkpoint();
+                    if (action.type() == SyncActionType.CREATE_DIRECTORY) {
+                        Files.createDirectories(action.target());
+                    } else if (Files.isDirectory(action.target(), LinkOption.NOFOLLOW_LINKS)) {
+                        deleteDirectoryRecursively(action.target(), OperationProgress.NONE);
+                    } else {
+                        Files.deleteIfExists(action.target());
+                    }
+                    progress.addFiles(1);
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to sync " + plan.target(), e);
+            }
+        }).transform(steps -> mountIo.bulk(steps, plan.target())).subscribeOn(ioScheduler).then();
+    }
+
+    private Mono<Void> syncFile(SyncAction action, OperationProgress progress) {
+        return Mono.fromRunnable(() -> {
+            try {
+                checkpoint(progress, action.source(), action.target());
+                if (action.link()) {
+                    Files.copy(action.source(), action.target(), LinkOption.NOFOLLOW_LINKS,
+                            StandardCopyOption.REPLACE_EXISTING);
+                    // COPY_ATTRIBUTES leaves a link's own time alone; set it, or every sync would update the link
+                    Files.getFileAttributeView(action.target(), BasicFileAttributeView.class, LinkOption.NOFOLLOW_LINKS)
+                            .setTimes(FileTime.from(action.modified()), null, null);
+                } else {
+                    copyContents(action.source(), action.target(), progress);
+                    Files.setLastModifiedTime(action.target(), FileTime.from(action.modified()));
+                }
+                progress.addFiles(1);
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to copy file: " + action.source(), e);
+            }
+        }).transform(copy -> mountIo.bulk(copy, action.source(), action.target())).subscribeOn(ioScheduler).then();
     }
 
     public Mono<Void> deleteFile(Path path) {
+        return deleteFile(path, OperationProgress.NONE);
+    }
+
+    /**
+     * Delete a file or directory tree, counting removed entries in {@code progress}.
+     */
+    public Mono<Void> deleteFile(Path path, OperationProgress progress) {
         return Mono.fromRunnable(() -> {
             try {
                 if (Files.isDirectory(path)) {
-                    deleteDirectoryRecursively(path);
+                    deleteDirectoryRecursively(path, progress);
                 } else {
+                    progress.expect(0, 1);
+                    checkpoint(progress, path);
                     Files.delete(path);
+                    progress.addFiles(1);
                 }
             } catch (IOException e) {
                 throw new RuntimeException("Failed to delete: " + path, e);
             }
-        }).subscribeOn(ioScheduler).then();
+        }).transform(delete -> mountIo.bulk(delete, path)).subscribeOn(ioScheduler).then();
     }
 
-    private void deleteDirectoryRecursively(Path directory) throws IOException {
+    private void deleteDirectoryRecursively(Path directory, OperationProgress progress) throws IOException {
+        List<Path> paths;
         try (Stream<Path> walk = Files.walk(directory)) {
-            walk.sorted((a, b) -> -a.compareTo(b))
-                    .forEach(path -> {
-                        try {
-                            Files.delete(path);
-                        } catch (IOException e) {
-                            throw new RuntimeException("Failed to delete: " + path, e);
-                        }
-                    });
+            paths = walk.sorted((a, b) -> -a.compareTo(b)).toList();
+        }
+        progress.expect(0, paths.size());
+        for (Path path : paths) {
+            checkpoint(progress, directory);
+            Files.delete(path);
+            progress.addFiles(1);
         }
     }
 
     public Mono<Boolean> createDirectory(Path path) {
-        return Mono.fromCallable(() -> {
+        return mountIo.call(path, () -> {
             try {
                 Files.createDirectories(path);
                 return true;
@@ -252,46 +1056,100 @@ public class FileService {
                 log.error("Failed to create directory: {}", path, e);
                 return false;
             }
-        }).subscribeOn(ioScheduler);
+        });
     }
 
     public Mono<Void> renameFile(Path path, String newName) {
-        return Mono.fromRunnable(() -> {
+        return mountIo.call(path, () -> {
             try {
                 Path target = path.getParent().resolve(newName);
-                Files.move(path, target, StandardCopyOption.REPLACE_EXISTING);
+                return Files.move(path, target, StandardCopyOption.REPLACE_EXISTING);
             } catch (IOException e) {
                 throw new RuntimeException("Failed to rename: " + path, e);
             }
-        }).subscribeOn(ioScheduler).then();
+        }).then();
     }
 
     public Mono<Void> compressFiles(java.util.List<Path> files, Path zipFile) {
+        return compressFiles(files, zipFile, OperationProgress.NONE);
+    }
+
+    /**
+     * Zip files and folders, reporting bytes read to {@code progress}. A cancelled archive is removed.
+     */
+    public Mono<Void> compressFiles(java.util.List<Path> files, Path zipFile, OperationProgress progress) {
+        Path[] held = bulkPaths(zipFile, files);
         return Mono.fromRunnable(() -> {
-            try (java.io.FileOutputStream fos = new java.io.FileOutputStream(zipFile.toFile());
-                 java.util.zip.ZipOutputStream zos = new java.util.zip.ZipOutputStream(fos)) {
+            try {
+                expectTree(files, progress);
+                try (java.io.FileOutputStream fos = new java.io.FileOutputStream(zipFile.toFile());
+                     java.util.zip.ZipOutputStream zos = new java.util.zip.ZipOutputStream(fos)) {
 
-                for (Path file : files) {
-                    if (Files.isDirectory(file)) {
-                        zipDirectory(file, file.getFileName().toString(), zos);
-                    } else {
-                        zipFile(file, getFileName(file), zos);
+                    for (Path file : files) {
+                        if (Files.isDirectory(file)) {
+                            zipDirectory(file, file.getFileName().toString(), zos, progress, held);
+                        } else {
+                            zipFile(file, getFileName(file), zos, progress, held);
+                        }
                     }
+                } catch (CancellationException e) {
+                    Files.deleteIfExists(zipFile);
+                    throw e;
                 }
             } catch (IOException e) {
                 throw new RuntimeException("Failed to compress files", e);
             }
-        }).subscribeOn(ioScheduler).then();
+        }).transform(compress -> mountIo.bulk(compress, held))
+                .subscribeOn(ioScheduler).then();
     }
 
-    private void zipFile(Path file, String fileName, java.util.zip.ZipOutputStream zos) throws IOException {
+    // Totals up front so the progress bar is meaningful; skipped when nobody is watching
+    private void expectTree(List<Path> roots, OperationProgress progress) throws IOException {
+        if (progress == OperationProgress.NONE) return;
+        long bytes = 0;
+        long count = 0;
+        for (Path root : roots) {
+            try (Stream<Path> walk = Files.walk(root)) {
+                for (Path path : (Iterable<Path>) walk::iterator) {
+                    progress.checkpoint();
+                    if (Files.isRegularFile(path)) {
+                        bytes += Files.size(path);
+                        count++;
+                    }
+                }
+            }
+        }
+        progress.expect(bytes, count);
+    }
+
+    // A selection usually shares one folder; guarding each of thousands of paths would nest as deep
+    private List<Path> parentsOf(List<Path> paths) {
+        return paths.stream()
+                .map(path -> path.getParent() != null ? path.getParent() : path)
+                .distinct()
+                .toList();
+    }
+
+    private Path[] bulkPaths(Path target, List<Path> sources) {
+        List<Path> paths = new ArrayList<>(sources.size() + 1);
+        paths.add(target);
+        paths.addAll(sources);
+        return paths.toArray(Path[]::new);
+    }
+
+    private void zipFile(Path file, String fileName, java.util.zip.ZipOutputStream zos,
+                         OperationProgress progress, Path[] held) throws IOException {
         java.util.zip.ZipEntry zipEntry = new java.util.zip.ZipEntry(fileName);
         zos.putNextEntry(zipEntry);
-        Files.copy(file, zos);
+        try (InputStream in = Files.newInputStream(file)) {
+            transfer(in, zos, progress, held);
+        }
         zos.closeEntry();
+        progress.addFiles(1);
     }
 
-    private void zipDirectory(Path folder, String parentFolder, java.util.zip.ZipOutputStream zos) throws IOException {
+    private void zipDirectory(Path folder, String parentFolder, java.util.zip.ZipOutputStream zos,
+                              OperationProgress progress, Path[] held) throws IOException {
         try (Stream<Path> files = Files.walk(folder)) {
             files.filter(path -> !path.equals(folder))
                     .forEach(path -> {
@@ -303,7 +1161,10 @@ public class FileService {
                             java.util.zip.ZipEntry zipEntry = new java.util.zip.ZipEntry(zipEntryName);
                             zos.putNextEntry(zipEntry);
                             if (!Files.isDirectory(path)) {
-                                Files.copy(path, zos);
+                                try (InputStream in = Files.newInputStream(path)) {
+                                    transfer(in, zos, progress, held);
+                                }
+                                progress.addFiles(1);
                             }
                             zos.closeEntry();
                         } catch (IOException e) {
@@ -312,4 +1173,35 @@ public class FileService {
                     });
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Work planned for a batch paste.
+     *
+     * @param directories target folders, parents first
+     * @param files       files and links to copy
+     * @param sources     moved items that were copied and must be deleted afterwards
+     */
+    private record BatchPlan(List<Path> directories, List<BatchFile> files, List<Path> sources,
+                             List<Replacement> replacements) {
+    }
+
+    /**
+     * An existing item and the staged copy that takes its place once the batch succeeds.
+     */
+    private record Replacement(Path staging, Path target) {
+    }
+
+    private record BatchFile(Path source, Path target, long size, boolean symbolicLink) {
+    }
+
+    /**
+     * A source folder and where it goes.
+     *
+     * @param targetPresent whether the target folder exists yet; if not there is nothing to list
+     */
+    private record DirectoryPair(Path source, Path target, boolean targetPresent) {
+    }
+
+    private record DirectoryComparison(List<SyncAction> actions, List<DirectoryPair> directories, long unchanged) {
+    }
+}
@@ -0,0 +1,127 @@
+package io.nomard.flux_file.infrastructure.service;
+
+import io.nomard.flux_file.core.domain.model.FileItem;
+import io.nomard.flux_file.core.domain.sort.FileSortOrder;
+import io.nomard.flux_file.core.domain.sort.NaturalSortKey;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Sorts file listings off the FX thread.
+ * <p>
+ * Every item is decorated once with primitive size and modification keys and a
+ * precomputed {@link NaturalSortKey}, so comparisons never format or fold strings.
+ */
+@Service
+public class FileSortService {
+
+    // Below this size the fork/join overhead of a parallel sort is not worth it
+    private static final int PARALLEL_SORT_THRESHOLD = 8_192;
+
+    private final reactor.core.scheduler.Scheduler sortScheduler = Schedulers.parallel();
+
+    /**
+     * Sort the given items on a background thread.
+     * The input list is not modified; a new list is emitted.
+     */
+    public Mono<List<FileItem>> sort(List<FileItem> items, FileSortOrder order) {
+        return Mono.fromCallable(() -> sortNow(items, order))
+                .subscribeOn(sortScheduler);
+    }
+
+    /**
+     * Sort the given items on the calling thread.
+     * Intended for callers that are already running off the FX thread.
+     */
+    public List<FileItem> sortNow(List<FileItem> items, FileSortOrder order) {
+        if (items == null || items.isEmpty()) {
+            return new ArrayList<>();
+        }
+        FileSortOrder effectiveOrder = order != null ? order : FileSortOrder.DEFAULT;
+
+        SortEntry[] entries = new SortEntry[items.size()];
+        for (int i = 0; i < entries.length; i++) {
+            entries[i] = new SortEntry(items.get(i));
+        }
+
+        Comparator<SortEntry> comparator = comparatorFor(effectiveOrder);
+        if (entries.length >= PARALLEL_SORT_THRESHOLD) {
+            Arrays.parallelSort(entries, comparator);
+        } else {
+            Arrays.sort(entries, comparator);
+        }
+
+        List<FileItem> sorted = new ArrayList<>(entries.length);
+        for (SortEntry entry : entries) {
+            sorted.add(entry.item);
+        }
+        return sorted;
+    }
+
+    /**
+     * Comparator over raw {@link FileItem}s for the given order.
+     * Keys are derived on every call, so prefer {@link #sort} for whole listings.
+     */
+    public Comparator<FileItem> comparator(FileSortOrder order) {
+        Comparator<SortEntry> entryComparator = comparatorFor(order != null ? order : FileSortOrder.DEFAULT);
+        return (a, b) -> entryComparator.compare(new SortEntry(a), new SortEntry(b));
+    }
+
+    private Comparator<SortEntry> comparatorFor(FileSortOrder order) {
+        Comparator<SortEntry> byField = switch (order.field()) {
+            case NAME -> (a, b) -> 0;
+            case TYPE -> (a, b) -> a.extensionKey.compareTo(b.extensionKey);
+            case SIZE -> (a, b) -> Long.compare(a.size, b.size);
+            case MODIFIED -> (a, b) -> Long.compare(a.modifiedMillis, b.modifiedMillis);
+        };
+
+        Comparator<SortEntry> byName = (a, b) -> {
+            int result = a.nameKey.compareTo(b.nameKey);
+            return result != 0 ? result : a.item.name().compareTo(b.item.name());
+        };
+
+        Comparator<SortEntry> ordered = byField.thenComparing(byName);
+        if (!order.ascending()) {
+            ordered = ordered.reversed();
+        }
+
+        if (!order.directoriesFirst()) {
+            return ordered;
+        }
+        Comparator<SortEntry> finalOrdered = ordered;
+        return (a, b) -> {
+            if (a.directory != b.directory) {
+                return a.directory ? -1 : 1;
+            }
+            return finalOrdered.compare(a, b);
+        };
+    }
+
+    /**
+     * A listing entry with its sort keys computed once up front.
+     */
+    private static final class SortEntry {
+        private final FileItem item;
+        private final boolean directory;
+        private final long size;
+        private final long modifiedMillis;
+        private final String nameKey;
+        private final String extensionKey;
+
+        private SortEntry(FileItem item) {
+            this.item = item;
+            this.directory = item.isDirectory();
+            this.size = item.isDirectory() ? 0 : item.size();
+            this.modifiedMillis = item.modified() != null ? item.modified().toEpochMilli() : 0L;
+            this.nameKey = NaturalSortKey.of(item.name());
+            this.extensionKey = item.getExtension().toLowerCase(Locale.ROOT);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package io.nomard.flux_file.infrastructure.service.io;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Non-blocking concurrency limit for bulk work on one device.
+ * <p>
+ * Waiting operations queue without holding a thread. The limit starts at the configured
+ * maximum and adapts to observed latency: when the smoothed duration of single I/Os rises
+ * well above the recent best, the device is queueing internally and the limit is cut by a
+ * quarter; while it stays near the best and all permits are in use, the limit grows by one
+ * per round of samples.
+ * <p>
+ * Latency comes from {@link #sample}, one fixed-size I/O at a time, not from whole operations:
+ * how long a copy or search takes says more about its size, and about waits on other devices,
+ * than about this device.
+ */
+final class AdaptiveLimiter {
+
+    private static final double SMOOTHING = 0.2;
+    private static final double CONGESTION_RATIO = 2.0;
+    // Forget the best latency now and then, so a changed workload gets a new baseline
+    private static final int BASELINE_WINDOW = 256;
+
+    private final int maxLimit;
+    private final Deque<Waiter> waiters = new ArrayDeque<>();
+    private int limit;
+    private int inFlight = 0;
+    private double smoothedNanos = 0;
+    private long baselineNanos = Long.MAX_VALUE;
+    private int samples = 0;
+    private int samplesSinceChange = 0;
+
+    AdaptiveLimiter(int maxLimit) {
+        this.maxLimit = Math.max(1, maxLimit);
+        this.limit = this.maxLimit;
+    }
+
+    <T> Flux<T> limit(Flux<T> work) {
+        return Flux.usingWhen(acquire(), permit -> work, permit -> Mono.fromRunnable(permit::release));
+    }
+
+    <T> Mono<T> limit(Mono<T> work) {
+        return Mono.usingWhen(acquire(), permit -> work, permit -> Mono.fromRunnable(permit::release));
+    }
+
+    /**
+     * Record the duration of one successful I/O of a fixed size, made while holding a permit.
+     */
+    void sample(long elapsedNanos) {
+        List<Waiter> next;
+        synchronized (this) {
+            adapt(elapsedNanos);
+            next = admit();
+        }
+        next.forEach(Waiter::grant);
+    }
+
+    /**
+     * Give back a permit the caller holds, e.g. while its operation is paused; waiters may take it.
+     */
+    void lend() {
+        release();
+    }
+
+    /**
+     * Take a lent permit back without waiting, even if that goes over the limit for a while.
+     */
+    synchronized void reclaim() {
+        inFlight++;
+    }
+
+    synchronized int currentLimit() {
+        return limit;
+    }
+
+    synchronized int inFlight() {
+        return inFlight;
+    }
+
+    synchronized int queued() {
+        return waiters.size();
+    }
+
+    private void adapt(long elapsedNanos) {
+        smoothedNanos = smoothedNanos == 0 ? elapsedNanos : smoothedNanos + SMOOTHING * (elapsedNanos - smoothedNanos);
+        baselineNanos = Math.min(baselineNanos, elapsedNanos);
+        if (++samples % BASELINE_WINDOW == 0) {
+            baselineNanos = (long) smoothedNanos;
+        }
+
+        // Change at most once per round so the effect of the last change is visible
+        if (++samplesSinceChange < limit) {
+            return;
+        }
+        if (smoothedNanos > CONGESTION_RATIO * baselineNanos && limit > 1) {
+            limit = Math.max(1, limit * 3 / 4);
+            samplesSinceChange = 0;
+        } else if (inFlight >= limit && limit < maxLimit) {
+            limit++;
+            samplesSinceChange = 0;
+        }
+    }
+
+    private Mono<Permit> acquire() {
+        return Mono.<Permit>create(sink -> {
+                    Waiter waiter = new Waiter(sink);
+                    sink.onCancel(() -> {
+                        if (waiter.cancel()) {
+                            synchronized (this) {
+                                waiters.remove(waiter);
+                            }
+                        }
+                    });
+
+                    boolean granted;
+                    synchronized (this) {
+                        granted = inFlight < limit;
+                        if (granted) {
+                            inFlight++;
+                        } else {
+                            waiters.add(waiter);
+                        }
+                    }
+                    if (granted) {
+                        waiter.grant();
+                    }
+                })
+                // Start granted work on its own thread, not nested in the releasing operation's stack
+                .publishOn(Schedulers.boundedElastic())
+                // A permit handed over just as the caller cancelled is returned
+                .doOnDiscard(Permit.class, Permit::release);
+    }
+
+    private void release() {
+        List<Waiter> next;
+        synchronized (this) {
+            inFlight--;
+            next = admit();
+        }
+        next.forEach(Waiter::grant);
+    }
+
+    // Takes permits for as many waiters as the limit allows; they are granted outside the lock
+    private List<Waiter> admit() {
+        List<Waiter> next = new ArrayList<>();
+        while (inFlight < limit && !waiters.isEmpty()) {
+            inFlight++;
+            next.add(waiters.poll());
+        }
+        return next;
+    }
+
+    /**
+     * A queued request for a permit; granted or cancelled exactly once.
+     */
+    private final class Waiter {
+        private final MonoSink<Permit> sink;
+        private final AtomicBoolean settled = new AtomicBoolean(false);
+
+        private Waiter(MonoSink<Permit> sink) {
+            this.sink = sink;
+        }
+
+        private void grant() {
+            if (settled.compareAndSet(false, true)) {
+                sink.success(new Permit());
+            } else {
+                // Cancelled while the permit was being handed over
+                release();
+            }
+        }
+
+        private boolean cancel() {
+            return settled.compareAndSet(false, true);
+        }
+    }
+
+    private final class Permit {
+        private final AtomicBoolean released = new AtomicBoolean(false);
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                AdaptiveLimiter.this.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package io.nomard.flux_file.infrastructure.service.io;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Schedulers for blocking file system, JSch and cloud SDK calls.
+ * <p>
+ * In {@code platform} mode (the default) each caller gets its own bounded elastic pool.
+ * In {@code virtual} mode every task gets a virtual thread, so thousands of stats or remote
+ * requests can wait at once without exhausting a pool; a semaphore per scheduler still bounds
+ * how many actually run, so devices and servers are not flooded. Tasks waiting for a permit
+ * park their virtual thread and cost no carrier.
+ * <p>
+ * Either way a scheduler's concurrency is capped by the limit it was created with, e.g. one
+ * for SFTP, whose channel is not thread-safe.
+ */
+@Slf4j
+@Component
+public class BlockingIoSchedulers {
+
+    public enum Mode {PLATFORM, VIRTUAL}
+
+    // Tasks allowed to queue in a platform pool before it rejects
+    private static final int PLATFORM_QUEUE_CAPACITY = 100_000;
+    private static final int PLATFORM_TTL_SECONDS = 60;
+
+    @Getter
+    private final Mode mode;
+    private final Map<String, Scheduler> schedulers = new ConcurrentHashMap<>();
+
+    public BlockingIoSchedulers(@Value("${flux.io.execution-mode:platform}") String mode) {
+        this.mode = "virtual".equals(mode.trim().toLowerCase(Locale.ROOT)) ? Mode.VIRTUAL : Mode.PLATFORM;
+        log.info("Blocking I/O runs on {} threads", this.mode.name().toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Platform threads, for use outside the Spring context.
+     */
+    public static BlockingIoSchedulers withDefaults() {
+        return new BlockingIoSchedulers("platform");
+    }
+
+    /**
+     * The scheduler for {@code name}, running at most {@code maxConcurrency} tasks at a time.
+     * Repeated calls with the same name share one scheduler.
+     */
+    public Scheduler scheduler(String name, int maxConcurrency) {
+        int permits = Math.max(1, maxConcurrency);
+        return schedulers.computeIfAbsent(name, key -> mode == Mode.VIRTUAL
+                ? virtualScheduler(key, permits)
+                : Schedulers.newBoundedElastic(permits, PLATFORM_QUEUE_CAPACITY, key, PLATFORM_TTL_SECONDS, true));
+    }
+
+    /**
+     * Thread factory for pools managed elsewhere, such as the mount lanes.
+     */
+    public ThreadFactory threadFactory(String name) {
+        if (mode == Mode.VIRTUAL) {
+            return Thread.ofVirtual().name(name + "-", 1).factory();
+        }
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private Scheduler virtualScheduler(String name, int permits) {
+        ExecutorService threads = Executors.newThreadPerTaskExecutor(threadFactory(name));
+        Semaphore semaphore = new Semaphore(permits, true);
+        Executor gated = command -> threads.execute(() -> {
+            semaphore.acquireUninterruptibly();
+            try {
+                command.run();
+            } finally {
+                semaphore.release();
+            }
+        });
+        // Trampolining keeps each worker's tasks in order, as the platform pools do
+        return Schedulers.fromExecutor(gated, true);
+    }
+}
@@ -0,0 +1,75 @@
+package io.nomard.flux_file.infrastructure.service.io;
+
+import java.time.Duration;
+
+/**
+ * Per-mount circuit breaker.
+ * <p>
+ * Consecutive stalls open it; while open every call fails fast. After the cool-down one call
+ * is let through as a probe: if it succeeds the breaker closes, if it stalls it opens again.
+ * Ordinary I/O errors count as answers, not stalls.
+ */
+final class CircuitBreaker {
+
+    enum State {CLOSED, OPEN, HALF_OPEN}
+
+    private final int failureThreshold;
+    private final long cooldownNanos;
+    private State state = State.CLOSED;
+    private int consecutiveFailures = 0;
+    private long changedAt = System.nanoTime();
+
+    CircuitBreaker(int failureThreshold, Duration cooldown) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.cooldownNanos = cooldown.toNanos();
+    }
+
+    /**
+     * Whether a call may proceed. Moves an open breaker to half-open once the cool-down
+     * has passed; a probe that never reported back is replaced after another cool-down.
+     */
+    synchronized boolean tryAcquire() {
+        if (state == State.CLOSED) {
+            return true;
+        }
+        if (System.nanoTime() - changedAt < cooldownNanos) {
+            return false;
+        }
+        state = State.HALF_OPEN;
+        changedAt = System.nanoTime();
+        return true;
+    }
+
+    /**
+     * @return true if this recovered a breaker that was not closed
+     */
+    synchronized boolean recordSuccess() {
+        boolean recovered = state != State.CLOSED;
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        changedAt = System.nanoTime();
+        return recovered;
+    }
+
+    /**
+     * @return true if this opened a closed breaker
+     */
+    synchronized boolean recordFailure() {
+        consecutiveFailures++;
+        if (state == State.CLOSED && consecutiveFailures < failureThreshold) {
+            return false;
+        }
+        boolean opened = state == State.CLOSED;
+        state = State.OPEN;
+        changedAt = System.nanoTime();
+        return opened;
+    }
+
+    synchronized boolean isClosed() {
+        return state == State.CLOSED;
+    }
+
+    synchronized State state() {
+        return state;
+    }
+}
@@ -0,0 +1,17 @@
+package io.nomard.flux_file.infrastructure.service.io;
+
+/**
+ * Scheduling class of file system work. Interactive work always goes first.
+ */
+public enum IoPriority {
+    /**
+     * The user is waiting on it: listing the open folder, opening a file, the Properties dialog.
+     */
+    INTERACTIVE,
+    /**
+     * Nobody is waiting on it: prefetch, and all bulk work (copy, move, delete, sync, compress,
+     * search). Prefetch runs on a subset of a lane's threads; both step aside while interactive
+     * work is pending.
+     */
+    BACKGROUND
+}
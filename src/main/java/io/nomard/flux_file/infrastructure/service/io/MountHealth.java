@@ -0,0 +1,13 @@
+package io.nomard.flux_file.infrastructure.service.io;
+
+import java.time.Instant;
+
+/**
+ * A change in whether a mount is answering I/O.
+ *
+ * @param mount   the mount
+ * @param healthy false once its circuit breaker has opened, true again after a successful probe
+ * @param since   when the state changed
+ */
+public record MountHealth(MountPoint mount, boolean healthy, Instant since) {
+}
@@ -0,0 +1,424 @@
+package io.nomard.flux_file.infrastructure.service.io;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongConsumer;
+
+/**
+ * Runs file system work on per-mount lanes with deadlines.
+ * <p>
+ * Every mount gets its own small thread pool, so a hung NFS or SMB server can only tie up the
+ * threads of its own lane; listing on local disks keeps running on theirs. Metadata work gets a
+ * deadline, and stalls (deadline missed, lane saturated) feed a per-mount {@link CircuitBreaker}.
+ * Once it opens, calls for that mount fail fast with {@link MountUnavailableException}, the UI is
+ * told through {@link #healthChanges()}, and the mount is probed in the background until it answers.
+ * <p>
+ * Bulk work (copy, delete, search, compress) runs through {@link #bulk} instead, which limits
+ * how many such operations hit one device at a time. The limit depends on the device's
+ * {@link StorageClass} and adapts to the latency of single reads and writes that the work
+ * reports through {@link #bulkIoTimer}.
+ * <p>
+ * Lane work has an {@link IoPriority}. Interactive tasks jump the queue and have threads held
+ * back for them; background streams step aside between items while interactive work is pending,
+ * and so does bulk work, through {@link #stepAside}.
+ */
+@Slf4j
+@Service
+public class MountIoScheduler {
+
+    private final MountTable mountTable;
+    private final StorageClassifier storageClassifier;
+    private final BlockingIoSchedulers blockingIo;
+    private final Map<StorageClass, Integer> bulkLimits;
+    private final Duration timeout;
+    private final int laneThreads;
+    private final int laneQueue;
+    private final int interactiveReserve;
+    private final int failureThreshold;
+    private final Duration cooldown;
+    private final Map<Path, Lane> lanes = new ConcurrentHashMap<>();
+    private final Sinks.Many<MountHealth> health = Sinks.many().multicast().directBestEffort();
+
+    public MountIoScheduler(MountTable mountTable,
+                            StorageClassifier storageClassifier,
+                            BlockingIoSchedulers blockingIo,
+                            @Value("${flux.io.timeout:10s}") Duration timeout,
+                            @Value("${flux.io.lane-threads:4}") int laneThreads,
+                            @Value("${flux.io.lane-queue:256}") int laneQueue,
+                            @Value("${flux.io.interactive-reserve:1}") int interactiveReserve,
+                            @Value("${flux.io.failure-threshold:2}") int failureThreshold,
+                            @Value("${flux.io.cooldown:30s}") Duration cooldown,
+                            @Value("${flux.io.limits.ssd:8}") int ssdLimit,
+                            @Value("${flux.io.limits.rotational:2}") int rotationalLimit,
+                            @Value("${flux.io.limits.network:4}") int networkLimit,
+                            @Value("${flux.io.metrics-interval:30s}") Duration metricsInterval) {
+        this.mountTable = mountTable;
+        this.storageClassifier = storageClassifier;
+        this.blockingIo = blockingIo;
+        this.bulkLimits = Map.of(
+                StorageClass.SSD, ssdLimit,
+                StorageClass.ROTATIONAL, rotationalLimit,
+                StorageClass.NETWORK, networkLimit
+        );
+
+        if (!metricsInterval.isZero() && !metricsInterval.isNegative()) {
+            Flux.interval(metricsInterval, metricsInterval)
+                    .subscribe(tick -> reportQueues());
+        }
+        this.timeout = timeout;
+        this.laneThreads = Math.max(1, laneThreads);
+        this.laneQueue = Math.max(1, laneQueue);
+        this.interactiveReserve = interactiveReserve;
+        this.failureThreshold = failureThreshold;
+        this.cooldown = cooldown;
+    }
+
+    /**
+     * Lanes with the default settings, for use outside the Spring context.
+     */
+    public static MountIoScheduler withDefaults() {
+        return withDefaults(BlockingIoSchedulers.withDefaults());
+    }
+
+    /**
+     * Lanes with the default settings on the given kind of threads, for use outside the Spring context.
+     */
+    public static MountIoScheduler withDefaults(BlockingIoSchedulers blockingIo) {
+        return new MountIoScheduler(new MountTable(), new StorageClassifier(), blockingIo,
+                Duration.ofSeconds(10), 4, 256, 1, 2, Duration.ofSeconds(30), 8, 2, 4, Duration.ZERO);
+    }
+
+    /**
+     * Run a short interactive metadata call on the lane of the mount holding {@code path}, within the deadline.
+     */
+    public <T> Mono<T> call(Path path, Callable<T> task) {
+        return call(path, IoPriority.INTERACTIVE, task);
+    }
+
+    /**
+     * Run a short metadata call with the given priority, within the deadline.
+     */
+    public <T> Mono<T> call(Path path, IoPriority priority, Callable<T> task) {
+        return Mono.defer(() -> {
+            Lane lane = laneFor(path);
+            if (!lane.breaker.tryAcquire()) {
+                return Mono.error(new MountUnavailableException(lane.mount));
+            }
+            return Mono.fromCallable(task)
+                    .subscribeOn(lane.scheduler(priority))
+                    .timeout(timeout)
+                    .doOnSuccess(value -> responded(lane))
+                    .onErrorMap(error -> translate(lane, error));
+        });
+    }
+
+    /**
+     * Run an interactive streaming read, such as a directory listing, on the lane of the mount
+     * holding {@code path}. The deadline applies to the first signal and to the gap between signals.
+     */
+    public <T> Flux<T> stream(Path path, Flux<T> source) {
+        return stream(path, source, IoPriority.INTERACTIVE);
+    }
+
+    /**
+     * Like {@link #stream(Path, Flux)} with the given priority. A background stream waits between
+     * items while interactive work is pending on the same lane, for at most half the deadline
+     * so that stepping aside is never mistaken for a stall.
+     */
+    public <T> Flux<T> stream(Path path, Flux<T> source, IoPriority priority) {
+        return Flux.defer(() -> {
+            Lane lane = laneFor(path);
+            Flux<T> timed = stream(lane, source, priority);
+            if (priority != IoPriority.BACKGROUND) {
+                return timed;
+            }
+            Duration maxYield = timeout.dividedBy(2);
+            return timed.concatMap(item -> lane.executor.yieldToInteractive()
+                    .timeout(maxYield, Mono.empty())
+                    .thenReturn(item), 1);
+        });
+    }
+
+    private <T> Flux<T> stream(Lane lane, Flux<T> source, IoPriority priority) {
+        if (!lane.breaker.tryAcquire()) {
+            return Flux.error(new MountUnavailableException(lane.mount));
+        }
+        return source.subscribeOn(lane.scheduler(priority))
+                .timeout(timeout)
+                .doOnNext(value -> responded(lane))
+                .doOnComplete(() -> responded(lane))
+                .onErrorMap(error -> translate(lane, error));
+    }
+
+    /**
+     * Fail fast if the mount holding {@code path} is known not to respond.
+     * For long operations such as copies, which cannot have a fixed deadline and keep
+     * running on their own scheduler.
+     */
+    public <T> Flux<T> guard(Path path, Flux<T> operation) {
+        return Flux.defer(() -> {
+            Lane lane = laneFor(path);
+            return lane.breaker.isClosed()
+                    ? operation
+                    : Flux.error(new MountUnavailableException(lane.mount));
+        });
+    }
+
+    public <T> Mono<T> guard(Path path, Mono<T> operation) {
+        return Mono.defer(() -> {
+            Lane lane = laneFor(path);
+            return lane.breaker.isClosed()
+                    ? operation
+                    : Mono.error(new MountUnavailableException(lane.mount));
+        });
+    }
+
+    /**
+     * Run a long operation within the bulk limit of every device it touches, e.g. source and
+     * target of a copy. Permits are taken in a fixed order, so two cross-device copies can never
+     * hold one each while waiting for the other. Unhealthy mounts are refused up front.
+     */
+    public <T> Mono<T> bulk(Mono<T> operation, Path... paths) {
+        Mono<T> limited = operation;
+        List<Lane> involved = lanesFor(paths);
+        for (int i = involved.size() - 1; i >= 0; i--) {
+            limited = involved.get(i).limiter.limit(limited);
+        }
+        for (Path path : paths) {
+            limited = guard(path, limited);
+        }
+        return limited;
+    }
+
+    /**
+     * Streaming variant of {@link #bulk(Mono, Path...)}, holding the permit until the stream ends.
+     */
+    public <T> Flux<T> bulk(Flux<T> operation, Path path) {
+        return guard(path, laneFor(path).limiter.limit(operation));
+    }
+
+    /**
+     * Wait while interactive work is pending on the lanes of {@code paths}, for at most half the
+     * deadline. Bulk work is {@link IoPriority#BACKGROUND} work: it calls this between buffers,
+     * files or folders from its own thread, so opening a folder on a busy disk does not queue
+     * behind a copy.
+     */
+    public void stepAside(Path... paths) {
+        Duration maxYield = timeout.dividedBy(2);
+        for (Lane lane : lanesFor(paths)) {
+            lane.executor.yieldToInteractive()
+                    .timeout(maxYield, Mono.empty())
+                    .block();
+        }
+    }
+
+    /**
+     * Run {@code pause} without the bulk permits the caller holds for {@code paths}, so other work
+     * on those devices goes ahead meanwhile. The permits are taken back when it returns, above the
+     * limit if need be, so resumed work never queues behind what it let in.
+     */
+    public void releasedWhile(Runnable pause, Path... paths) {
+        List<Lane> involved = lanesFor(paths);
+        involved.forEach(lane -> lane.limiter.lend());
+        try {
+            pause.run();
+        } finally {
+            involved.forEach(lane -> lane.limiter.reclaim());
+        }
+    }
+
+    /**
+     * Where bulk work on {@code path} reports how long each full-size read or write took, in
+     * nanoseconds. The device's bulk limit adapts to these; only successful I/O should be reported.
+     */
+    public LongConsumer bulkIoTimer(Path path) {
+        return laneFor(path).limiter::sample;
+    }
+
+    /**
+     * Current bulk limits per mount, for diagnostics.
+     */
+    public List<DeviceLoad> deviceLoads() {
+        return lanes.values().stream()
+                .map(lane -> new DeviceLoad(lane.mount, lane.storageClass, lane.limiter.currentLimit(),
+                        lane.limiter.inFlight(), lane.limiter.queued()))
+                .toList();
+    }
+
+    /**
+     * Queue depth per priority class, summed over all lanes.
+     */
+    public Map<IoPriority, QueueStats> queueStats() {
+        Map<IoPriority, QueueStats> totals = new EnumMap<>(IoPriority.class);
+        for (IoPriority priority : IoPriority.values()) {
+            totals.put(priority, new QueueStats(priority, 0, 0, 0, Duration.ZERO));
+        }
+        for (Lane lane : lanes.values()) {
+            for (IoPriority priority : IoPriority.values()) {
+                totals.merge(priority, lane.executor.stats(priority), QueueStats::plus);
+            }
+        }
+        return totals;
+    }
+
+    private void reportQueues() {
+        Map<IoPriority, QueueStats> stats = queueStats();
+        if (stats.values().stream().allMatch(s -> s.queued() == 0 && s.running() == 0)) {
+            return;
+        }
+        stats.values().forEach(s -> log.debug("I/O queue {}: queued={} running={} started={} avgWait={}ms",
+                s.priority(), s.queued(), s.running(), s.completed(), s.averageWait().toMillis()));
+    }
+
+    /**
+     * State changes of mounts, as they happen. Late subscribers should start from {@link #unhealthyMounts()}.
+     */
+    public Flux<MountHealth> healthChanges() {
+        return health.asFlux();
+    }
+
+    public List<MountPoint> unhealthyMounts() {
+        return lanes.values().stream()
+                .filter(lane -> !lane.breaker.isClosed())
+                .map(lane -> lane.mount)
+                .toList();
+    }
+
+    public MountPoint mountOf(Path path) {
+        return mountTable.resolve(path);
+    }
+
+    private Lane laneFor(Path path) {
+        MountPoint mount = mountTable.resolve(path);
+        return lanes.computeIfAbsent(mount.path(), key -> new Lane(mount));
+    }
+
+    private List<Lane> lanesFor(Path... paths) {
+        Map<Path, Lane> distinct = new TreeMap<>();
+        for (Path path : paths) {
+            Lane lane = laneFor(path);
+            distinct.put(lane.mount.path(), lane);
+        }
+        return List.copyOf(distinct.values());
+    }
+
+    private Throwable translate(Lane lane, Throwable error) {
+        if (error instanceof TimeoutException || error instanceof RejectedExecutionException) {
+            stalled(lane);
+            return new MountUnavailableException(lane.mount, error);
+        }
+        if (!(error instanceof MountUnavailableException)) {
+            // An I/O error is still an answer
+            responded(lane);
+        }
+        return error;
+    }
+
+    private void responded(Lane lane) {
+        if (lane.breaker.recordSuccess()) {
+            log.info("Mount recovered: {}", lane.mount);
+            publish(new MountHealth(lane.mount, true, Instant.now()));
+        }
+    }
+
+    private void stalled(Lane lane) {
+        if (lane.breaker.recordFailure()) {
+            log.warn("Mount not responding, failing fast for {}: {}", cooldown, lane.mount);
+            publish(new MountHealth(lane.mount, false, Instant.now()));
+        }
+        if (!lane.breaker.isClosed()) {
+            scheduleProbe(lane);
+        }
+    }
+
+    /**
+     * Probe an unhealthy mount after the cool-down so it recovers without user traffic.
+     */
+    private void scheduleProbe(Lane lane) {
+        if (!lane.probePending.compareAndSet(false, true)) {
+            return;
+        }
+        Mono.delay(cooldown)
+                .then(Mono.defer(() -> {
+                    lane.probePending.set(false);
+                    return call(lane.mount.path(), () -> Files.isDirectory(lane.mount.path()));
+                }))
+                .subscribe(
+                        ok -> log.debug("Probe answered for {}", lane.mount),
+                        error -> {
+                            if (!lane.breaker.isClosed()) {
+                                scheduleProbe(lane);
+                            }
+                        }
+                );
+    }
+
+    private void publish(MountHealth change) {
+        health.emitNext(change, Sinks.EmitFailureHandler.busyLooping(Duration.ofMillis(100)));
+    }
+
+    /**
+     * The threads, queue and breaker of one mount.
+     */
+    private final class Lane {
+        private final MountPoint mount;
+        private final StorageClass storageClass;
+        private final CircuitBreaker breaker;
+        private final AdaptiveLimiter limiter;
+        private final PriorityLaneExecutor executor;
+        private final Map<IoPriority, Scheduler> schedulers = new EnumMap<>(IoPriority.class);
+        private final AtomicBoolean probePending = new AtomicBoolean(false);
+
+        private Lane(MountPoint mount) {
+            this.mount = mount;
+            this.storageClass = storageClassifier.classify(mount);
+            this.breaker = new CircuitBreaker(failureThreshold, cooldown);
+            this.limiter = new AdaptiveLimiter(bulkLimits.get(storageClass));
+
+            String name = "io-" + (mount.path().getFileName() != null ? mount.path().getFileName() : "root");
+            this.executor = new PriorityLaneExecutor(name, blockingIo.threadFactory(name), laneThreads,
+                    interactiveReserve, laneQueue);
+            for (IoPriority priority : IoPriority.values()) {
+                schedulers.put(priority, Schedulers.fromExecutor(executor.executor(priority)));
+            }
+            log.debug("Created I/O lane {} for {} ({}, bulk limit {})", name, mount, storageClass,
+                    bulkLimits.get(storageClass));
+        }
+
+        private Scheduler scheduler(IoPriority priority) {
+            return schedulers.get(priority);
+        }
+    }
+
+    /**
+     * Bulk load of one device.
+     *
+     * @param mount        the mount
+     * @param storageClass what kind of storage it is
+     * @param limit        current adaptive limit
+     * @param inFlight     operations running
+     * @param queued       operations waiting for a permit
+     */
+    public record DeviceLoad(MountPoint mount, StorageClass storageClass, int limit, int inFlight, int queued) {
+    }
+}
@@ -0,0 +1,29 @@
+package io.nomard.flux_file.infrastructure.service.io;
+
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * A mounted file system, as far as the I/O lanes are concerned.
+ *
+ * @param path           where it is mounted
+ * @param fileSystemType the kernel's type name, e.g. {@code ext4} or {@code nfs4}; {@code unknown} off Linux
+ * @param source         the mounted device or remote export
+ */
+public record MountPoint(Path path, String fileSystemType, String source) {
+
+    private static final Set<String> NETWORK_TYPES = Set.of(
+            "nfs", "nfs4", "cifs", "smb3", "smbfs", "9p", "afs", "ceph", "glusterfs",
+            "lustre", "gpfs", "davfs", "fuse.sshfs", "fuse.glusterfs", "fuse.rclone", "fuse.s3fs"
+    );
+
+    public boolean isNetwork() {
+        return NETWORK_TYPES.contains(fileSystemType.toLowerCase(Locale.ROOT));
+    }
+
+    @Override
+    public String toString() {
+        return path + " (" + fileSystemType + ")";
+    }
+}
@@ -0,0 +1,112 @@
+package io.nomard.flux_file.infrastructure.service.io;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Maps paths to the mount they live on.
+ * <p>
+ * On Linux the table comes from {@code /proc/self/mountinfo}, which the kernel serves without
+ * touching any mounted file system, so it stays readable while an NFS server is gone. Elsewhere
+ * every file system root is treated as its own mount. Paths are matched lexically; resolving
+ * them with {@code toRealPath} could itself block on the dead mount.
+ */
+@Slf4j
+@Component
+public class MountTable {
+
+    private static final Path MOUNTINFO = Path.of("/proc/self/mountinfo");
+    private static final long REFRESH_INTERVAL_NANOS = 10_000_000_000L;
+
+    // Longest mount point first, so the first prefix match is the innermost mount
+    private volatile List<MountPoint> mounts = List.of();
+    private volatile long loadedAt = 0;
+
+    /**
+     * The innermost mount containing {@code path}.
+     */
+    public MountPoint resolve(Path path) {
+        Path absolute = path.toAbsolutePath().normalize();
+        for (MountPoint mount : mounts()) {
+            if (absolute.startsWith(mount.path())) {
+                return mount;
+            }
+        }
+        Path root = absolute.getRoot();
+        return new MountPoint(root != null ? root : absolute, "unknown", "");
+    }
+
+    public List<MountPoint> mounts() {
+        if (loadedAt == 0 || System.nanoTime() - loadedAt > REFRESH_INTERVAL_NANOS) {
+            reload();
+        }
+        return mounts;
+    }
+
+    private synchronized void reload() {
+        List<MountPoint> loaded = Files.isReadable(MOUNTINFO) ? readMountInfo() : fileSystemRoots();
+        loaded.sort(Comparator.comparingInt((MountPoint m) -> m.path().getNameCount())
+                .thenComparingInt(m -> m.path().toString().length())
+                .reversed());
+        mounts = List.copyOf(loaded);
+        loadedAt = System.nanoTime();
+    }
+
+    private List<MountPoint> readMountInfo() {
+        List<MountPoint> loaded = new ArrayList<>();
+        try {
+            for (String line : Files.readAllLines(MOUNTINFO)) {
+                // id parent major:minor root mount-point options [optional...] - type source super-options
+                String[] fields = line.split(" ");
+                int separator = List.of(fields).indexOf("-");
+                if (fields.length < 5 || separator < 0 || separator + 2 >= fields.length) {
+                    continue;
+                }
+                loaded.add(new MountPoint(Path.of(unescape(fields[4])), fields[separator + 1],
+                        unescape(fields[separator + 2])));
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not read mount table, treating roots as mounts: {}", e.getMessage());
+            return fileSystemRoots();
+        }
+        return loaded;
+    }
+
+    private List<MountPoint> fileSystemRoots() {
+        List<MountPoint> roots = new ArrayList<>();
+        for (Path root : FileSystems.getDefault().getRootDirectories()) {
+            roots.add(new MountPoint(root, "unknown", ""));
+        }
+        return roots;
+    }
+
+    // mountinfo escapes space, tab, newline and backslash as \ooo
+    private String unescape(String field) {
+        if (field.indexOf('\\') < 0) {
+            return field;
+        }
+        StringBuilder result = new StringBuilder(field.length());
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c == '\\' && i + 3 < field.length()) {
+                try {
+                    result.append((char) Integer.parseInt(field.substring(i + 1, i + 4), 8));
+                    i += 3;
+                    continue;
+                } catch (NumberFormatException ignored) {
+                    // Not an escape; keep the backslash
+                }
+            }
+            result.append(c);
+        }
+        return result.toString();
+    }
+}
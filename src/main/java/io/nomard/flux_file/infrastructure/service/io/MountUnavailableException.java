@@ -0,0 +1,25 @@
+package io.nomard.flux_file.infrastructure.service.io;
+
+import lombok.Getter;
+
+import java.io.IOException;
+
+/**
+ * Raised when an operation on a mount timed out, or was refused because the mount
+ * is known not to respond.
+ */
+@Getter
+public class MountUnavailableException extends IOException {
+
+    private final MountPoint mount;
+
+    public MountUnavailableException(MountPoint mount) {
+        super(mount.path() + " is not responding");
+        this.mount = mount;
+    }
+
+    public MountUnavailableException(MountPoint mount, Throwable cause) {
+        super(mount.path() + " is not responding", cause);
+        this.mount = mount;
+    }
+}
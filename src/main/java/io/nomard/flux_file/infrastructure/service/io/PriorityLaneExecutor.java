@@ -0,0 +1,213 @@
+package io.nomard.flux_file.infrastructure.service.io;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Thread pool of one I/O lane that always runs interactive tasks first.
+ * <p>
+ * Background tasks may only occupy {@code maxThreads - interactiveReserve} threads, so an
+ * interactive task never waits behind a lane full of background work. Threads come from the
+ * given factory (platform or virtual), are started on demand and exit after being idle for a
+ * while; a full queue rejects new tasks.
+ */
+@Slf4j
+final class PriorityLaneExecutor {
+
+    private static final long KEEP_ALIVE_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private final String name;
+    private final ThreadFactory threadFactory;
+    private final int maxThreads;
+    private final int backgroundThreads;
+    private final int capacity;
+    private final PriorityQueue<Task> queue = new PriorityQueue<>();
+    private final Map<IoPriority, Counters> counters = new EnumMap<>(IoPriority.class);
+    private final List<MonoSink<Void>> interactiveWaiters = new ArrayList<>();
+    private int threads = 0;
+    private int idleThreads = 0;
+    private long sequence = 0;
+
+    PriorityLaneExecutor(String name, ThreadFactory threadFactory, int maxThreads, int interactiveReserve, int capacity) {
+        this.name = name;
+        this.threadFactory = threadFactory;
+        this.maxThreads = Math.max(1, maxThreads);
+        this.backgroundThreads = Math.max(1, this.maxThreads - Math.max(0, interactiveReserve));
+        this.capacity = Math.max(1, capacity);
+        for (IoPriority priority : IoPriority.values()) {
+            counters.put(priority, new Counters());
+        }
+    }
+
+    /**
+     * An executor view that submits with the given priority.
+     */
+    Executor executor(IoPriority priority) {
+        return command -> submit(priority, command);
+    }
+
+    /**
+     * Completes once no interactive task is queued or running on this lane.
+     * Background work calls this between steps to step aside.
+     */
+    Mono<Void> yieldToInteractive() {
+        synchronized (this) {
+            if (interactiveIdle()) {
+                return Mono.empty();
+            }
+        }
+        return Mono.create(sink -> {
+            boolean idle;
+            synchronized (this) {
+                idle = interactiveIdle();
+                if (!idle) {
+                    interactiveWaiters.add(sink);
+                }
+            }
+            if (idle) {
+                sink.success();
+            } else {
+                sink.onCancel(() -> {
+                    synchronized (this) {
+                        interactiveWaiters.remove(sink);
+                    }
+                });
+            }
+        });
+    }
+
+    synchronized QueueStats stats(IoPriority priority) {
+        Counters c = counters.get(priority);
+        Duration averageWait = c.started == 0 ? Duration.ZERO : Duration.ofNanos(c.waitNanos / c.started);
+        return new QueueStats(priority, c.queued, c.running, c.started, averageWait);
+    }
+
+    private void submit(IoPriority priority, Runnable command) {
+        synchronized (this) {
+            if (queue.size() >= capacity) {
+                throw new RejectedExecutionException(name + " queue is full");
+            }
+            queue.add(new Task(priority, sequence++, System.nanoTime(), command));
+            counters.get(priority).queued++;
+            if (idleThreads > 0) {
+                notifyAll();
+            } else if (threads < maxThreads) {
+                startWorker();
+            }
+        }
+    }
+
+    private void startWorker() {
+        threads++;
+        threadFactory.newThread(this::work).start();
+    }
+
+    private void work() {
+        while (true) {
+            Task task = await();
+            if (task == null) {
+                return;
+            }
+            try {
+                task.command.run();
+            } catch (Throwable e) {
+                log.error("Uncaught error in I/O lane {}", name, e);
+            } finally {
+                finished(task);
+            }
+        }
+    }
+
+    /**
+     * Take the next task this thread may run, or null once it has been idle long enough to exit.
+     */
+    private synchronized Task await() {
+        long deadline = System.nanoTime() + KEEP_ALIVE_NANOS;
+        Task task;
+        while ((task = next()) == null) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                threads--;
+                return null;
+            }
+            idleThreads++;
+            try {
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                threads--;
+                return null;
+            } finally {
+                idleThreads--;
+            }
+        }
+        return task;
+    }
+
+    private Task next() {
+        Task head = queue.peek();
+        if (head == null) {
+            return null;
+        }
+        Counters c = counters.get(head.priority);
+        if (head.priority == IoPriority.BACKGROUND && c.running >= backgroundThreads) {
+            return null;
+        }
+        queue.poll();
+        c.queued--;
+        c.running++;
+        c.started++;
+        c.waitNanos += System.nanoTime() - head.queuedAt;
+        return head;
+    }
+
+    private void finished(Task task) {
+        List<MonoSink<Void>> released = List.of();
+        synchronized (this) {
+            counters.get(task.priority).running--;
+            if (task.priority == IoPriority.BACKGROUND && !queue.isEmpty()) {
+                // A background slot opened up for a waiting worker
+                notifyAll();
+            }
+            if (interactiveIdle() && !interactiveWaiters.isEmpty()) {
+                released = new ArrayList<>(interactiveWaiters);
+                interactiveWaiters.clear();
+            }
+        }
+        released.forEach(MonoSink::success);
+    }
+
+    private boolean interactiveIdle() {
+        Counters c = counters.get(IoPriority.INTERACTIVE);
+        return c.queued == 0 && c.running == 0;
+    }
+
+    private static final class Counters {
+        private int queued;
+        private int running;
+        private long started;
+        private long waitNanos;
+    }
+
+    private record Task(IoPriority priority, long sequence, long queuedAt, Runnable command)
+            implements Comparable<Task> {
+
+        @Override
+        public int compareTo(Task other) {
+            int byPriority = priority.compareTo(other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package io.nomard.flux_file.infrastructure.service.io;
+
+import java.time.Duration;
+
+/**
+ * Queue depth of one priority class, summed over all lanes.
+ *
+ * @param priority    the class
+ * @param queued      tasks waiting for a thread
+ * @param running     tasks running
+ * @param completed   tasks started since launch
+ * @param averageWait mean time tasks spent queued
+ */
+public record QueueStats(IoPriority priority, int queued, int running, long completed, Duration averageWait) {
+
+    QueueStats plus(QueueStats other) {
+        long total = completed + other.completed;
+        long waitNanos = total == 0 ? 0
+                : (averageWait.toNanos() * completed + other.averageWait.toNanos() * other.completed) / total;
+        return new QueueStats(priority, queued + other.queued, running + other.running, total,
+                Duration.ofNanos(waitNanos));
+    }
+}
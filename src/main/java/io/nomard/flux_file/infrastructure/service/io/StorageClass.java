@@ -0,0 +1,19 @@
+package io.nomard.flux_file.infrastructure.service.io;
+
+/**
+ * Kind of storage behind a mount, which decides how much bulk work it is given at once.
+ */
+public enum StorageClass {
+    /**
+     * Flash storage; deep queues help.
+     */
+    SSD,
+    /**
+     * Spinning disks, including most USB hard drives; parallel streams cause seeks.
+     */
+    ROTATIONAL,
+    /**
+     * NFS, SMB and other network file systems; latency bound rather than seek bound.
+     */
+    NETWORK
+}
@@ -0,0 +1,60 @@
+package io.nomard.flux_file.infrastructure.service.io;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tells SSDs, spinning disks and network mounts apart.
+ * <p>
+ * Network mounts are recognised by file system type. On Linux the block device behind a local
+ * mount is looked up in sysfs and its {@code queue/rotational} flag decides; device-mapper and
+ * partition nodes are followed to the disk. Everything that cannot be classified is treated as
+ * an SSD. Only {@code /dev} and {@code /sys} are read, never the mount itself.
+ */
+@Slf4j
+@Component
+public class StorageClassifier {
+
+    private static final Path SYS_BLOCK = Path.of("/sys/class/block");
+
+    private final Map<Path, StorageClass> classes = new ConcurrentHashMap<>();
+
+    public StorageClass classify(MountPoint mount) {
+        return classes.computeIfAbsent(mount.path(), key -> {
+            StorageClass storageClass = detect(mount);
+            log.debug("Storage class of {}: {}", mount, storageClass);
+            return storageClass;
+        });
+    }
+
+    private StorageClass detect(MountPoint mount) {
+        if (mount.isNetwork()) {
+            return StorageClass.NETWORK;
+        }
+        if (!mount.source().startsWith("/dev/") || !Files.isDirectory(SYS_BLOCK)) {
+            return StorageClass.SSD;
+        }
+
+        try {
+            // /dev/mapper/name and /dev/disk/by-* are symlinks to the kernel's device node
+            String device = Path.of(mount.source()).toRealPath().getFileName().toString();
+            Path node = SYS_BLOCK.resolve(device).toRealPath();
+            Path queue = node.resolve("queue/rotational");
+            if (!Files.exists(queue) && Files.exists(node.resolve("partition"))) {
+                queue = node.getParent().resolve("queue/rotational");
+            }
+            if (Files.isReadable(queue)) {
+                return Files.readString(queue).trim().equals("1") ? StorageClass.ROTATIONAL : StorageClass.SSD;
+            }
+        } catch (IOException | RuntimeException e) {
+            log.debug("Could not classify {}: {}", mount, e.getMessage());
+        }
+        return StorageClass.SSD;
+    }
+}
@@ -0,0 +1,330 @@
+package io.nomard.flux_file.infrastructure.service.nativeio;
+
+import io.nomard.flux_file.core.domain.model.FileItem;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.FunctionDescriptor;
+import java.lang.foreign.Linker;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.SymbolLookup;
+import java.lang.invoke.MethodHandle;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static java.lang.foreign.ValueLayout.ADDRESS;
+import static java.lang.foreign.ValueLayout.JAVA_BYTE;
+import static java.lang.foreign.ValueLayout.JAVA_INT;
+import static java.lang.foreign.ValueLayout.JAVA_LONG;
+import static java.lang.foreign.ValueLayout.JAVA_SHORT;
+import static java.lang.foreign.ValueLayout.JAVA_SHORT_UNALIGNED;
+
+/**
+ * Directory lister for Linux built on the Foreign Function &amp; Memory API.
+ * <p>
+ * Entries are read with {@code getdents64} in large batches into an off-heap buffer. The
+ * entry type comes from {@code d_type}, so each entry needs a single {@code statx} call relative
+ * to the directory descriptor, asking only for the fields the listing shows: size and modification
+ * time for files, modification time for folders. Only symlinks and file systems that do not report
+ * {@code d_type} need the type from {@code statx} as well.
+ * <p>
+ * The backend is opt-in ({@code flux.listing.native-enabled}) and only available on x86_64 and
+ * aarch64 Linux with glibc 2.30 or newer; callers fall back to NIO whenever {@link #open} returns null.
+ */
+@Slf4j
+@Component
+public class LinuxDirectoryLister {
+
+    private static final long DIRENT_BUFFER_SIZE = 256 * 1024;
+    private static final long STATX_BUFFER_SIZE = 256;
+
+    private static final int O_RDONLY = 0;
+    private static final int O_CLOEXEC = 0x80000;
+    private static final int AT_SYMLINK_NOFOLLOW = 0x100;
+
+    private static final int STATX_TYPE = 0x1;
+    private static final int STATX_MODE = 0x2;
+    private static final int STATX_MTIME = 0x40;
+    private static final int STATX_SIZE = 0x200;
+
+    private static final byte DT_UNKNOWN = 0;
+    private static final byte DT_DIR = 4;
+    private static final byte DT_LNK = 10;
+
+    private static final int S_IFMT = 0xF000;
+    private static final int S_IFDIR = 0x4000;
+    private static final int S_IFLNK = 0xA000;
+
+    // struct linux_dirent64 offsets
+    private static final long D_RECLEN = 16;
+    private static final long D_TYPE = 18;
+    private static final long D_NAME = 19;
+
+    // struct statx offsets
+    private static final long STX_MASK = 0;
+    private static final long STX_MODE = 28;
+    private static final long STX_SIZE = 40;
+    private static final long STX_MTIME_SEC = 112;
+    private static final long STX_MTIME_NSEC = 120;
+
+    private final boolean available;
+    private int directoryFlag;
+    private MethodHandle open;
+    private MethodHandle close;
+    private MethodHandle getdents64;
+    private MethodHandle statx;
+
+    public LinuxDirectoryLister(@Value("${flux.listing.native-enabled:false}") boolean enabled) {
+        this.available = enabled && initialize();
+    }
+
+    /**
+     * A lister that always defers to NIO.
+     */
+    public static LinuxDirectoryLister disabled() {
+        return new LinuxDirectoryLister(false);
+    }
+
+    private boolean initialize() {
+        String os = System.getProperty("os.name", "").toLowerCase(Locale.ROOT);
+        String arch = System.getProperty("os.arch", "").toLowerCase(Locale.ROOT);
+        if (!os.contains("linux")) {
+            return false;
+        }
+
+        // O_DIRECTORY differs between architectures
+        if (arch.equals("amd64") || arch.equals("x86_64")) {
+            directoryFlag = 0x10000;
+        } else if (arch.equals("aarch64")) {
+            directoryFlag = 0x4000;
+        } else {
+            log.info("Native directory listing not supported on {}, using NIO", arch);
+            return false;
+        }
+
+        try {
+            Linker linker = Linker.nativeLinker();
+            SymbolLookup libc = linker.defaultLookup();
+
+            open = linker.downcallHandle(
+                    libc.find("open").orElseThrow(),
+                    FunctionDescriptor.of(JAVA_INT, ADDRESS, JAVA_INT, JAVA_INT),
+                    Linker.Option.firstVariadicArg(2));
+            close = linker.downcallHandle(
+                    libc.find("close").orElseThrow(),
+                    FunctionDescriptor.of(JAVA_INT, JAVA_INT));
+            getdents64 = linker.downcallHandle(
+                    libc.find("getdents64").orElseThrow(),
+                    FunctionDescriptor.of(JAVA_LONG, JAVA_INT, ADDRESS, JAVA_LONG));
+            statx = linker.downcallHandle(
+                    libc.find("statx").orElseThrow(),
+                    FunctionDescriptor.of(JAVA_INT, JAVA_INT, ADDRESS, JAVA_INT, JAVA_INT, ADDRESS));
+
+            log.info("Native directory listing enabled (getdents64/statx)");
+            return true;
+        } catch (Throwable e) {
+            log.warn("Native directory listing unavailable, using NIO: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    /**
+     * Open a directory for native listing.
+     *
+     * @return a reader, or {@code null} when the caller should list with NIO instead
+     */
+    public Reader open(Path directory) {
+        if (!available || directory.getFileSystem() != FileSystems.getDefault()) {
+            return null;
+        }
+
+        Arena arena = Arena.ofShared();
+        try {
+            MemorySegment pathname = arena.allocateFrom(directory.toAbsolutePath().toString());
+            int fd = (int) open.invokeExact(pathname, O_RDONLY | O_CLOEXEC | directoryFlag, 0);
+            if (fd < 0) {
+                // Let NIO produce the proper exception (not found, access denied, ...)
+                arena.close();
+                return null;
+            }
+            return new Reader(directory, fd, arena);
+        } catch (Throwable e) {
+            arena.close();
+            log.debug("Native open failed for {}, using NIO: {}", directory, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Reads one open directory in chunks. Not thread-safe; close when done, from the thread
+     * that reads, so the descriptor and buffers are never released under a running call.
+     */
+    public final class Reader implements AutoCloseable {
+
+        private final Path directory;
+        private final int fd;
+        private final Arena arena;
+        private final MemorySegment dirents;
+        private final MemorySegment statxBuffer;
+        private long filled = 0;
+        private long offset = 0;
+        private boolean exhausted = false;
+        // The descriptor is closed first; closed is only set once the arena is released too
+        private volatile boolean descriptorClosed = false;
+        private volatile boolean closed = false;
+
+        private Reader(Path directory, int fd, Arena arena) {
+            this.directory = directory;
+            this.fd = fd;
+            this.arena = arena;
+            this.dirents = arena.allocate(DIRENT_BUFFER_SIZE, 8);
+            this.statxBuffer = arena.allocate(STATX_BUFFER_SIZE, 8);
+        }
+
+        /**
+         * Read up to {@code max} entries; an empty list means the directory is exhausted.
+         * Entries that disappear between {@code getdents64} and {@code statx} are skipped.
+         */
+        public List<FileItem> nextChunk(int max) throws IOException {
+            if (descriptorClosed) {
+                throw new IOException("Directory reader is closed: " + directory);
+            }
+            List<FileItem> chunk = new ArrayList<>(max);
+            while (chunk.size() < max) {
+                if (offset >= filled) {
+                    if (exhausted || !fill()) {
+                        break;
+                    }
+                }
+
+                int recordLength = Short.toUnsignedInt(dirents.get(JAVA_SHORT_UNALIGNED, offset + D_RECLEN));
+                byte type = dirents.get(JAVA_BYTE, offset + D_TYPE);
+                long nameOffset = offset + D_NAME;
+                offset += recordLength;
+
+                String name = dirents.getString(nameOffset);
+                if (name.equals(".") || name.equals("..")) {
+                    continue;
+                }
+
+                FileItem item = readEntry(dirents.asSlice(nameOffset), name, type);
+                if (item != null) {
+                    chunk.add(item);
+                }
+            }
+            return chunk;
+        }
+
+        private boolean fill() throws IOException {
+            long read;
+            try {
+                read = (long) getdents64.invokeExact(fd, dirents, DIRENT_BUFFER_SIZE);
+            } catch (Throwable e) {
+                throw new IOException("getdents64 failed for " + directory, e);
+            }
+            if (read < 0) {
+                throw new IOException("getdents64 failed for " + directory);
+            }
+            if (read == 0) {
+                exhausted = true;
+                return false;
+            }
+            filled = read;
+            offset = 0;
+            return true;
+        }
+
+        private FileItem readEntry(MemorySegment name, String fileName, byte type) throws IOException {
+            boolean symbolicLink = type == DT_LNK;
+            boolean directoryEntry = type == DT_DIR;
+
+            int mask = directoryEntry ? STATX_MTIME : STATX_SIZE | STATX_MTIME;
+            if (type == DT_UNKNOWN) {
+                mask |= STATX_TYPE | STATX_MODE;
+            }
+
+            if (symbolicLink) {
+                // Report the target like NIO does; fall back to the link itself when dangling
+                if (!stat(name, 0, STATX_TYPE | STATX_MODE | STATX_SIZE | STATX_MTIME)
+                        && !stat(name, AT_SYMLINK_NOFOLLOW, STATX_SIZE | STATX_MTIME)) {
+                    return null;
+                }
+                directoryEntry = isDirectoryMode();
+            } else {
+                if (!stat(name, AT_SYMLINK_NOFOLLOW, mask)) {
+                    return null;
+                }
+                if (type == DT_UNKNOWN) {
+                    int format = modeFormat();
+                    if (format == S_IFLNK) {
+                        symbolicLink = true;
+                        if (stat(name, 0, STATX_TYPE | STATX_MODE | STATX_SIZE | STATX_MTIME)) {
+                            directoryEntry = isDirectoryMode();
+                        }
+                    } else {
+                        directoryEntry = format == S_IFDIR;
+                    }
+                }
+            }
+
+            int returned = statxBuffer.get(JAVA_INT, STX_MASK);
+            long size = !directoryEntry && (returned & STATX_SIZE) != 0 ? statxBuffer.get(JAVA_LONG, STX_SIZE) : 0;
+            Instant modified = (returned & STATX_MTIME) != 0
+                    ? Instant.ofEpochSecond(statxBuffer.get(JAVA_LONG, STX_MTIME_SEC),
+                    Integer.toUnsignedLong(statxBuffer.get(JAVA_INT, STX_MTIME_NSEC)))
+                    : Instant.EPOCH;
+
+            return new FileItem(directory.resolve(fileName), fileName, directoryEntry, size, modified,
+                    fileName.startsWith("."), symbolicLink);
+        }
+
+        private boolean stat(MemorySegment name, int flags, int mask) throws IOException {
+            try {
+                return (int) statx.invokeExact(fd, name, flags, mask, statxBuffer) == 0;
+            } catch (Throwable e) {
+                throw new IOException("statx failed in " + directory, e);
+            }
+        }
+
+        private int modeFormat() {
+            return Short.toUnsignedInt(statxBuffer.get(JAVA_SHORT, STX_MODE)) & S_IFMT;
+        }
+
+        private boolean isDirectoryMode() {
+            return (statxBuffer.get(JAVA_INT, STX_MASK) & STATX_TYPE) != 0 && modeFormat() == S_IFDIR;
+        }
+
+        /**
+         * Close the descriptor and free the buffers. If the arena is still in use it throws
+         * {@link IllegalStateException} and stays open, so a later call can free it; the
+         * descriptor is never closed twice, since its number may already belong to another file.
+         */
+        @Override
+        public synchronized void close() {
+            if (closed) {
+                return;
+            }
+            if (!descriptorClosed) {
+                descriptorClosed = true;
+                try {
+                    int ignored = (int) close.invokeExact(fd);
+                } catch (Throwable e) {
+                    log.debug("close failed for {}: {}", directory, e.getMessage());
+                }
+            }
+            arena.close();
+            closed = true;
+        }
+    }
+}
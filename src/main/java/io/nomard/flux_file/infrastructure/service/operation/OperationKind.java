@@ -0,0 +1,24 @@
+package io.nomard.flux_file.infrastructure.service.operation;
+
+/**
+ * What an operation does; each kind has its own concurrency limit.
+ */
+public enum OperationKind {
+    COPY("Copy"),
+    MOVE("Move"),
+    DELETE("Delete"),
+    COMPRESS("Compress"),
+    SYNC("Sync"),
+    UPLOAD("Upload"),
+    DOWNLOAD("Download");
+
+    private final String label;
+
+    OperationKind(String label) {
+        this.label = label;
+    }
+
+    public String label() {
+        return label;
+    }
+}
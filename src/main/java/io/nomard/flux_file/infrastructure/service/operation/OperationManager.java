@@ -0,0 +1,315 @@
+package io.nomard.flux_file.infrastructure.service.operation;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Runs long file operations (copy, move, delete, compress, sync, upload, download) from one place.
+ * <p>
+ * Operations are queued in submission order and started while their kind is under its
+ * concurrency limit. Each one gets an {@link OperationProgress} to report bytes and files and
+ * to honour pause and cancel. {@link #updates()} publishes snapshots, with throughput, a few
+ * times a second while anything is active.
+ * <p>
+ * The paths an operation touches are known up front, so the directory watcher can ignore
+ * its own churn for those folders only ({@link #isBusy(Path)}) instead of for everything.
+ * <p>
+ * A paused operation keeps its slot and its thread is parked at the next checkpoint. Local
+ * copies, moves, deletes, syncs and compress hand their device permits back while parked (see
+ * {@code MountIoScheduler#releasedWhile}), so other work on that disk goes on; paste and sync
+ * planning still hold theirs.
+ */
+@Slf4j
+@Service
+public class OperationManager {
+
+    private static final Duration UPDATE_INTERVAL = Duration.ofMillis(250);
+    // Finished operations stay in the panel this long
+    private static final Duration RETAIN_FINISHED = Duration.ofSeconds(5);
+
+    private final Map<OperationKind, Integer> limits;
+    // Guarded by this; insertion order is queue order
+    private final Map<Long, Operation> operations = new LinkedHashMap<>();
+    private final AtomicLong ids = new AtomicLong();
+    private final AtomicBoolean changed = new AtomicBoolean(false);
+    private final Flux<List<OperationSnapshot>> updates;
+
+    public OperationManager(@Value("${flux.operations.limits.copy:2}") int copyLimit,
+                            @Value("${flux.operations.limits.move:2}") int moveLimit,
+                            @Value("${flux.operations.limits.delete:4}") int deleteLimit,
+                            @Value("${flux.operations.limits.compress:1}") int compressLimit,
+                            @Value("${flux.operations.limits.sync:1}") int syncLimit,
+                            @Value("${flux.operations.limits.upload:2}") int uploadLimit,
+                            @Value("${flux.operations.limits.download:2}") int downloadLimit) {
+        this.limits = new EnumMap<>(Map.of(
+                OperationKind.COPY, Math.max(1, copyLimit),
+                OperationKind.MOVE, Math.max(1, moveLimit),
+                OperationKind.DELETE, Math.max(1, deleteLimit),
+                OperationKind.COMPRESS, Math.max(1, compressLimit),
+                OperationKind.SYNC, Math.max(1, syncLimit),
+                OperationKind.UPLOAD, Math.max(1, uploadLimit),
+                OperationKind.DOWNLOAD, Math.max(1, downloadLimit)
+        ));
+        this.updates = Flux.interval(UPDATE_INTERVAL)
+                .onBackpressureDrop()
+                .<List<OperationSnapshot>>handle((tick, sink) -> {
+                    if (sample()) {
+                        sink.next(snapshots());
+                    }
+                })
+                .share();
+    }
+
+    /**
+     * Queue an operation.
+     *
+     * @param kind        decides which concurrency limit applies
+     * @param description short text for the progress panel
+     * @param paths       local paths the operation modifies; the watcher ignores their folders meanwhile
+     * @param work        the work, given its progress; subscribed when the operation starts
+     * @return the terminal state, {@code COMPLETED} or {@code CANCELLED}; errors if the work failed
+     */
+    public Mono<OperationState> submit(OperationKind kind, String description, List<Path> paths,
+                                       Function<OperationProgress, Mono<Void>> work) {
+        Operation operation = new Operation(ids.incrementAndGet(), kind, description, List.copyOf(paths), work);
+        synchronized (this) {
+            operations.put(operation.id, operation);
+        }
+        log.debug("Queued {} operation {}: {}", kind, operation.id, description);
+        changed.set(true);
+        drain();
+        return operation.result.asMono();
+    }
+
+    /**
+     * Pause a queued or running operation; running work stops at its next checkpoint.
+     */
+    public void pause(long id) {
+        synchronized (this) {
+            Operation operation = operations.get(id);
+            if (operation == null || operation.state.isTerminal() || operation.state == OperationState.PAUSED) {
+                return;
+            }
+            operation.state = OperationState.PAUSED;
+            operation.progress.pause();
+        }
+        changed.set(true);
+    }
+
+    public void resume(long id) {
+        synchronized (this) {
+            Operation operation = operations.get(id);
+            if (operation == null || operation.state != OperationState.PAUSED) {
+                return;
+            }
+            operation.state = operation.started ? OperationState.RUNNING : OperationState.QUEUED;
+            operation.progress.resume();
+            // Throughput restarts from here rather than averaging in the pause
+            operation.sampledBytes = operation.progress.bytesDone();
+            operation.sampledNanos = System.nanoTime();
+        }
+        changed.set(true);
+        drain();
+    }
+
+    public void cancel(long id) {
+        Operation operation;
+        synchronized (this) {
+            operation = operations.get(id);
+            if (operation == null || operation.state.isTerminal()) {
+                return;
+            }
+            operation.progress.cancel();
+        }
+        // Stops the pipeline; blocking work still notices the flag at its next checkpoint
+        if (operation.subscription != null) {
+            operation.subscription.dispose();
+        }
+        finish(operation, OperationState.CANCELLED, null);
+    }
+
+    /**
+     * Whether an active operation is changing {@code directory}, its entries or a folder above it.
+     */
+    public synchronized boolean isBusy(Path directory) {
+        for (Operation operation : operations.values()) {
+            if (operation.state.isTerminal()) continue;
+            for (Path path : operation.paths) {
+                if (directory.equals(path) || directory.equals(path.getParent()) || directory.startsWith(path)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    public synchronized List<OperationSnapshot> snapshots() {
+        List<OperationSnapshot> snapshots = new ArrayList<>(operations.size());
+        for (Operation operation : operations.values()) {
+            snapshots.add(operation.snapshot());
+        }
+        return snapshots;
+    }
+
+    /**
+     * Snapshots of all operations, a few times a second while something changes or runs.
+     */
+    public Flux<List<OperationSnapshot>> updates() {
+        return updates;
+    }
+
+    private void drain() {
+        List<Operation> ready = new ArrayList<>();
+        synchronized (this) {
+            Map<OperationKind, Integer> active = new EnumMap<>(OperationKind.class);
+            for (Operation operation : operations.values()) {
+                if (operation.started && !operation.state.isTerminal()) {
+                    active.merge(operation.kind, 1, Integer::sum);
+                }
+            }
+            for (Operation operation : operations.values()) {
+                if (operation.started || operation.state != OperationState.QUEUED) continue;
+                int running = active.getOrDefault(operation.kind, 0);
+                if (running >= limits.get(operation.kind)) continue;
+                active.put(operation.kind, running + 1);
+                operation.started = true;
+                operation.state = OperationState.RUNNING;
+                operation.startedNanos = System.nanoTime();
+                ready.add(operation);
+            }
+        }
+        for (Operation operation : ready) {
+            start(operation);
+        }
+    }
+
+    private void start(Operation operation) {
+        log.debug("Starting {} operation {}", operation.kind, operation.id);
+        changed.set(true);
+        Disposable subscription = Mono.defer(() -> operation.work.apply(operation.progress))
+                .subscribe(
+                        ignored -> {
+                        },
+                        error -> finish(operation,
+                                error instanceof CancellationException ? OperationState.CANCELLED : OperationState.FAILED,
+                                error),
+                        () -> finish(operation,
+                                operation.progress.isCancelled() ? OperationState.CANCELLED : OperationState.COMPLETED,
+                                null));
+        synchronized (this) {
+            operation.subscription = subscription;
+        }
+    }
+
+    private void finish(Operation operation, OperationState state, Throwable error) {
+        synchronized (this) {
+            if (operation.state.isTerminal()) {
+                return;
+            }
+            operation.state = state;
+            operation.error = error != null ? String.valueOf(error.getMessage()) : null;
+            operation.finishedNanos = System.nanoTime();
+        }
+        if (state == OperationState.FAILED) {
+            log.warn("{} operation {} failed: {}", operation.kind, operation.id, operation.description, error);
+            operation.result.tryEmitError(error);
+        } else {
+            log.debug("{} operation {} {}", operation.kind, operation.id, state.name().toLowerCase());
+            operation.result.tryEmitValue(state);
+        }
+        changed.set(true);
+        drain();
+    }
+
+    /**
+     * Update throughput, drop old finished operations, and report whether there is anything to publish.
+     */
+    private boolean sample() {
+        boolean active = false;
+        long now = System.nanoTime();
+        synchronized (this) {
+            Iterator<Operation> iterator = operations.values().iterator();
+            while (iterator.hasNext()) {
+                Operation operation = iterator.next();
+                if (operation.state.isTerminal()) {
+                    if (now - operation.finishedNanos > RETAIN_FINISHED.toNanos()) {
+                        iterator.remove();
+                        changed.set(true);
+                    }
+                    continue;
+                }
+                if (operation.state == OperationState.RUNNING) {
+                    operation.sampleRate(now);
+                    active = true;
+                }
+            }
+        }
+        return changed.getAndSet(false) || active;
+    }
+
+    private final class Operation {
+        private final long id;
+        private final OperationKind kind;
+        private final String description;
+        private final List<Path> paths;
+        private final Function<OperationProgress, Mono<Void>> work;
+        private final OperationProgress progress = new OperationProgress(() -> changed.set(true));
+        private final Sinks.One<OperationState> result = Sinks.one();
+        private OperationState state = OperationState.QUEUED;
+        private boolean started = false;
+        private Disposable subscription;
+        private String error;
+        private long startedNanos;
+        private long finishedNanos;
+        private long sampledBytes;
+        private long sampledNanos;
+        private double bytesPerSecond;
+
+        private Operation(long id, OperationKind kind, String description, List<Path> paths,
+                          Function<OperationProgress, Mono<Void>> work) {
+            this.id = id;
+            this.kind = kind;
+            this.description = description;
+            this.paths = paths;
+            this.work = work;
+        }
+
+        private void sampleRate(long now) {
+            long bytes = progress.bytesDone();
+            if (sampledNanos == 0) {
+                sampledNanos = startedNanos;
+            }
+            double seconds = (now - sampledNanos) / 1e9;
+            if (seconds <= 0) return;
+            double rate = (bytes - sampledBytes) / seconds;
+            // Smooth over a few samples so the figure does not jump with every buffer
+            bytesPerSecond = bytesPerSecond == 0 ? rate : bytesPerSecond * 0.7 + rate * 0.3;
+            sampledBytes = bytes;
+            sampledNanos = now;
+        }
+
+        private OperationSnapshot snapshot() {
+            return new OperationSnapshot(id, kind, description, state,
+                    progress.bytesDone(), progress.bytesTotal(), progress.filesDone(), progress.filesTotal(),
+                    state == OperationState.RUNNING ? bytesPerSecond : 0, error);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package io.nomard.flux_file.infrastructure.service.operation;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress sink and control point handed to the work of one operation.
+ * <p>
+ * Work reports what it expects and what it has done, and calls {@link #checkpoint()} between
+ * units (a buffer, a file). The checkpoint parks the calling thread while the operation is
+ * paused and throws {@link CancellationException} once it is cancelled, so blocking loops stop
+ * promptly without relying on interrupts.
+ */
+public final class OperationProgress {
+
+    /**
+     * Progress for work that is not tracked; never pauses or cancels.
+     */
+    public static final OperationProgress NONE = new OperationProgress((Runnable) null);
+
+    private final Runnable onChange;
+    // Set on an attempt: the progress it reports into
+    private final OperationProgress parent;
+    private final AtomicLong bytesDone = new AtomicLong();
+    private final AtomicLong bytesTotal = new AtomicLong();
+    private final AtomicLong filesDone = new AtomicLong();
+    private final AtomicLong filesTotal = new AtomicLong();
+    private volatile boolean paused = false;
+    private volatile boolean cancelled = false;
+
+    OperationProgress(Runnable onChange) {
+        this.onChange = onChange;
+        this.parent = null;
+    }
+
+    private OperationProgress(OperationProgress parent) {
+        this.onChange = parent.onChange;
+        this.parent = parent;
+    }
+
+    /**
+     * Progress for one attempt at a unit of work that may be retried. It reports into this
+     * progress and follows its pause and cancel; {@link #discard()} takes back the bytes it
+     * reported, so a retry that resumes part-way does not count them twice.
+     */
+    public OperationProgress attempt() {
+        return onChange == null ? NONE : new OperationProgress(this);
+    }
+
+    /**
+     * Take back the bytes reported through this attempt.
+     */
+    public void discard() {
+        if (parent == null) return;
+        parent.addBytes(-bytesDone.getAndSet(0));
+    }
+
+    /**
+     * Add to the expected totals; may be called several times as work is discovered.
+     */
+    public void expect(long bytes, long files) {
+        if (onChange == null) return;
+        if (parent != null) {
+            parent.expect(bytes, files);
+            return;
+        }
+        bytesTotal.addAndGet(bytes);
+        filesTotal.addAndGet(files);
+        onChange.run();
+    }
+
+    public void addBytes(long bytes) {
+        if (onChange == null) return;
+        bytesDone.addAndGet(bytes);
+        if (parent != null) {
+            parent.addBytes(bytes);
+            return;
+        }
+        onChange.run();
+    }
+
+    public void addFiles(long files) {
+        if (onChange == null) return;
+        if (parent != null) {
+            parent.addFiles(files);
+            return;
+        }
+        filesDone.addAndGet(files);
+        onChange.run();
+    }
+
+    /**
+     * Wait while paused; throw once cancelled.
+     */
+    public void checkpoint() {
+        if (onChange == null) return;
+        if (parent != null) {
+            parent.checkpoint();
+            return;
+        }
+        if (paused) {
+            synchronized (this) {
+                while (paused && !cancelled) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new CancellationException("Interrupted while paused");
+                    }
+                }
+            }
+        }
+        if (cancelled) {
+            throw new CancellationException("Operation cancelled");
+        }
+    }
+
+    public boolean isPaused() {
+        return parent != null ? parent.isPaused() : paused;
+    }
+
+    public boolean isCancelled() {
+        return parent != null ? parent.isCancelled() : cancelled;
+    }
+
+    long bytesDone() {
+        return bytesDone.get();
+    }
+
+    long bytesTotal() {
+        return bytesTotal.get();
+    }
+
+    long filesDone() {
+        return filesDone.get();
+    }
+
+    long filesTotal() {
+        return filesTotal.get();
+    }
+
+    void pause() {
+        paused = true;
+    }
+
+    synchronized void resume() {
+        paused = false;
+        notifyAll();
+    }
+
+    synchronized void cancel() {
+        cancelled = true;
+        notifyAll();
+    }
+}
@@ -0,0 +1,33 @@
+package io.nomard.flux_file.infrastructure.service.operation;
+
+/**
+ * Point-in-time view of an operation, for display.
+ *
+ * @param id             operation id, stable for its lifetime
+ * @param kind           what the operation does
+ * @param description    short text for the progress panel
+ * @param state          current state
+ * @param bytesDone      bytes processed so far
+ * @param bytesTotal     bytes expected, 0 while unknown
+ * @param filesDone      files processed so far
+ * @param filesTotal     files expected, 0 while unknown
+ * @param bytesPerSecond recent throughput
+ * @param error          failure message, or {@code null}
+ */
+public record OperationSnapshot(long id, OperationKind kind, String description, OperationState state,
+                                long bytesDone, long bytesTotal, long filesDone, long filesTotal,
+                                double bytesPerSecond, String error) {
+
+    /**
+     * Completed fraction from 0 to 1, or -1 while the total is unknown.
+     */
+    public double fraction() {
+        if (bytesTotal > 0) {
+            return Math.min(1.0, (double) bytesDone / bytesTotal);
+        }
+        if (filesTotal > 0) {
+            return Math.min(1.0, (double) filesDone / filesTotal);
+        }
+        return -1;
+    }
+}
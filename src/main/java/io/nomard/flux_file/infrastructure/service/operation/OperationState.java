@@ -0,0 +1,14 @@
+package io.nomard.flux_file.infrastructure.service.operation;
+
+public enum OperationState {
+    QUEUED,
+    RUNNING,
+    PAUSED,
+    COMPLETED,
+    FAILED,
+    CANCELLED;
+
+    public boolean isTerminal() {
+        return this == COMPLETED || this == FAILED || this == CANCELLED;
+    }
+}
@@ -0,0 +1,149 @@
+package io.nomard.flux_file.infrastructure.service.remote;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HexFormat;
+
+/**
+ * Local file hashes in the forms the remote services report, so a local copy can be compared
+ * with a remote file without downloading it.
+ */
+public final class RemoteContentHashes {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    // Dropbox hashes each 4 MiB block, then the concatenated block hashes
+    private static final int DROPBOX_BLOCK_SIZE = 4 * 1024 * 1024;
+
+    private RemoteContentHashes() {
+    }
+
+    /**
+     * Lowercase hex MD5, as Google Drive reports in {@code md5Checksum}.
+     */
+    public static String md5(Path file) throws IOException {
+        MessageDigest md5 = digest("MD5");
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                md5.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(md5.digest());
+    }
+
+    /**
+     * Dropbox {@code content_hash}: SHA-256 over the SHA-256 of each 4 MiB block, in lowercase hex.
+     */
+    public static String dropboxContentHash(Path file) throws IOException {
+        MessageDigest overall = digest("SHA-256");
+        MessageDigest block = digest("SHA-256");
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int inBlock = 0;
+            int read;
+            while ((read = in.read(buffer, 0, Math.min(buffer.length, DROPBOX_BLOCK_SIZE - inBlock))) != -1) {
+                block.update(buffer, 0, read);
+                inBlock += read;
+                if (inBlock == DROPBOX_BLOCK_SIZE) {
+                    overall.update(block.digest());
+                    inBlock = 0;
+                }
+            }
+            if (inBlock > 0) {
+                overall.update(block.digest());
+            }
+        }
+        return HexFormat.of().formatHex(overall.digest());
+    }
+
+    /**
+     * OneDrive {@code quickXorHash}, base64 encoded. Reported for every file on personal and
+     * business drives, unlike SHA-1.
+     */
+    public static String quickXorHash(Path file) throws IOException {
+        QuickXorHash hash = new QuickXorHash();
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                hash.update(buffer, read);
+            }
+        }
+        return Base64.getEncoder().encodeToString(hash.digest());
+    }
+
+    private static MessageDigest digest(String algorithm) {
+        try {
+            return MessageDigest.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(algorithm + " is not available", e);
+        }
+    }
+
+    /**
+     * Microsoft's QuickXorHash: each byte is XORed into a 160-bit register at a position that
+     * advances 11 bits per byte, and the length is XORed into the last 8 bytes.
+     */
+    private static final class QuickXorHash {
+        private static final int WIDTH_BITS = 160;
+        private static final int SHIFT = 11;
+
+        private final long[] cells = new long[(WIDTH_BITS - 1) / 64 + 1];
+        private int shiftSoFar = 0;
+        private long length = 0;
+
+        private void update(byte[] bytes, int count) {
+            int cell = shiftSoFar / 64;
+            int offset = shiftSoFar % 64;
+            int iterations = Math.min(count, WIDTH_BITS);
+
+            for (int i = 0; i < iterations; i++) {
+                boolean lastCell = cell == cells.length - 1;
+                int cellBits = lastCell ? WIDTH_BITS % 64 : 64;
+
+                if (offset <= cellBits - 8) {
+                    for (int j = i; j < count; j += WIDTH_BITS) {
+                        cells[cell] ^= (long) (bytes[j] & 0xff) << offset;
+                    }
+                } else {
+                    int next = lastCell ? 0 : cell + 1;
+                    int low = cellBits - offset;
+                    int xored = 0;
+                    for (int j = i; j < count; j += WIDTH_BITS) {
+                        xored ^= bytes[j] & 0xff;
+                    }
+                    cells[cell] ^= (long) xored << offset;
+                    cells[next] ^= (long) xored >>> low;
+                }
+
+                offset += SHIFT;
+                while (offset >= cellBits) {
+                    cell = lastCell ? 0 : cell + 1;
+                    offset -= cellBits;
+                }
+            }
+
+            shiftSoFar = (int) ((shiftSoFar + (long) SHIFT * (count % WIDTH_BITS)) % WIDTH_BITS);
+            length += count;
+        }
+
+        private byte[] digest() {
+            byte[] result = new byte[(WIDTH_BITS - 1) / 8 + 1];
+            for (int i = 0; i < cells.length; i++) {
+                for (int b = 0; b < 8 && i * 8 + b < result.length; b++) {
+                    result[i * 8 + b] = (byte) (cells[i] >>> (8 * b));
+                }
+            }
+            for (int b = 0; b < 8; b++) {
+                result[result.length - 8 + b] ^= (byte) (length >>> (8 * b));
+            }
+            return result;
+        }
+    }
+}
@@ -1,10 +1,14 @@
 package io.nomard.flux_file.infrastructure.service.remote;
 
+import io.nomard.flux_file.core.domain.model.RemoteChange;
 import io.nomard.flux_file.core.domain.model.RemoteFileItem;
+import io.nomard.flux_file.infrastructure.service.operation.OperationProgress;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.io.IOException;
 import java.nio.file.Path;
+import java.util.Map;
 
 public interface RemoteFileSystemService {
     
@@ -13,10 +17,70 @@ public interface RemoteFileSystemService {
     Mono<Boolean> isConnected();
     
     Flux<RemoteFileItem> listFiles(String remotePath);
-    Mono<Void> downloadFile(String remoteFile, Path localDestination);
-    Mono<Void> uploadFile(Path localFile, String remoteDestination);
+    /**
+     * Changes to the entries of {@code remotePath} (null for the root), made here or anywhere else,
+     * from the moment of subscription until cancelled. Removals may name entries the folder never
+     * had; applying them is harmless.
+     */
+    Flux<RemoteChange> watchChanges(String remotePath);
+    default Mono<Void> downloadFile(String remoteFile, Path localDestination) {
+        return downloadFile(remoteFile, localDestination, OperationProgress.NONE);
+    }
+
+    /**
+     * Download a file, reporting bytes received to {@code progress} and stopping at its
+     * checkpoints when the operation is paused or cancelled.
+     */
+    Mono<Void> downloadFile(String remoteFile, Path localDestination, OperationProgress progress);
+    /**
+     * Upload a file; {@code remoteDestination} is the containing folder's id or path, a slash and the new name.
+     *
+     * @return the created item, so callers can update their listings without refetching
+     */
+    default Mono<RemoteFileItem> uploadFile(Path localFile, String remoteDestination) {
+        return uploadFile(localFile, remoteDestination, OperationProgress.NONE);
+    }
+
+    /**
+     * Upload a file, reporting bytes sent to {@code progress} and stopping at its checkpoints
+     * when the operation is paused or cancelled.
+     */
+    Mono<RemoteFileItem> uploadFile(Path localFile, String remoteDestination, OperationProgress progress);
+
+    /**
+     * Whether {@link #uploadFiles} commits many uploads together and should be preferred over
+     * single uploads for batches of small files.
+     */
+    default boolean batchesUploads() {
+        return false;
+    }
+
+    /**
+     * Upload several files, each local file mapped to a destination built as for {@link #uploadFile}.
+     * Services that can commit many uploads at once override this; by default they go one by one.
+     *
+     * @return each created item keyed by its local file; files that could not be uploaded have
+     *         no entry, and the flux ends with an error once the others are in
+     */
+    default Flux<Map.Entry<Path, RemoteFileItem>> uploadFiles(Map<Path, String> uploads, OperationProgress progress) {
+        return Flux.fromIterable(uploads.entrySet())
+                .concatMap(upload -> uploadFile(upload.getKey(), upload.getValue(), progress)
+                        .map(item -> Map.entry(upload.getKey(), item)));
+    }
+    /**
+     * Hash of a local file in the form this service reports as {@link RemoteFileItem#getContentHash()},
+     * so transfers can skip files that are already in place; null if the service reports none.
+     */
+    default String localContentHash(Path localFile) throws IOException {
+        return null;
+    }
     Mono<Void> deleteFile(String remoteFile);
-    Mono<Void> createDirectory(String remotePath);
+    /**
+     * Create a folder; {@code remotePath} is built like an upload destination.
+     *
+     * @return the created folder
+     */
+    Mono<RemoteFileItem> createDirectory(String remotePath);
     
     Mono<Long> getAvailableSpace();
     Mono<Long> getUsedSpace();
@@ -0,0 +1,199 @@
+package io.nomard.flux_file.infrastructure.service.remote;
+
+import io.nomard.flux_file.core.domain.model.RemoteFileItem;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Bounded LRU cache of remote folder listings, per service.
+ * <p>
+ * A listing younger than {@code fresh-for} is shown as is; an older one is shown at once and
+ * revalidated in the background (stale-while-revalidate). Listings past {@code max-age} are
+ * not served. Uploads, deletes and new folders are applied to cached listings directly, so
+ * the browser does not refetch a folder after changing it. Bounded by entry count and by an
+ * estimated memory budget, like {@code DirectoryListingCache}.
+ */
+@Slf4j
+@Service
+public class RemoteListingCache {
+
+    // Rough per-item footprint: object, three strings and the list slot
+    private static final long ITEM_OVERHEAD_BYTES = 200;
+
+    private final int maxEntries;
+    private final long maxBytes;
+    private final Duration freshFor;
+    private final Duration maxAge;
+    private final LinkedHashMap<Key, CachedListing> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long usedBytes = 0;
+
+    public RemoteListingCache(@Value("${flux.remote-cache.max-entries:128}") int maxEntries,
+                              @Value("${flux.remote-cache.max-bytes:33554432}") long maxBytes,
+                              @Value("${flux.remote-cache.fresh-for:30s}") Duration freshFor,
+                              @Value("${flux.remote-cache.max-age:15m}") Duration maxAge) {
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.freshFor = freshFor;
+        this.maxAge = maxAge;
+    }
+
+    /**
+     * The cached listing of a folder, unless it is missing or too old to show.
+     */
+    public synchronized Optional<CachedListing> get(String service, String folder) {
+        Key key = new Key(service, normalize(folder));
+        CachedListing listing = entries.get(key);
+        if (listing != null && listing.loadedAt().plus(maxAge).isBefore(Instant.now())) {
+            remove(key);
+            return Optional.empty();
+        }
+        return Optional.ofNullable(listing);
+    }
+
+    /**
+     * Whether a listing is recent enough to show without revalidating.
+     */
+    public boolean isFresh(CachedListing listing) {
+        return listing.loadedAt().plus(freshFor).isAfter(Instant.now());
+    }
+
+    public synchronized void put(String service, String folder, List<RemoteFileItem> items) {
+        store(new Key(service, normalize(folder)), List.copyOf(items), Instant.now());
+    }
+
+    /**
+     * Add or replace (by id) an item created in {@code folder}, if that folder is cached.
+     */
+    public synchronized void added(String service, String folder, RemoteFileItem item) {
+        Key key = new Key(service, normalize(folder));
+        CachedListing listing = entries.get(key);
+        if (listing == null) return;
+
+        List<RemoteFileItem> items = new ArrayList<>(listing.items().size() + 1);
+        for (RemoteFileItem existing : listing.items()) {
+            if (!existing.getId().equals(item.getId())) {
+                items.add(existing);
+            }
+        }
+        items.add(item);
+        store(key, List.copyOf(items), listing.loadedAt());
+    }
+
+    /**
+     * Drop a deleted item from every cached listing of the service, and its own listing if it was a folder.
+     */
+    public synchronized void removed(String service, String itemId) {
+        remove(new Key(service, normalize(itemId)));
+        for (Map.Entry<Key, CachedListing> entry : List.copyOf(entries.entrySet())) {
+            if (!entry.getKey().service().equals(service)) continue;
+            List<RemoteFileItem> items = entry.getValue().items().stream()
+                    .filter(item -> !item.getId().equals(itemId))
+                    .toList();
+            if (items.size() != entry.getValue().items().size()) {
+                store(entry.getKey(), items, entry.getValue().loadedAt());
+            }
+        }
+    }
+
+    /**
+     * Drop an item from one folder's cached listing, e.g. when a change feed reports it moved away.
+     */
+    public synchronized void removed(String service, String folder, String itemId) {
+        Key key = new Key(service, normalize(folder));
+        CachedListing listing = entries.get(key);
+        if (listing == null) return;
+
+        List<RemoteFileItem> items = listing.items().stream()
+                .filter(item -> !item.getId().equals(itemId))
+                .toList();
+        if (items.size() != listing.items().size()) {
+            store(key, items, listing.loadedAt());
+        }
+    }
+
+    public synchronized void invalidate(String service, String folder) {
+        if (remove(new Key(service, normalize(folder))) != null) {
+            log.debug("Invalidated cached remote listing: {} {}", service, folder);
+        }
+    }
+
+    /**
+     * Forget everything cached for a service, e.g. when its connection changes.
+     */
+    public synchronized void invalidateAll(String service) {
+        for (Key key : List.copyOf(entries.keySet())) {
+            if (key.service().equals(service)) {
+                remove(key);
+            }
+        }
+    }
+
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    private void store(Key key, List<RemoteFileItem> items, Instant loadedAt) {
+        long size = estimateBytes(items);
+        remove(key);
+        if (size > maxBytes) {
+            return;
+        }
+        entries.put(key, new CachedListing(items, loadedAt, size));
+        usedBytes += size;
+        evict();
+    }
+
+    private CachedListing remove(Key key) {
+        CachedListing removed = entries.remove(key);
+        if (removed != null) {
+            usedBytes -= removed.estimatedBytes();
+        }
+        return removed;
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<Key, CachedListing>> iterator = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || usedBytes > maxBytes) && iterator.hasNext()) {
+            Map.Entry<Key, CachedListing> eldest = iterator.next();
+            usedBytes -= eldest.getValue().estimatedBytes();
+            iterator.remove();
+            log.debug("Evicted cached remote listing: {}", eldest.getKey());
+        }
+    }
+
+    private long estimateBytes(List<RemoteFileItem> items) {
+        long bytes = 0;
+        for (RemoteFileItem item : items) {
+            bytes += ITEM_OVERHEAD_BYTES + 2L * (item.getName().length() + item.getId().length());
+        }
+        return bytes;
+    }
+
+    // The browser asks for the root as null, "" or "root" depending on how it got there
+    private String normalize(String folder) {
+        return folder == null || folder.isEmpty() ? "root" : folder;
+    }
+
+    private record Key(String service, String folder) {
+    }
+
+    /**
+     * A cached remote listing.
+     *
+     * @param items          the listing as the service returned it, plus local changes
+     * @param loadedAt       when the listing was fetched
+     * @param estimatedBytes the listing's share of the memory budget
+     */
+    public record CachedListing(List<RemoteFileItem> items, Instant loadedAt, long estimatedBytes) {
+    }
+}
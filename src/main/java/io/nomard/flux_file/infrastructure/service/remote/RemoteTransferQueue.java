@@ -0,0 +1,366 @@
+package io.nomard.flux_file.infrastructure.service.remote;
+
+import io.nomard.flux_file.core.domain.model.RemoteFileItem;
+import io.nomard.flux_file.infrastructure.service.io.BlockingIoSchedulers;
+import io.nomard.flux_file.infrastructure.service.operation.OperationKind;
+import io.nomard.flux_file.infrastructure.service.operation.OperationManager;
+import io.nomard.flux_file.infrastructure.service.operation.OperationProgress;
+import io.nomard.flux_file.infrastructure.service.operation.OperationState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.util.concurrent.Queues;
+import reactor.util.retry.Retry;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Runs multi-file remote transfers as operations: several files in flight per connection,
+ * each retried on its own, with progress for the whole batch and cancel from the operations
+ * panel. A file that still fails does not stop the others; the operation reports the
+ * failures once everything else is done.
+ * <p>
+ * Keeping many small requests in flight hides the round trip per file, so a folder of small
+ * files takes about as long as its bytes need rather than one latency per file. Services that
+ * commit uploads in batches ({@link RemoteFileSystemService#batchesUploads()}) get their small
+ * files handed over together instead.
+ * <p>
+ * Folders are walked as they are transferred: several folders are listed at once, each folder
+ * is created before its files are queued, and files start while the walk goes on. A file that
+ * is already in place with the same size and content hash is skipped, so running a transfer
+ * again picks up where an interrupted one stopped.
+ */
+@Slf4j
+@Service
+public class RemoteTransferQueue {
+
+    // Below this, a file's time is mostly round trips
+    private static final long SMALL_FILE_BYTES = 4L * 1024 * 1024;
+    private static final int UPLOAD_BATCH_SIZE = 1000;
+    // A batch is committed when full or after this, so a slow walk does not hold files back
+    private static final Duration UPLOAD_BATCH_WINDOW = Duration.ofMillis(500);
+    // Folders listed at once while walking a tree
+    private static final int WALK_CONCURRENCY = 4;
+
+    private final OperationManager operations;
+    private final Scheduler ioScheduler;
+    private final int concurrency;
+    private final int attempts;
+    private final Duration retryDelay;
+
+    public RemoteTransferQueue(OperationManager operations,
+                               BlockingIoSchedulers blockingIo,
+                               @Value("${flux.remote-transfer.concurrency:8}") int concurrency,
+                               @Value("${flux.remote-transfer.attempts:3}") int attempts,
+                               @Value("${flux.remote-transfer.retry-delay:2s}") Duration retryDelay) {
+        this.operations = operations;
+        this.concurrency = Math.max(1, concurrency);
+        this.attempts = Math.max(1, attempts);
+        this.retryDelay = retryDelay;
+        // Local walking and hashing for transfers
+        this.ioScheduler = blockingIo.scheduler("remote-transfer", this.concurrency);
+    }
+
+    /**
+     * Download files and folders, with everything below them, into {@code targetDirectory}.
+     */
+    public Mono<OperationState> download(RemoteFileSystemService service, List<RemoteFileItem> items,
+                                         Path targetDirectory) {
+        return operations.submit(OperationKind.DOWNLOAD, describe(items.size(), service), List.of(targetDirectory),
+                progress -> Flux.fromIterable(items)
+                        .flatMapDelayError(item -> remoteEntry(service, item, targetDirectory, targetDirectory),
+                                WALK_CONCURRENCY, 1)
+                        .doOnNext(download -> progress.expect(download.item().getSize(), 1))
+                        .flatMapDelayError(download -> fetch(service, download, progress), concurrency, 1)
+                        .then());
+    }
+
+    /**
+     * Upload local files and folders, with everything below them, into {@code remoteFolder}.
+     * Folders that already exist there are reused.
+     *
+     * @param onCreated called with each created file or folder and the folder it was created in
+     */
+    public Mono<OperationState> upload(RemoteFileSystemService service, List<Path> locals, String remoteFolder,
+                                       BiConsumer<String, RemoteFileItem> onCreated) {
+        return operations.submit(OperationKind.UPLOAD, describe(locals.size(), service), List.of(),
+                progress -> {
+                    Flux<Upload> pending = walkLocal(service, locals, remoteFolder, existing(service, remoteFolder), onCreated)
+                            .doOnNext(upload -> progress.expect(upload.size(), 1))
+                            .flatMapDelayError(upload -> Mono.fromCallable(() -> upload.existing() != null
+                                            && alreadyTransferred(service, upload.existing(), upload.file(), false))
+                                    .subscribeOn(ioScheduler)
+                                    .flatMap(skip -> {
+                                        if (!skip) return Mono.just(upload);
+                                        progress.addBytes(upload.size());
+                                        progress.addFiles(1);
+                                        return Mono.empty();
+                                    }), concurrency, 1);
+                    return send(service, pending, progress)
+                            .doOnNext(created -> {
+                                progress.addFiles(1);
+                                onCreated.accept(created.folder(), created.item());
+                            })
+                            .then();
+                });
+    }
+
+    /**
+     * Delete remote items.
+     *
+     * @param onDeleted called with each item once it is gone
+     */
+    public Mono<OperationState> delete(RemoteFileSystemService service, List<RemoteFileItem> items,
+                                       Consumer<RemoteFileItem> onDeleted) {
+        return operations.submit(OperationKind.DELETE, describe(items.size(), service), List.of(),
+                progress -> {
+                    progress.expect(0, items.size());
+                    return Flux.fromIterable(items)
+                            .flatMapDelayError(item -> retried(Mono.defer(() -> {
+                                        progress.checkpoint();
+                                        return service.deleteFile(item.getId());
+                                    }), item.getName())
+                                    .then(Mono.fromRunnable(() -> {
+                                        progress.addFiles(1);
+                                        onDeleted.accept(item);
+                                    })), concurrency, 1)
+                            .then();
+                });
+    }
+
+    // A remote item under localFolder: a file to download, or a folder to walk
+    private Flux<Download> remoteEntry(RemoteFileSystemService service, RemoteFileItem item, Path localFolder,
+                                       Path root) {
+        Path target;
+        try {
+            target = localTarget(localFolder, item.getName(), root);
+        } catch (IOException e) {
+            return Flux.error(e);
+        }
+        return item.isDirectory()
+                ? walkRemote(service, item, target, root)
+                : Flux.just(new Download(item, target));
+    }
+
+    // Creates the local folder before listing it, so its files always have somewhere to go
+    private Flux<Download> walkRemote(RemoteFileSystemService service, RemoteFileItem folder, Path localFolder,
+                                      Path root) {
+        return Mono.fromCallable(() -> Files.createDirectories(localFolder))
+                .subscribeOn(ioScheduler)
+                .then(retried(Flux.defer(() -> service.listFiles(folder.getId())).collectList(), folder.getName()))
+                .flatMapMany(Flux::fromIterable)
+                .flatMapDelayError(child -> remoteEntry(service, child, localFolder, root), WALK_CONCURRENCY, 1);
+    }
+
+    /**
+     * Where a remote item named {@code name} goes in {@code localFolder}. Remote names come from
+     * whoever shares the folder, so one that is not a single plain path element, or that would
+     * land outside {@code root}, is refused.
+     */
+    private Path localTarget(Path localFolder, String name, Path root) throws IOException {
+        if (name == null || name.isEmpty() || name.equals(".") || name.equals("..")
+                || name.indexOf('/') >= 0 || name.indexOf('\\') >= 0 || name.indexOf('\0') >= 0) {
+            throw new IOException("Refusing to download an item named \"" + name + "\"");
+        }
+        Path target = localFolder.resolve(name).normalize();
+        if (!target.startsWith(root.normalize()) || target.equals(root.normalize())) {
+            throw new IOException("Refusing to download \"" + name + "\" outside " + root);
+        }
+        return target;
+    }
+
+    private Mono<Void> fetch(RemoteFileSystemService service, Download download, OperationProgress progress) {
+        RemoteFileItem item = download.item();
+        return Mono.fromCallable(() -> alreadyTransferred(service, item, download.target(), true))
+                .subscribeOn(ioScheduler)
+                .flatMap(skip -> skip
+                        ? Mono.<Void>fromRunnable(() -> progress.addBytes(item.getSize()))
+                        : retried(attempt -> service.downloadFile(item.getId(), download.target(), attempt),
+                                progress, item.getName()))
+                .then(Mono.fromRunnable(() -> progress.addFiles(1)));
+    }
+
+    /**
+     * Uploads for {@code locals} into {@code remoteFolder}, whose current entries are
+     * {@code existing}. Folders are found or created before their contents are walked.
+     */
+    private Flux<Upload> walkLocal(RemoteFileSystemService service, List<Path> locals, String remoteFolder,
+                                   Mono<Map<String, RemoteFileItem>> existing,
+                                   BiConsumer<String, RemoteFileItem> onCreated) {
+        return existing.flatMapMany(entries -> Mono.fromCallable(() -> describeLocal(locals))
+                .subscribeOn(ioScheduler)
+                .flatMapMany(Flux::fromIterable)
+                .flatMapDelayError(local -> {
+                    String name = local.path().getFileName().toString();
+                    RemoteFileItem there = entries.get(name);
+                    if (!local.directory()) {
+                        return Flux.just(new Upload(local.path(), local.size(), remoteFolder,
+                                destination(remoteFolder, name), there != null && !there.isDirectory() ? there : null));
+                    }
+                    // A folder created just now has nothing in it to compare against
+                    Mono<RemoteFileItem> folder = there != null && there.isDirectory()
+                            ? Mono.just(there)
+                            : service.createDirectory(destination(remoteFolder, name))
+                                    .doOnNext(created -> onCreated.accept(remoteFolder, created));
+                    return folder.flatMapMany(target -> Mono.fromCallable(() -> children(local.path()))
+                            .subscribeOn(ioScheduler)
+                            .flatMapMany(children -> walkLocal(service, children, target.getId(),
+                                    there != null ? existing(service, target.getId()) : Mono.just(Map.of()),
+                                    onCreated)));
+                }, WALK_CONCURRENCY, 1));
+    }
+
+    // Small files go through the service's batch commit where it has one; everything else one by one
+    private Flux<Created> send(RemoteFileSystemService service, Flux<Upload> uploads, OperationProgress progress) {
+        if (!service.batchesUploads()) {
+            return uploads.flatMapDelayError(upload -> sendOne(service, upload, progress), concurrency, 1);
+        }
+        // Held back until the batches are committed: an error reaching the buffer would drop the files it holds
+        AtomicReference<Throwable> walkFailure = new AtomicReference<>();
+        Flux<Upload> walked = uploads.onErrorResume(error -> !(error instanceof CancellationException), error -> {
+            walkFailure.set(error);
+            return Flux.empty();
+        });
+        return walked.publish(shared -> Flux.mergeDelayError(Queues.SMALL_BUFFER_SIZE,
+                // Not retried here: a batch retries its own requests, and repeating it would re-upload committed files
+                shared.filter(upload -> upload.size() <= SMALL_FILE_BYTES)
+                        .bufferTimeout(UPLOAD_BATCH_SIZE, UPLOAD_BATCH_WINDOW)
+                        .concatMapDelayError(batch -> {
+                            // A failed file has no result, so results are matched by local file rather than position
+                            Map<Path, Upload> byFile = byFile(batch);
+                            return service.uploadFiles(destinations(batch), progress)
+                                    .map(created -> new Created(byFile.get(created.getKey()).folder(), created.getValue()));
+                        }),
+                shared.filter(upload -> upload.size() > SMALL_FILE_BYTES)
+                        .flatMapDelayError(upload -> sendOne(service, upload, progress), concurrency, 1)))
+                .concatWith(Mono.defer(() -> walkFailure.get() != null ? Mono.error(walkFailure.get()) : Mono.empty()));
+    }
+
+    private Mono<Created> sendOne(RemoteFileSystemService service, Upload upload, OperationProgress progress) {
+        return retried(attempt -> service.uploadFile(upload.file(), upload.destination(), attempt),
+                progress, upload.file().getFileName().toString())
+                .map(item -> new Created(upload.folder(), item));
+    }
+
+    private Mono<Map<String, RemoteFileItem>> existing(RemoteFileSystemService service, String remoteFolder) {
+        String listed = remoteFolder == null || remoteFolder.equals("root") ? null : remoteFolder;
+        return retried(Flux.defer(() -> service.listFiles(listed)).collectMap(RemoteFileItem::getName),
+                String.valueOf(remoteFolder));
+    }
+
+    /**
+     * Whether {@code local} already holds {@code remote}: the same size and, where the service
+     * reports one, the same content hash. Without a hash (SFTP) the copy that would be replaced
+     * must be at least as new as its source.
+     */
+    private boolean alreadyTransferred(RemoteFileSystemService service, RemoteFileItem remote, Path local,
+                                       boolean download) throws IOException {
+        if (!Files.isRegularFile(local) || Files.size(local) != remote.getSize()) {
+            return false;
+        }
+        if (remote.getContentHash() != null) {
+            return remote.getContentHash().equals(service.localContentHash(local));
+        }
+        Instant localModified = Files.getLastModifiedTime(local).toInstant();
+        return download
+                ? !localModified.isBefore(remote.getModified())
+                : !remote.getModified().isBefore(localModified);
+    }
+
+    // Retries a failed file or listing with backoff; cancellation is never retried
+    private <T> Mono<T> retried(Mono<T> transfer, String name) {
+        return transfer.retryWhen(Retry.backoff(attempts - 1, retryDelay)
+                .filter(error -> !(error instanceof CancellationException))
+                .doBeforeRetry(signal -> log.debug("Retrying transfer of {} (attempt {}): {}",
+                        name, signal.totalRetries() + 2, signal.failure().getMessage()))
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+    }
+
+    /**
+     * Retries a file transfer, each attempt reporting through its own {@link OperationProgress#attempt()}.
+     * A failed attempt takes its bytes back, since the next one counts what it resumes from.
+     */
+    private <T> Mono<T> retried(Function<OperationProgress, Mono<T>> transfer, OperationProgress progress,
+                                String name) {
+        return retried(Mono.defer(() -> {
+            OperationProgress attempt = progress.attempt();
+            return transfer.apply(attempt).doOnError(error -> attempt.discard());
+        }), name);
+    }
+
+    private List<LocalEntry> describeLocal(List<Path> paths) throws IOException {
+        List<LocalEntry> entries = new ArrayList<>(paths.size());
+        for (Path path : paths) {
+            boolean directory = Files.isDirectory(path);
+            entries.add(new LocalEntry(path, directory, directory ? 0 : Files.size(path)));
+        }
+        return entries;
+    }
+
+    private List<Path> children(Path directory) throws IOException {
+        try (Stream<Path> children = Files.list(directory)) {
+            return children.toList();
+        }
+    }
+
+    private Map<Path, String> destinations(List<Upload> batch) {
+        Map<Path, String> destinations = new LinkedHashMap<>();
+        for (Upload upload : batch) {
+            destinations.put(upload.file(), upload.destination());
+        }
+        return destinations;
+    }
+
+    private Map<Path, Upload> byFile(List<Upload> batch) {
+        Map<Path, Upload> byFile = new HashMap<>();
+        for (Upload upload : batch) {
+            byFile.put(upload.file(), upload);
+        }
+        return byFile;
+    }
+
+    private String destination(String folder, String name) {
+        return folder != null && !folder.equals("root") ? folder + "/" + name : name;
+    }
+
+    private String describe(int count, RemoteFileSystemService service) {
+        return count + (count == 1 ? " item" : " items") + " · " + service.getServiceName();
+    }
+
+    private record Download(RemoteFileItem item, Path target) {
+    }
+
+    private record LocalEntry(Path path, boolean directory, long size) {
+    }
+
+    /**
+     * A local file to upload.
+     *
+     * @param folder      the remote folder it goes into
+     * @param destination the upload destination, as {@link RemoteFileSystemService#uploadFile} takes it
+     * @param existing    a file of the same name already in that folder, if any
+     */
+    private record Upload(Path file, long size, String folder, String destination, RemoteFileItem existing) {
+    }
+
+    private record Created(String folder, RemoteFileItem item) {
+    }
+}
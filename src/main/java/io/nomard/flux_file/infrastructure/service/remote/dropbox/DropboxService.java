@@ -1,29 +1,106 @@
 package io.nomard.flux_file.infrastructure.service.remote.dropbox;
 
+import com.dropbox.core.DbxException;
 import com.dropbox.core.DbxRequestConfig;
+import com.dropbox.core.NetworkIOException;
+import com.dropbox.core.RetryException;
+import com.dropbox.core.ServerException;
+import com.dropbox.core.http.StandardHttpRequestor;
 import com.dropbox.core.v2.DbxClientV2;
+import com.dropbox.core.v2.files.CommitInfo;
+import com.dropbox.core.v2.files.DeletedMetadata;
 import com.dropbox.core.v2.files.FileMetadata;
 import com.dropbox.core.v2.files.FolderMetadata;
+import com.dropbox.core.v2.files.ListFolderContinueErrorException;
+import com.dropbox.core.v2.files.ListFolderLongpollErrorException;
 import com.dropbox.core.v2.files.ListFolderResult;
+import com.dropbox.core.v2.files.Metadata;
+import com.dropbox.core.v2.files.UploadSessionAppendError;
+import com.dropbox.core.v2.files.UploadSessionAppendErrorException;
+import com.dropbox.core.v2.files.UploadSessionCursor;
+import com.dropbox.core.v2.files.UploadSessionFinishArg;
+import com.dropbox.core.v2.files.UploadSessionFinishBatchResultEntry;
+import com.dropbox.core.v2.files.UploadSessionType;
 import com.dropbox.core.v2.files.WriteMode;
 import com.dropbox.core.v2.users.SpaceUsage;
+import io.nomard.flux_file.core.domain.model.RemoteChange;
 import io.nomard.flux_file.core.domain.model.RemoteFileItem;
+import io.nomard.flux_file.infrastructure.service.io.BlockingIoSchedulers;
+import io.nomard.flux_file.infrastructure.service.operation.OperationProgress;
+import io.nomard.flux_file.infrastructure.service.remote.RemoteContentHashes;
 import io.nomard.flux_file.infrastructure.service.remote.RemoteFileSystemService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
 
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
+@Slf4j
 @Service
 public class DropboxService implements RemoteFileSystemService {
 
-    private final reactor.core.scheduler.Scheduler ioScheduler = Schedulers.boundedElastic();
+    // Dropbox's largest page
+    private static final long PAGE_LIMIT = 2000L;
+    private static final int MAX_REMEMBERED_FOLDERS = 64;
+    // Dropbox's shortest; it adds up to 90s of jitter. Short, since a poll left behind by a
+    // closed watch cannot be interrupted and runs until it returns
+    private static final long LONGPOLL_TIMEOUT_SECONDS = 30;
+    private static final long LONGPOLL_READ_TIMEOUT_SECONDS = LONGPOLL_TIMEOUT_SECONDS + 120;
+    // Longpolls waiting at once, counting those still running for watches already closed
+    private static final int LONGPOLL_CONCURRENCY = 64;
+    // Concurrent sessions need chunks in multiples of 4 MiB
+    private static final long CHUNK_SIZE = 16L * 1024 * 1024;
+    private static final int APPEND_CONCURRENCY = 4;
+    private static final int FILE_CONCURRENCY = 4;
+    // Most entries finishBatch accepts per call
+    private static final int FINISH_BATCH_LIMIT = 1000;
+    private static final int RETRY_ATTEMPTS = 5;
+    private static final long RETRY_BASE_MILLIS = 1000;
+    private static final long RETRY_MAX_MILLIS = 30_000;
+
+    private final reactor.core.scheduler.Scheduler ioScheduler;
+    // Longpolls only, so waiting for changes never takes a thread listings and transfers need
+    private final reactor.core.scheduler.Scheduler longpollScheduler;
     private DbxClientV2 client;
+    // Same token, but a read timeout that outlasts a longpoll
+    private DbxClientV2 longpollClient;
+    // Last cursor and entries per folder (lower-cased path), least recently listed evicted first
+    private final Map<String, FolderSnapshot> folders = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, FolderSnapshot> eldest) {
+            return size() > MAX_REMEMBERED_FOLDERS;
+        }
+    };
+
+    public DropboxService(BlockingIoSchedulers blockingIo,
+                          @Value("${flux.io.remote-max-concurrency:16}") int maxConcurrency) {
+        this.ioScheduler = blockingIo.scheduler("dropbox", maxConcurrency);
+        this.longpollScheduler = blockingIo.scheduler("dropbox-longpoll", LONGPOLL_CONCURRENCY);
+    }
 
     @Override
     public Mono<Boolean> connect(String accessToken) {
@@ -31,6 +108,15 @@ public class DropboxService implements RemoteFileSystemService {
             try {
                 DbxRequestConfig config = DbxRequestConfig.newBuilder("reactive-file-manager").build();
                 client = new DbxClientV2(config, accessToken);
+                StandardHttpRequestor.Config longpollHttp = StandardHttpRequestor.Config.builder()
+                        .withReadTimeout(LONGPOLL_READ_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                        .build();
+                longpollClient = new DbxClientV2(DbxRequestConfig.newBuilder("reactive-file-manager")
+                        .withHttpRequestor(new StandardHttpRequestor(longpollHttp))
+                        .build(), accessToken);
+                synchronized (folders) {
+                    folders.clear();
+                }
 
                 // Test connection
                 client.users().getCurrentAccount();
@@ -46,6 +132,10 @@ public class DropboxService implements RemoteFileSystemService {
     public Mono<Boolean> disconnect() {
         return Mono.fromCallable(() -> {
             client = null;
+            longpollClient = null;
+            synchronized (folders) {
+                folders.clear();
+            }
             return true;
         }).subscribeOn(ioScheduler);
     }
@@ -55,51 +145,214 @@ public class DropboxService implements RemoteFileSystemService {
         return Mono.just(client != null);
     }
 
+    /**
+     * Lists a folder page by page through {@code listFolderContinue}, emitting each page as it
+     * arrives. The final cursor and entries are kept per folder, so listing the same folder
+     * again only asks Dropbox for what changed since; if the cursor is no longer valid the
+     * folder is listed in full.
+     */
     @Override
     public Flux<RemoteFileItem> listFiles(String remotePath) {
         return Flux.defer(() -> {
-            try {
-                if (client == null) {
-                    return Flux.error(new RuntimeException("Not connected to Dropbox"));
-                }
-                String path = remotePath;
-                if (path == null || path.isEmpty()) {
-                    path = "";
-                }
+            DbxClientV2 dbx = client;
+            if (dbx == null) {
+                return Flux.error(new RuntimeException("Not connected to Dropbox"));
+            }
+            String path = remotePath != null ? remotePath : "";
+            String key = path.toLowerCase(Locale.ROOT);
 
-                ListFolderResult result = client.files().listFolder(path);
+            FolderSnapshot snapshot;
+            synchronized (folders) {
+                snapshot = folders.get(key);
+            }
+            return snapshot != null
+                    ? listChanges(dbx, path, key, snapshot)
+                    : listFolder(dbx, path, key);
+        });
+    }
 
-                String finalRemotePath = path;
-                return Flux.fromIterable(result.getEntries())
-                        .map(entry -> {
-                            boolean isDirectory = entry instanceof FolderMetadata;
-                            long size = 0;
-                            Instant modified = Instant.now();
+    private Flux<RemoteFileItem> listFolder(DbxClientV2 dbx, String path, String key) {
+        Map<String, RemoteFileItem> entries = new LinkedHashMap<>();
+        return fetchPage(() -> dbx.files().listFolderBuilder(path).withLimit(PAGE_LIMIT).start())
+                .expand(page -> page.getHasMore()
+                        ? fetchPage(() -> dbx.files().listFolderContinue(page.getCursor()))
+                        : Mono.empty())
+                .concatMap(page -> {
+                    List<RemoteFileItem> items = new ArrayList<>(page.getEntries().size());
+                    for (Metadata entry : page.getEntries()) {
+                        RemoteFileItem item = toRemoteFileItem(entry, path);
+                        if (item != null) {
+                            entries.put(entry.getPathLower(), item);
+                            items.add(item);
+                        }
+                    }
+                    if (!page.getHasMore()) {
+                        remember(key, new FolderSnapshot(page.getCursor(), entries));
+                    }
+                    return Flux.fromIterable(items);
+                }, 1);
+    }
 
-                            if (entry instanceof FileMetadata fileMetadata) {
-                                size = fileMetadata.getSize();
-                                modified = fileMetadata.getClientModified().toInstant();
+    // Deletions have to be applied before anything is shown, so the delta is collected first
+    private Flux<RemoteFileItem> listChanges(DbxClientV2 dbx, String path, String key, FolderSnapshot snapshot) {
+        Map<String, RemoteFileItem> entries = new LinkedHashMap<>(snapshot.entries());
+        return fetchPage(() -> dbx.files().listFolderContinue(snapshot.cursor()))
+                .expand(page -> page.getHasMore()
+                        ? fetchPage(() -> dbx.files().listFolderContinue(page.getCursor()))
+                        : Mono.empty())
+                .doOnNext(page -> {
+                    for (Metadata entry : page.getEntries()) {
+                        if (entry instanceof DeletedMetadata) {
+                            entries.remove(entry.getPathLower());
+                        } else {
+                            RemoteFileItem item = toRemoteFileItem(entry, path);
+                            if (item != null) {
+                                entries.put(entry.getPathLower(), item);
                             }
+                        }
+                    }
+                })
+                .last()
+                .flatMapMany(last -> {
+                    remember(key, new FolderSnapshot(last.getCursor(), entries));
+                    return Flux.fromIterable(List.copyOf(entries.values()));
+                })
+                .onErrorResume(e -> {
+                    log.debug("Cursor for {} no longer usable, listing in full: {}", path, e.getMessage());
+                    forget(key);
+                    return listFolder(dbx, path, key);
+                });
+    }
 
-                            return new RemoteFileItem(
-                                    entry.getPathDisplay(),
-                                    entry.getName(),
-                                    isDirectory,
-                                    size,
-                                    modified,
-                                    "dropbox",
-                                    finalRemotePath
-                            );
-                        });
-            } catch (Exception e) {
-                return Flux.error(new RuntimeException("Failed to list Dropbox files", e));
+    private Mono<ListFolderResult> fetchPage(Callable<ListFolderResult> request) {
+        return Mono.fromCallable(request)
+                .subscribeOn(ioScheduler)
+                .onErrorMap(e -> new RuntimeException("Failed to list Dropbox files", e));
+    }
+
+    private RemoteFileItem toRemoteFileItem(Metadata entry, String parentPath) {
+        if (!(entry instanceof FileMetadata) && !(entry instanceof FolderMetadata)) {
+            return null;
+        }
+        boolean isDirectory = entry instanceof FolderMetadata;
+        long size = 0;
+        Instant modified = Instant.now();
+        String contentHash = null;
+
+        if (entry instanceof FileMetadata fileMetadata) {
+            size = fileMetadata.getSize();
+            modified = fileMetadata.getClientModified().toInstant();
+            contentHash = fileMetadata.getContentHash();
+        }
+
+        return new RemoteFileItem(
+                entry.getPathDisplay(),
+                entry.getName(),
+                isDirectory,
+                size,
+                modified,
+                "dropbox",
+                parentPath,
+                contentHash
+        );
+    }
+
+    /**
+     * Long-polls the folder's cursor: {@code listFolderLongpoll} returns as soon as something
+     * changes (or times out), then {@code listFolderContinue} fetches what did. Each wait holds
+     * a thread of its own scheduler; once the watch is disposed, a poll that returns fetches
+     * nothing. A reset cursor starts over from the latest one and asks for a listing.
+     */
+    @Override
+    public Flux<RemoteChange> watchChanges(String remotePath) {
+        return Flux.defer(() -> {
+            DbxClientV2 dbx = client;
+            DbxClientV2 poller = longpollClient;
+            if (dbx == null || poller == null) {
+                return Flux.error(new RuntimeException("Not connected to Dropbox"));
             }
-        }).subscribeOn(ioScheduler);
+
+            String path = remotePath != null ? remotePath : "";
+            AtomicReference<String> cursor = new AtomicReference<>();
+            AtomicLong backoffSeconds = new AtomicLong();
+            return Mono.fromCallable(() -> dbx.files().listFolderGetLatestCursor(path).getCursor())
+                    .subscribeOn(ioScheduler)
+                    .onErrorMap(e -> new RuntimeException("Failed to watch Dropbox folder", e))
+                    .flatMapMany(latest -> {
+                        cursor.set(latest);
+                        return Mono.defer(() -> {
+                                    long backoff = backoffSeconds.getAndSet(0);
+                                    Mono<List<RemoteChange>> poll = waitForChanges(dbx, poller, path, cursor, backoffSeconds);
+                                    return backoff > 0 ? Mono.delay(Duration.ofSeconds(backoff)).then(poll) : poll;
+                                })
+                                .repeat()
+                                .concatMapIterable(changes -> changes, 1);
+                    });
+        });
+    }
+
+    private Mono<List<RemoteChange>> waitForChanges(DbxClientV2 dbx, DbxClientV2 poller, String path,
+                                                    AtomicReference<String> cursor, AtomicLong backoffSeconds) {
+        return Mono.fromCallable(() -> poller.files().listFolderLongpoll(cursor.get(), LONGPOLL_TIMEOUT_SECONDS))
+                .subscribeOn(longpollScheduler)
+                .flatMap(result -> {
+                    if (result.getBackoff() != null) {
+                        backoffSeconds.set(result.getBackoff());
+                    }
+                    return result.getChanges()
+                            ? blocking(() -> readChanges(dbx, path, cursor))
+                            : Mono.just(List.<RemoteChange>of());
+                })
+                // Both only fail this way when the cursor has been reset
+                .onErrorResume(e -> e instanceof ListFolderLongpollErrorException
+                                || e instanceof ListFolderContinueErrorException,
+                        e -> blocking(() -> {
+                            log.debug("Dropbox cursor for {} was reset: {}", path, e.getMessage());
+                            cursor.set(dbx.files().listFolderGetLatestCursor(path).getCursor());
+                            return List.of(RemoteChange.reset());
+                        }))
+                .onErrorMap(e -> new RuntimeException("Failed to poll Dropbox changes", e));
+    }
+
+    private List<RemoteChange> readChanges(DbxClientV2 dbx, String path, AtomicReference<String> cursor)
+            throws DbxException {
+        List<RemoteChange> changes = new ArrayList<>();
+        ListFolderResult page;
+        String next = cursor.get();
+        do {
+            page = dbx.files().listFolderContinue(next);
+            for (Metadata entry : page.getEntries()) {
+                if (entry instanceof DeletedMetadata) {
+                    changes.add(RemoteChange.removed(entry.getPathDisplay()));
+                } else {
+                    RemoteFileItem item = toRemoteFileItem(entry, path);
+                    if (item != null) {
+                        changes.add(RemoteChange.upserted(item));
+                    }
+                }
+            }
+            next = page.getCursor();
+        } while (page.getHasMore());
+        cursor.set(next);
+        return changes;
+    }
+
+    private void remember(String key, FolderSnapshot snapshot) {
+        synchronized (folders) {
+            folders.put(key, snapshot);
+        }
+    }
+
+    private void forget(String key) {
+        synchronized (folders) {
+            folders.remove(key);
+        }
     }
 
     @Override
-    public Mono<Void> downloadFile(String remoteFile, Path localDestination) {
+    public Mono<Void> downloadFile(String remoteFile, Path localDestination, OperationProgress progress) {
         return Mono.fromRunnable(() -> {
+            progress.checkpoint();
             try {
                 if (client == null) {
                     throw new RuntimeException("Not connected to Dropbox");
@@ -109,6 +362,7 @@ public class DropboxService implements RemoteFileSystemService {
                 client.files().downloadBuilder(remoteFile)
                         .download(outputStream);
                 outputStream.close();
+                progress.addBytes(Files.size(localDestination));
 
             } catch (Exception e) {
                 throw new RuntimeException("Failed to download file from Dropbox", e);
@@ -116,31 +370,235 @@ public class DropboxService implements RemoteFileSystemService {
         }).subscribeOn(ioScheduler).then();
     }
 
+    /**
+     * Files up to one chunk go up in a single request. Larger ones use a concurrent upload
+     * session: all chunks but the last are appended in parallel straight from disk, the last
+     * one closes the session, and {@code finish} commits it.
+     */
     @Override
-    public Mono<Void> uploadFile(Path localFile, String remoteDestination) {
-        return Mono.fromRunnable(() -> {
-            try {
-                if (client == null) {
-                    throw new RuntimeException("Not connected to Dropbox");
+    public Mono<RemoteFileItem> uploadFile(Path localFile, String remoteDestination, OperationProgress progress) {
+        return Mono.defer(() -> {
+                    DbxClientV2 dbx = client;
+                    if (dbx == null) {
+                        return Mono.error(new RuntimeException("Not connected to Dropbox"));
+                    }
+                    String destination = absolute(remoteDestination);
+                    return blocking(() -> Files.size(localFile))
+                            .flatMap(size -> size <= CHUNK_SIZE
+                                    ? singleUpload(dbx, localFile, destination, progress)
+                                    : uploadSession(dbx, localFile, size, progress)
+                                    .flatMap(cursor -> blocking(() -> withRetries(() -> dbx.files()
+                                            .uploadSessionFinish(cursor, commitInfo(destination))
+                                            .uploadAndFinish(InputStream.nullInputStream())))))
+                            .map(created -> toRemoteFileItem(created, parentOf(destination)));
+                })
+                .onErrorMap(e -> !(e instanceof CancellationException),
+                        e -> new RuntimeException("Failed to upload file to Dropbox", e));
+    }
+
+    @Override
+    public boolean batchesUploads() {
+        return true;
+    }
+
+    /**
+     * Uploads every file into its own session, several files at a time, then commits them
+     * together with {@code finishBatch}, up to 1000 per call. A folder of small files costs one
+     * request per file plus one per thousand, and commits do not contend with each other.
+     */
+    @Override
+    public Flux<Map.Entry<Path, RemoteFileItem>> uploadFiles(Map<Path, String> uploads, OperationProgress progress) {
+        return Flux.defer(() -> {
+                    DbxClientV2 dbx = client;
+                    if (dbx == null) {
+                        return Flux.error(new RuntimeException("Not connected to Dropbox"));
+                    }
+                    // A file that fails to upload or commit leaves the rest to go on; failures end the flux.
+                    // Upload failures are held back, since an error reaching the buffer would drop its files
+                    List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+                    return Flux.fromIterable(uploads.entrySet())
+                            .flatMapSequential(entry -> prepareUpload(dbx, entry.getKey(), absolute(entry.getValue()), progress)
+                                    .onErrorResume(e -> !(e instanceof CancellationException), e -> {
+                                        failures.add(e);
+                                        return Mono.empty();
+                                    }), FILE_CONCURRENCY)
+                            .buffer(FINISH_BATCH_LIMIT)
+                            .concatMapDelayError(batch -> finishBatch(dbx, batch), 1)
+                            .concatWith(Mono.defer(() -> failures.isEmpty()
+                                    ? Mono.empty()
+                                    : Mono.error(new RuntimeException(failures.size() + " upload(s) failed, e.g. "
+                                            + failures.getFirst().getMessage(), failures.getFirst()))));
+                })
+                .onErrorMap(e -> !(e instanceof CancellationException),
+                        e -> new RuntimeException("Failed to upload files to Dropbox", e));
+    }
+
+    private Mono<FileMetadata> singleUpload(DbxClientV2 dbx, Path localFile, String destination, OperationProgress progress) {
+        return blocking(() -> {
+            progress.checkpoint();
+            FileMetadata created = withRetries(() -> {
+                try (InputStream in = Files.newInputStream(localFile)) {
+                    return dbx.files().uploadBuilder(destination)
+                            .withMode(WriteMode.OVERWRITE)
+                            .uploadAndFinish(in);
                 }
+            });
+            progress.addBytes(created.getSize());
+            return created;
+        });
+    }
 
-                FileInputStream inputStream = new FileInputStream(localFile.toFile());
+    // A session holding the whole file, closed and ready to commit
+    private Mono<PreparedUpload> prepareUpload(DbxClientV2 dbx, Path localFile, String destination,
+                                                       OperationProgress progress) {
+        return blocking(() -> Files.size(localFile))
+                .flatMap(size -> size <= CHUNK_SIZE
+                        ? blocking(() -> {
+                            progress.checkpoint();
+                            String sessionId = withRetries(() -> {
+                                try (InputStream in = Files.newInputStream(localFile)) {
+                                    return dbx.files().uploadSessionStartBuilder()
+                                            .withClose(true)
+                                            .uploadAndFinish(in, size)
+                                            .getSessionId();
+                                }
+                            });
+                            progress.addBytes(size);
+                            return new UploadSessionCursor(sessionId, size);
+                        })
+                        : uploadSession(dbx, localFile, size, progress))
+                .map(cursor -> new PreparedUpload(localFile,
+                        new UploadSessionFinishArg(cursor, commitInfo(destination))));
+    }
+
+    private Mono<UploadSessionCursor> uploadSession(DbxClientV2 dbx, Path localFile, long size, OperationProgress progress) {
+        int chunks = (int) ((size + CHUNK_SIZE - 1) / CHUNK_SIZE);
+        long lastOffset = (long) (chunks - 1) * CHUNK_SIZE;
+        return blocking(() -> withRetries(() -> dbx.files().uploadSessionStartBuilder()
+                        .withSessionType(UploadSessionType.CONCURRENT)
+                        .uploadAndFinish(InputStream.nullInputStream())
+                        .getSessionId()))
+                .flatMap(sessionId -> Flux.range(0, chunks - 1)
+                        .flatMap(chunk -> appendChunk(dbx, sessionId, localFile, (long) chunk * CHUNK_SIZE, CHUNK_SIZE,
+                                false, progress), APPEND_CONCURRENCY)
+                        // Closing is only allowed once everything before it is in
+                        .then(Mono.defer(() -> appendChunk(dbx, sessionId, localFile, lastOffset, size - lastOffset,
+                                true, progress)))
+                        .thenReturn(new UploadSessionCursor(sessionId, size)));
+    }
 
-                String destination = remoteDestination;
-                if (!destination.startsWith("/")) {
-                    destination = "/" + destination;
+    // Reads the chunk from its own channel, so parallel appends need no shared buffer
+    private Mono<Void> appendChunk(DbxClientV2 dbx, String sessionId, Path localFile, long offset, long length,
+                                   boolean close, OperationProgress progress) {
+        return blocking(() -> {
+            progress.checkpoint();
+            AtomicInteger attempts = new AtomicInteger();
+            try {
+                withRetries(() -> {
+                    attempts.incrementAndGet();
+                    try (FileChannel channel = FileChannel.open(localFile, StandardOpenOption.READ)) {
+                        channel.position(offset);
+                        dbx.files().uploadSessionAppendV2Builder(new UploadSessionCursor(sessionId, offset))
+                                .withClose(close)
+                                .uploadAndFinish(Channels.newInputStream(channel), length);
+                    }
+                    return null;
+                });
+            } catch (UploadSessionAppendErrorException e) {
+                if (attempts.get() == 1 || !alreadyAppended(e.errorValue, offset, length, close)) {
+                    throw e;
                 }
+                log.debug("Dropbox already had bytes {}-{} of session {}", offset, offset + length - 1, sessionId);
+            }
+            progress.addBytes(length);
+            return null;
+        }).then();
+    }
 
-                client.files().uploadBuilder(destination)
-                        .withMode(WriteMode.OVERWRITE)
-                        .uploadAndFinish(inputStream);
+    /**
+     * Whether a resent chunk was refused because an earlier attempt, whose response was lost,
+     * already delivered it. Only asked after a retry. In a concurrent session chunks arrive out
+     * of order, so an offset error on the resend is taken as the chunk being in, unless the
+     * reported offset shows it cannot be; resending the closing chunk finds the session closed.
+     */
+    private boolean alreadyAppended(UploadSessionAppendError error, long offset, long length, boolean close) {
+        if (error.isIncorrectOffset()) {
+            return error.getIncorrectOffsetValue().getCorrectOffset() != offset;
+        }
+        return close && error.isClosed();
+    }
 
-                inputStream.close();
+    // Result entries come back in the order of the batch, so each is matched to its local file by position
+    private Flux<Map.Entry<Path, RemoteFileItem>> finishBatch(DbxClientV2 dbx, List<PreparedUpload> batch) {
+        List<UploadSessionFinishArg> finishes = batch.stream().map(PreparedUpload::finish).toList();
+        return blocking(() -> withRetries(() -> dbx.files().uploadSessionFinishBatchV2(finishes)))
+                .flatMapMany(result -> {
+                    List<Map.Entry<Path, RemoteFileItem>> committed = new ArrayList<>(batch.size());
+                    List<String> failures = new ArrayList<>();
+                    for (int i = 0; i < result.getEntries().size(); i++) {
+                        UploadSessionFinishBatchResultEntry entry = result.getEntries().get(i);
+                        String path = finishes.get(i).getCommit().getPath();
+                        if (entry.isSuccess()) {
+                            committed.add(Map.entry(batch.get(i).localFile(),
+                                    toRemoteFileItem(entry.getSuccessValue(), parentOf(path))));
+                        } else {
+                            failures.add(path + " (" + entry.getFailureValue() + ")");
+                        }
+                    }
+                    Flux<Map.Entry<Path, RemoteFileItem>> items = Flux.fromIterable(committed);
+                    return failures.isEmpty()
+                            ? items
+                            : items.concatWith(Flux.error(new RuntimeException(
+                                    failures.size() + " upload(s) could not be committed, e.g. " + failures.get(0))));
+                });
+    }
 
-            } catch (Exception e) {
-                throw new RuntimeException("Failed to upload file to Dropbox", e);
+    /**
+     * Run a Dropbox call, retrying on rate limits, network and server errors; anything else
+     * (a conflict, a bad path) fails straight away.
+     */
+    private <T> T withRetries(DropboxCall<T> call) throws DbxException, IOException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return call.run();
+            } catch (RetryException e) {
+                if (attempt >= RETRY_ATTEMPTS) throw e;
+                pause(Math.max(e.getBackoffMillis(), backoffMillis(attempt)));
+            } catch (NetworkIOException | ServerException e) {
+                if (attempt >= RETRY_ATTEMPTS) throw e;
+                pause(backoffMillis(attempt));
             }
-        }).subscribeOn(ioScheduler).then();
+        }
+    }
+
+    private long backoffMillis(int attempt) {
+        return Math.min(RETRY_BASE_MILLIS << (attempt - 1), RETRY_MAX_MILLIS);
+    }
+
+    private void pause(long millis) throws InterruptedIOException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while retrying a Dropbox request");
+        }
+    }
+
+    private <T> Mono<T> blocking(Callable<T> call) {
+        return Mono.fromCallable(call).subscribeOn(ioScheduler);
+    }
+
+    private CommitInfo commitInfo(String destination) {
+        return CommitInfo.newBuilder(destination).withMode(WriteMode.OVERWRITE).build();
+    }
+
+    private String absolute(String remotePath) {
+        return remotePath.startsWith("/") ? remotePath : "/" + remotePath;
+    }
+
+    @Override
+    public String localContentHash(Path localFile) throws IOException {
+        return RemoteContentHashes.dropboxContentHash(localFile);
     }
 
     @Override
@@ -158,8 +616,8 @@ public class DropboxService implements RemoteFileSystemService {
     }
 
     @Override
-    public Mono<Void> createDirectory(String remotePath) {
-        return Mono.fromRunnable(() -> {
+    public Mono<RemoteFileItem> createDirectory(String remotePath) {
+        return Mono.fromCallable(() -> {
             try {
                 if (client == null) {
                     throw new RuntimeException("Not connected to Dropbox");
@@ -169,12 +627,18 @@ public class DropboxService implements RemoteFileSystemService {
                     path = "/" + path;
                 }
 
-                client.files().createFolderV2(path);
+                FolderMetadata created = client.files().createFolderV2(path).getMetadata();
+                return toRemoteFileItem(created, parentOf(path));
 
             } catch (Exception e) {
                 throw new RuntimeException("Failed to create folder in Dropbox", e);
             }
-        }).subscribeOn(ioScheduler).then();
+        }).subscribeOn(ioScheduler);
+    }
+
+    // Listings of the root are keyed by "", like the path Dropbox expects for it
+    private String parentOf(String path) {
+        return path.substring(0, path.lastIndexOf('/'));
     }
 
     @Override
@@ -214,4 +678,28 @@ public class DropboxService implements RemoteFileSystemService {
     public String getServiceName() {
         return "Dropbox";
     }
-}
\ No newline at end of file
+
+    /**
+     * A closed upload session ready for {@code finishBatch}, with the local file it holds.
+     */
+    private record PreparedUpload(Path localFile, UploadSessionFinishArg finish) {
+    }
+
+    /**
+     * A folder as of {@code cursor}.
+     *
+     * @param cursor  cursor from the last page of the listing
+     * @param entries items keyed by lower-cased path
+     */
+    private record FolderSnapshot(String cursor, Map<String, RemoteFileItem> entries) {
+
+        FolderSnapshot {
+            entries = Collections.unmodifiableMap(new LinkedHashMap<>(entries));
+        }
+    }
+
+    @FunctionalInterface
+    private interface DropboxCall<T> {
+        T run() throws DbxException, IOException;
+    }
+}
@@ -6,42 +6,112 @@ import com.google.api.client.extensions.jetty.auth.oauth2.LocalServerReceiver;
 import com.google.api.client.googleapis.auth.oauth2.GoogleAuthorizationCodeFlow;
 import com.google.api.client.googleapis.auth.oauth2.GoogleClientSecrets;
 import com.google.api.client.googleapis.javanet.GoogleNetHttpTransport;
+import com.google.api.client.http.ByteArrayContent;
 import com.google.api.client.http.FileContent;
+import com.google.api.client.http.GenericUrl;
+import com.google.api.client.http.HttpRequest;
+import com.google.api.client.http.HttpResponse;
+import com.google.api.client.http.HttpResponseException;
+import com.google.api.client.http.json.JsonHttpContent;
 import com.google.api.client.http.javanet.NetHttpTransport;
 import com.google.api.client.json.JsonFactory;
 import com.google.api.client.json.gson.GsonFactory;
 import com.google.api.client.util.store.FileDataStoreFactory;
 import com.google.api.services.drive.Drive;
 import com.google.api.services.drive.DriveScopes;
+import com.google.api.services.drive.model.Change;
+import com.google.api.services.drive.model.ChangeList;
 import com.google.api.services.drive.model.File;
 import com.google.api.services.drive.model.FileList;
+import io.nomard.flux_file.core.domain.model.RemoteChange;
 import io.nomard.flux_file.core.domain.model.RemoteFileItem;
+import io.nomard.flux_file.infrastructure.service.io.BlockingIoSchedulers;
+import io.nomard.flux_file.infrastructure.service.operation.OperationProgress;
+import io.nomard.flux_file.infrastructure.service.remote.RemoteContentHashes;
 import io.nomard.flux_file.infrastructure.service.remote.RemoteFileSystemService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
 
 import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
 
+@Slf4j
 @Service
 public class GoogleDriveService implements RemoteFileSystemService {
 
     private static final String APPLICATION_NAME = "Reactive File Manager";
     private static final JsonFactory JSON_FACTORY = GsonFactory.getDefaultInstance();
     private static final String TOKENS_DIRECTORY_PATH = "tokens/googledrive";
+    // Upload session URIs are pre-authorised, so they are kept with the tokens
+    private static final Path PENDING_UPLOADS_FILE = Path.of(TOKENS_DIRECTORY_PATH, "pending-uploads.properties");
     private static final List<String> SCOPES = Collections.singletonList(DriveScopes.DRIVE);
+    private static final String FOLDER_MIME_TYPE = "application/vnd.google-apps.folder";
+    // Largest page the API serves; fields limited to what RemoteFileItem uses
+    private static final int PAGE_SIZE = 1000;
+    private static final String ITEM_FIELDS = "id, name, mimeType, size, modifiedTime, md5Checksum";
+    private static final String LIST_FIELDS = "nextPageToken, files(" + ITEM_FIELDS + ")";
+    private static final String UPLOAD_URL = "https://www.googleapis.com/upload/drive/v3/files";
+    // Resumable sessions take chunks in multiples of 256 KiB and live for about a week
+    private static final int CHUNK_GRANULARITY = 256 * 1024;
+    private static final Duration SESSION_LIFETIME = Duration.ofDays(6);
+    private static final int RESUME_INCOMPLETE = 308;
+    private static final int DOWNLOAD_BUFFER_SIZE = 64 * 1024;
+    private static final int TRANSFER_ATTEMPTS = 5;
+    private static final long RETRY_BASE_MILLIS = 1000;
+    private static final long RETRY_MAX_MILLIS = 30_000;
+    private static final String CHANGE_FIELDS =
+            "nextPageToken, newStartPageToken, changes(fileId, removed, file(" + ITEM_FIELDS + ", parents, trashed))";
     
     private Drive driveService;
-    private final reactor.core.scheduler.Scheduler ioScheduler = Schedulers.boundedElastic();
+    private final reactor.core.scheduler.Scheduler ioScheduler;
+    private final Duration pollInterval;
+    private final int chunkSize;
+    private final int downloadConnections;
+    // Open upload sessions by local file and destination, so an interrupted upload can resume,
+    // also after a restart: they are mirrored to PENDING_UPLOADS_FILE like the download journals
+    private final Map<String, PendingUpload> pendingUploads = new ConcurrentHashMap<>();
+    private boolean pendingUploadsLoaded = false;
+
+    public GoogleDriveService(BlockingIoSchedulers blockingIo,
+                              @Value("${flux.io.remote-max-concurrency:16}") int maxConcurrency,
+                              @Value("${flux.remote-watch.poll-interval:15s}") Duration pollInterval,
+                              @Value("${flux.googledrive.chunk-size:8MB}") DataSize chunkSize,
+                              @Value("${flux.googledrive.download-connections:4}") int downloadConnections) {
+        this.ioScheduler = blockingIo.scheduler("googledrive", maxConcurrency);
+        this.pollInterval = pollInterval;
+        this.chunkSize = (int) Math.max(CHUNK_GRANULARITY,
+                Math.min(chunkSize.toBytes(), Integer.MAX_VALUE) / CHUNK_GRANULARITY * CHUNK_GRANULARITY);
+        this.downloadConnections = Math.max(1, downloadConnections);
+    }
 
     @Override
     public Mono<Boolean> connect(String credentialsJson) {
@@ -78,6 +148,10 @@ public class GoogleDriveService implements RemoteFileSystemService {
     public Mono<Boolean> disconnect() {
         return Mono.fromCallable(() -> {
             driveService = null;
+            // Sessions belong to the account; another one cannot use them
+            pendingUploads.clear();
+            pendingUploadsLoaded = true;
+            savePendingUploads();
             return true;
         }).subscribeOn(ioScheduler);
     }
@@ -87,98 +161,310 @@ public class GoogleDriveService implements RemoteFileSystemService {
         return Mono.just(driveService != null);
     }
 
+    /**
+     * Lists a folder page by page, emitting each page as it arrives. The next page is only
+     * requested once the previous one has been consumed, so cancelling stops the paging.
+     */
     @Override
     public Flux<RemoteFileItem> listFiles(String folderId) {
         return Flux.defer(() -> {
-            try {
-                if (driveService == null) {
-                    return Flux.error(new RuntimeException("Not connected to Google Drive"));
-                }
-                
-                String query = folderId == null || folderId.equals("root") 
-                    ? "'root' in parents and trashed = false"
-                    : "'" + folderId + "' in parents and trashed = false";
-                
-                FileList result = driveService.files().list()
+            Drive drive = driveService;
+            if (drive == null) {
+                return Flux.error(new RuntimeException("Not connected to Google Drive"));
+            }
+
+            String parentId = folderId != null ? folderId : "root";
+            String query = "'" + parentId + "' in parents and trashed = false";
+
+            return fetchPage(drive, query, null)
+                    .expand(page -> page.getNextPageToken() != null
+                            ? fetchPage(drive, query, page.getNextPageToken())
+                            : Mono.empty())
+                    .concatMapIterable(page -> page.getFiles() != null ? page.getFiles() : List.<File>of(), 1)
+                    .map(file -> toRemoteFileItem(file, parentId));
+        });
+    }
+
+    private Mono<FileList> fetchPage(Drive drive, String query, String pageToken) {
+        return Mono.fromCallable(() -> drive.files().list()
                         .setQ(query)
                         .setSpaces("drive")
-                        .setFields("files(id, name, mimeType, size, modifiedTime, createdTime)")
-                        .execute();
-                
-                List<File> files = result.getFiles();
-                
-                return Flux.fromIterable(files)
-                        .map(file -> {
-                            boolean isFolder = "application/vnd.google-apps.folder".equals(file.getMimeType());
-                            long size = file.getSize() != null ? file.getSize() : 0;
-                            Instant modified = file.getModifiedTime() != null 
-                                ? Instant.ofEpochMilli(file.getModifiedTime().getValue())
-                                : Instant.now();
-                            
-                            return new RemoteFileItem(
-                                file.getId(),
-                                file.getName(),
-                                isFolder,
-                                size,
-                                modified,
-                                "googledrive",
-                                folderId != null ? folderId : "root"
-                            );
-                        });
-            } catch (Exception e) {
-                return Flux.error(new RuntimeException("Failed to list Google Drive files", e));
+                        .setPageSize(PAGE_SIZE)
+                        .setPageToken(pageToken)
+                        .setFields(LIST_FIELDS)
+                        .execute())
+                .subscribeOn(ioScheduler)
+                .onErrorMap(e -> new RuntimeException("Failed to list Google Drive files", e));
+    }
+
+    private RemoteFileItem toRemoteFileItem(File file, String parentId) {
+        boolean isFolder = FOLDER_MIME_TYPE.equals(file.getMimeType());
+        long size = file.getSize() != null ? file.getSize() : 0;
+        Instant modified = file.getModifiedTime() != null
+            ? Instant.ofEpochMilli(file.getModifiedTime().getValue())
+            : Instant.now();
+
+        return new RemoteFileItem(
+            file.getId(),
+            file.getName(),
+            isFolder,
+            size,
+            modified,
+            "googledrive",
+            parentId,
+            file.getMd5Checksum()
+        );
+    }
+
+    /**
+     * Polls {@code changes.list} from a start token taken at subscription. The feed covers the
+     * whole drive, so a changed file is an upsert when the watched folder is among its parents
+     * and a removal otherwise (deleted, trashed, moved away, or never there).
+     */
+    @Override
+    public Flux<RemoteChange> watchChanges(String folderId) {
+        return Flux.defer(() -> {
+            Drive drive = driveService;
+            if (drive == null) {
+                return Flux.error(new RuntimeException("Not connected to Google Drive"));
             }
-        }).subscribeOn(ioScheduler);
+
+            String parentId = folderId != null ? folderId : "root";
+            AtomicReference<String> pageToken = new AtomicReference<>();
+            return Mono.fromCallable(() -> {
+                        pageToken.set(drive.changes().getStartPageToken().execute().getStartPageToken());
+                        // "root" is only an alias; changed files list the real id among their parents
+                        return parentId.equals("root")
+                                ? drive.files().get("root").setFields("id").execute().getId()
+                                : parentId;
+                    })
+                    .subscribeOn(ioScheduler)
+                    .onErrorMap(e -> new RuntimeException("Failed to watch Google Drive folder", e))
+                    .flatMapMany(resolvedId -> Flux.interval(pollInterval)
+                            .onBackpressureDrop()
+                            .concatMap(tick -> pollChanges(drive, pageToken, resolvedId, parentId), 1)
+                            .concatMapIterable(changes -> changes, 1));
+        });
     }
 
+    private Mono<List<RemoteChange>> pollChanges(Drive drive, AtomicReference<String> pageToken,
+                                                 String resolvedId, String parentId) {
+        return Mono.fromCallable(() -> {
+                    List<RemoteChange> changes = new ArrayList<>();
+                    String token = pageToken.get();
+                    while (token != null) {
+                        ChangeList page = drive.changes().list(token)
+                                .setSpaces("drive")
+                                .setPageSize(PAGE_SIZE)
+                                .setFields(CHANGE_FIELDS)
+                                .execute();
+                        for (Change change : page.getChanges()) {
+                            if (change.getFileId() == null) continue;
+                            File file = change.getFile();
+                            boolean here = !Boolean.TRUE.equals(change.getRemoved())
+                                    && file != null
+                                    && !Boolean.TRUE.equals(file.getTrashed())
+                                    && file.getParents() != null
+                                    && file.getParents().contains(resolvedId);
+                            changes.add(here
+                                    ? RemoteChange.upserted(toRemoteFileItem(file, parentId))
+                                    : RemoteChange.removed(change.getFileId()));
+                        }
+                        if (page.getNewStartPageToken() != null) {
+                            // Only advanced once the whole batch is read; a failed poll is simply repeated
+                            pageToken.set(page.getNewStartPageToken());
+                            break;
+                        }
+                        token = page.getNextPageToken();
+                    }
+                    return changes;
+                })
+                .subscribeOn(ioScheduler)
+                .onErrorMap(e -> new RuntimeException("Failed to poll Google Drive changes", e));
+    }
+
+    /**
+     * Small files (and Google documents, which have no size) are fetched in one stream; larger
+     * ones are fetched as ranges.
+     */
     @Override
-    public Mono<Void> downloadFile(String fileId, Path localDestination) {
-        return Mono.fromRunnable(() -> {
+    public Mono<Void> downloadFile(String fileId, Path localDestination, OperationProgress progress) {
+        return Mono.defer(() -> {
+                    Drive drive = driveService;
+                    if (drive == null) {
+                        return Mono.error(new RuntimeException("Not connected to Google Drive"));
+                    }
+                    return blocking(() -> drive.files().get(fileId).setFields("id, size, modifiedTime").execute())
+                            .flatMap(metadata -> metadata.getSize() == null || metadata.getSize() <= chunkSize
+                                    ? blocking(() -> {
+                                        progress.checkpoint();
+                                        try (OutputStream outputStream = Files.newOutputStream(localDestination)) {
+                                            drive.files().get(fileId).executeMediaAndDownloadTo(outputStream);
+                                        }
+                                        progress.addBytes(Files.size(localDestination));
+                                        return localDestination;
+                                    }).then()
+                                    : rangedDownload(drive, metadata, localDestination, progress));
+                })
+                .onErrorMap(e -> !(e instanceof CancellationException),
+                        e -> new RuntimeException("Failed to download file from Google Drive", e));
+    }
+
+    /**
+     * Fetches {@code chunkSize} ranges over several connections into a preallocated
+     * {@code .part} file beside the destination. Finished ranges are journalled next to it, so
+     * downloading the same unchanged file again only fetches what is missing. The part file
+     * replaces the destination once complete.
+     */
+    private Mono<Void> rangedDownload(Drive drive, File metadata, Path destination, OperationProgress progress) {
+        long size = metadata.getSize();
+        int chunks = (int) ((size + chunkSize - 1) / chunkSize);
+        Path part = destination.resolveSibling(destination.getFileName() + ".part");
+        Path journal = destination.resolveSibling(destination.getFileName() + ".part.ranges");
+        String version = metadata.getId() + " " + size + " " + metadata.getModifiedTime();
+
+        return blocking(() -> openPartFile(part, journal, version, size))
+                .flatMap(done -> {
+                    for (int chunk : done) {
+                        progress.addBytes(rangeLength(chunk, size));
+                    }
+                    if (!done.isEmpty()) {
+                        log.debug("Resuming download of {}: {} of {} ranges present", destination, done.size(), chunks);
+                    }
+                    return Mono.using(
+                            () -> FileChannel.open(part, StandardOpenOption.WRITE),
+                            channel -> Flux.range(0, chunks)
+                                    .filter(chunk -> !done.contains(chunk))
+                                    .flatMap(chunk -> blocking(() -> {
+                                        long start = (long) chunk * chunkSize;
+                                        downloadRange(drive, metadata.getId(), channel, start, start + rangeLength(chunk, size) - 1, progress);
+                                        channel.force(false);
+                                        // Journalled only once on disk, so a crash never skips missing bytes
+                                        synchronized (done) {
+                                            Files.writeString(journal, chunk + "\n", StandardOpenOption.APPEND);
+                                        }
+                                        return chunk;
+                                    }), downloadConnections)
+                                    .then(),
+                            channel -> {
+                                try {
+                                    channel.close();
+                                } catch (IOException e) {
+                                    log.debug("Failed to close {}: {}", part, e.getMessage());
+                                }
+                            });
+                })
+                .then(blocking(() -> {
+                    Files.move(part, destination, StandardCopyOption.REPLACE_EXISTING);
+                    Files.deleteIfExists(journal);
+                    return destination;
+                }))
+                .then();
+    }
+
+    // Ranges already on disk from an earlier attempt at the same version, or none after preallocating
+    private Set<Integer> openPartFile(Path part, Path journal, String version, long size) throws IOException {
+        Set<Integer> done = new HashSet<>();
+        if (Files.exists(part) && Files.exists(journal) && Files.size(part) == size) {
+            List<String> lines = Files.readAllLines(journal);
+            if (!lines.isEmpty() && lines.get(0).equals(version)) {
+                for (String line : lines.subList(1, lines.size())) {
+                    try {
+                        done.add(Integer.parseInt(line.trim()));
+                    } catch (NumberFormatException e) {
+                        // A line cut short by a crash; that range is fetched again
+                    }
+                }
+                return done;
+            }
+        }
+        try (RandomAccessFile file = new RandomAccessFile(part.toFile(), "rw")) {
+            file.setLength(size);
+        }
+        Files.writeString(journal, version + "\n");
+        return done;
+    }
+
+    private long rangeLength(int chunk, long size) {
+        return Math.min(chunkSize, size - (long) chunk * chunkSize);
+    }
+
+    private void downloadRange(Drive drive, String fileId, FileChannel channel, long start, long end,
+                               OperationProgress progress) throws IOException {
+        byte[] buffer = new byte[DOWNLOAD_BUFFER_SIZE];
+        for (int attempt = 1; ; attempt++) {
+            long written = 0;
             try {
-                if (driveService == null) {
-                    throw new RuntimeException("Not connected to Google Drive");
+                Drive.Files.Get get = drive.files().get(fileId);
+                get.getRequestHeaders().setRange("bytes=" + start + "-" + end);
+                try (InputStream in = get.executeMediaAsInputStream()) {
+                    int read;
+                    while ((read = in.read(buffer)) != -1) {
+                        progress.checkpoint();
+                        ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+                        while (chunk.hasRemaining()) {
+                            written += channel.write(chunk, start + written);
+                        }
+                        progress.addBytes(read);
+                    }
                 }
-                
-                OutputStream outputStream = Files.newOutputStream(localDestination);
-                driveService.files().get(fileId)
-                        .executeMediaAndDownloadTo(outputStream);
-                outputStream.close();
-                
-            } catch (Exception e) {
-                throw new RuntimeException("Failed to download file from Google Drive", e);
+                if (written != end - start + 1) {
+                    throw new EOFException("Range " + start + "-" + end + " ended after " + written + " bytes");
+                }
+                return;
+            } catch (IOException e) {
+                progress.addBytes(-written);
+                if (attempt >= TRANSFER_ATTEMPTS || !retryable(e)) throw e;
+                backOff(attempt);
             }
-        }).subscribeOn(ioScheduler).then();
+        }
     }
 
     @Override
-    public Mono<Void> uploadFile(Path localFile, String parentFolderId) {
-        return Mono.fromRunnable(() -> {
+    public Mono<RemoteFileItem> uploadFile(Path localFile, String remoteDestination, OperationProgress progress) {
+        return Mono.fromCallable(() -> {
+            progress.checkpoint();
             try {
                 if (driveService == null) {
                     throw new RuntimeException("Not connected to Google Drive");
                 }
-                
+
+                String parentId = parentOf(remoteDestination);
                 File fileMetadata = new File();
-                fileMetadata.setName(localFile.getFileName().toString());
-                if (parentFolderId != null && !parentFolderId.equals("root")) {
-                    fileMetadata.setParents(Collections.singletonList(parentFolderId));
+                fileMetadata.setName(nameOf(remoteDestination));
+                if (!parentId.equals("root")) {
+                    fileMetadata.setParents(Collections.singletonList(parentId));
                 }
-                
+
                 String mimeType = Files.probeContentType(localFile);
                 if (mimeType == null) {
                     mimeType = "application/octet-stream";
                 }
-                
-                FileContent mediaContent = new FileContent(mimeType, localFile.toFile());
-                
-                driveService.files().create(fileMetadata, mediaContent)
-                        .setFields("id, name")
-                        .execute();
-                
+
+                long size = Files.size(localFile);
+                File created;
+                if (size <= chunkSize) {
+                    created = driveService.files().create(fileMetadata, new FileContent(mimeType, localFile.toFile()))
+                            .setFields(ITEM_FIELDS)
+                            .execute();
+                    progress.addBytes(size);
+                } else {
+                    created = resumableUpload(driveService, fileMetadata, mimeType, localFile,
+                            localFile.toAbsolutePath() + " -> " + remoteDestination, size, progress);
+                }
+                return toRemoteFileItem(created, parentId);
+
+            } catch (CancellationException e) {
+                throw e;
             } catch (Exception e) {
                 throw new RuntimeException("Failed to upload file to Google Drive", e);
             }
-        }).subscribeOn(ioScheduler).then();
+        }).subscribeOn(ioScheduler);
+    }
+
+    @Override
+    public String localContentHash(Path localFile) throws IOException {
+        return RemoteContentHashes.md5(localFile);
     }
 
     @Override
@@ -196,25 +482,251 @@ public class GoogleDriveService implements RemoteFileSystemService {
     }
 
     @Override
-    public Mono<Void> createDirectory(String folderName) {
-        return Mono.fromRunnable(() -> {
+    public Mono<RemoteFileItem> createDirectory(String remotePath) {
+        return Mono.fromCallable(() -> {
             try {
                 if (driveService == null) {
                     throw new RuntimeException("Not connected to Google Drive");
                 }
-                
+
+                String parentId = parentOf(remotePath);
                 File fileMetadata = new File();
-                fileMetadata.setName(folderName);
-                fileMetadata.setMimeType("application/vnd.google-apps.folder");
-                
-                driveService.files().create(fileMetadata)
-                        .setFields("id, name")
+                fileMetadata.setName(nameOf(remotePath));
+                fileMetadata.setMimeType(FOLDER_MIME_TYPE);
+                if (!parentId.equals("root")) {
+                    fileMetadata.setParents(Collections.singletonList(parentId));
+                }
+
+                File created = driveService.files().create(fileMetadata)
+                        .setFields(ITEM_FIELDS)
                         .execute();
-                
+                return toRemoteFileItem(created, parentId);
+
             } catch (Exception e) {
                 throw new RuntimeException("Failed to create folder in Google Drive", e);
             }
-        }).subscribeOn(ioScheduler).then();
+        }).subscribeOn(ioScheduler);
+    }
+
+    /**
+     * Upload through a resumable session, {@code chunkSize} at a time from one reused buffer.
+     * A chunk that fails is retried from wherever the session says it got to. If the upload
+     * still fails or is cancelled, the session is kept, on disk too: uploading the same unchanged
+     * file to the same place again, even after a restart, continues from the last byte Drive has.
+     */
+    private File resumableUpload(Drive drive, File metadata, String mimeType, Path localFile, String key, long size,
+                                 OperationProgress progress) throws IOException {
+        long modified = Files.getLastModifiedTime(localFile).toMillis();
+        loadPendingUploads();
+        if (pendingUploads.values().removeIf(pending -> pending.started().isBefore(Instant.now().minus(SESSION_LIFETIME)))) {
+            savePendingUploads();
+        }
+
+        PendingUpload pending = pendingUploads.get(key);
+        long offset = -1;
+        if (pending != null && pending.size() == size && pending.modified() == modified) {
+            offset = committedOffset(drive, pending.sessionUri(), size);
+        }
+        if (offset < 0) {
+            pending = new PendingUpload(startSession(drive, metadata, mimeType, size), size, modified, Instant.now());
+            pendingUploads.put(key, pending);
+            savePendingUploads();
+            offset = 0;
+        } else {
+            log.debug("Resuming Google Drive upload of {} at byte {}", localFile, offset);
+        }
+        progress.addBytes(offset);
+
+        byte[] buffer = new byte[chunkSize];
+        int failures = 0;
+        try (FileChannel channel = FileChannel.open(localFile, StandardOpenOption.READ)) {
+            while (true) {
+                progress.checkpoint();
+                int length = (int) Math.min(buffer.length, size - offset);
+                readFully(channel, buffer, offset, length);
+
+                HttpRequest request = drive.getRequestFactory().buildPutRequest(
+                        new GenericUrl(pending.sessionUri()), new ByteArrayContent(null, buffer, 0, length));
+                request.getHeaders().setContentRange("bytes " + offset + "-" + (offset + length - 1) + "/" + size);
+                HttpResponse response;
+                try {
+                    response = sessionRequest(request);
+                } catch (IOException e) {
+                    if (++failures >= TRANSFER_ATTEMPTS || !retryable(e)) throw e;
+                    backOff(failures);
+                    long committed = committedOffset(drive, pending.sessionUri(), size);
+                    if (committed < 0) throw e;
+                    progress.addBytes(committed - offset);
+                    offset = committed;
+                    continue;
+                }
+                failures = 0;
+
+                try {
+                    if (response.getStatusCode() == RESUME_INCOMPLETE) {
+                        long next = nextOffset(response);
+                        progress.addBytes(next - offset);
+                        offset = next;
+                    } else {
+                        progress.addBytes(size - offset);
+                        pendingUploads.remove(key);
+                        savePendingUploads();
+                        return response.parseAs(File.class);
+                    }
+                } finally {
+                    response.disconnect();
+                }
+            }
+        }
+    }
+
+    // Once per process; an unreadable file only costs the chance to resume
+    private synchronized void loadPendingUploads() {
+        if (pendingUploadsLoaded) {
+            return;
+        }
+        pendingUploadsLoaded = true;
+        if (!Files.exists(PENDING_UPLOADS_FILE)) {
+            return;
+        }
+        Properties stored = new Properties();
+        try (InputStream in = Files.newInputStream(PENDING_UPLOADS_FILE)) {
+            stored.load(in);
+            for (String key : stored.stringPropertyNames()) {
+                // size;modified;started;sessionUri - the URI goes last, it may contain anything
+                String[] fields = stored.getProperty(key).split(";", 4);
+                if (fields.length == 4) {
+                    pendingUploads.putIfAbsent(key, new PendingUpload(fields[3], Long.parseLong(fields[0]),
+                            Long.parseLong(fields[1]), Instant.ofEpochMilli(Long.parseLong(fields[2]))));
+                }
+            }
+            log.debug("Loaded {} pending Google Drive upload(s)", pendingUploads.size());
+        } catch (IOException | NumberFormatException e) {
+            log.warn("Could not read pending Google Drive uploads: {}", e.getMessage());
+        }
+    }
+
+    // Written to a temporary file and moved into place, so a crash never leaves half a file
+    private synchronized void savePendingUploads() {
+        Properties stored = new Properties();
+        pendingUploads.forEach((key, pending) -> stored.setProperty(key, pending.size() + ";" + pending.modified()
+                + ";" + pending.started().toEpochMilli() + ";" + pending.sessionUri()));
+        try {
+            if (stored.isEmpty()) {
+                Files.deleteIfExists(PENDING_UPLOADS_FILE);
+                return;
+            }
+            Files.createDirectories(PENDING_UPLOADS_FILE.getParent());
+            Path temporary = PENDING_UPLOADS_FILE.resolveSibling(PENDING_UPLOADS_FILE.getFileName() + ".tmp");
+            try (OutputStream out = Files.newOutputStream(temporary)) {
+                stored.store(out, "Resumable Google Drive upload sessions");
+            }
+            Files.move(temporary, PENDING_UPLOADS_FILE, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Could not save pending Google Drive uploads: {}", e.getMessage());
+        }
+    }
+
+    private String startSession(Drive drive, File metadata, String mimeType, long size) throws IOException {
+        GenericUrl url = new GenericUrl(UPLOAD_URL);
+        url.set("uploadType", "resumable");
+        url.set("fields", ITEM_FIELDS);
+        HttpRequest request = drive.getRequestFactory().buildPostRequest(url, new JsonHttpContent(JSON_FACTORY, metadata));
+        request.getHeaders().set("X-Upload-Content-Type", mimeType);
+        request.getHeaders().set("X-Upload-Content-Length", size);
+        HttpResponse response = request.execute();
+        try {
+            String location = response.getHeaders().getLocation();
+            if (location == null) {
+                throw new IOException("Google Drive did not return an upload session");
+            }
+            return location;
+        } finally {
+            response.disconnect();
+        }
+    }
+
+    // Where an existing session continues, or -1 if it is gone (or already finished)
+    private long committedOffset(Drive drive, String sessionUri, long size) {
+        try {
+            HttpRequest request = drive.getRequestFactory().buildPutRequest(
+                    new GenericUrl(sessionUri), new ByteArrayContent(null, new byte[0]));
+            request.getHeaders().setContentRange("bytes */" + size);
+            HttpResponse response = sessionRequest(request);
+            try {
+                return response.getStatusCode() == RESUME_INCOMPLETE ? nextOffset(response) : -1;
+            } finally {
+                response.disconnect();
+            }
+        } catch (IOException e) {
+            log.debug("Could not query Google Drive upload session: {}", e.getMessage());
+            return -1;
+        }
+    }
+
+    // 308 is how a session says "more please"; it is not a redirect
+    private HttpResponse sessionRequest(HttpRequest request) throws IOException {
+        request.setFollowRedirects(false);
+        request.setThrowExceptionOnExecuteError(false);
+        request.setParser(JSON_FACTORY.createJsonObjectParser());
+        HttpResponse response = request.execute();
+        int code = response.getStatusCode();
+        if (code == RESUME_INCOMPLETE || code == 200 || code == 201) {
+            return response;
+        }
+        try {
+            throw new HttpResponseException(response);
+        } finally {
+            response.disconnect();
+        }
+    }
+
+    // Range: bytes=0-N means everything up to N is stored; no header means nothing is
+    private long nextOffset(HttpResponse response) {
+        String range = response.getHeaders().getRange();
+        if (range == null) {
+            return 0;
+        }
+        return Long.parseLong(range.substring(range.indexOf('-') + 1).trim()) + 1;
+    }
+
+    private boolean retryable(IOException e) {
+        if (e instanceof HttpResponseException http) {
+            return http.getStatusCode() == 429 || http.getStatusCode() >= 500;
+        }
+        return true;
+    }
+
+    private void backOff(int attempt) throws InterruptedIOException {
+        try {
+            Thread.sleep(Math.min(RETRY_BASE_MILLIS << (attempt - 1), RETRY_MAX_MILLIS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while retrying a Google Drive transfer");
+        }
+    }
+
+    private void readFully(FileChannel channel, byte[] buffer, long position, int length) throws IOException {
+        ByteBuffer target = ByteBuffer.wrap(buffer, 0, length);
+        while (target.hasRemaining()) {
+            if (channel.read(target, position + target.position()) < 0) {
+                throw new EOFException("File shrank while uploading");
+            }
+        }
+    }
+
+    private <T> Mono<T> blocking(Callable<T> call) {
+        return Mono.fromCallable(call).subscribeOn(ioScheduler);
+    }
+
+    // "folderId/name" from the browser, or a bare name for the root
+    private String parentOf(String remotePath) {
+        int slash = remotePath.lastIndexOf('/');
+        return slash > 0 ? remotePath.substring(0, slash) : "root";
+    }
+
+    private String nameOf(String remotePath) {
+        return remotePath.substring(remotePath.lastIndexOf('/') + 1);
     }
 
     @Override
@@ -262,4 +774,15 @@ public class GoogleDriveService implements RemoteFileSystemService {
     public String getServiceName() {
         return "Google Drive";
     }
-}
\ No newline at end of file
+
+    /**
+     * A resumable upload that has not finished.
+     *
+     * @param sessionUri where chunks and status queries go
+     * @param size       size of the local file when the session was created
+     * @param modified   its modification time then; a changed file starts a new session
+     * @param started    when the session was created
+     */
+    private record PendingUpload(String sessionUri, long size, long modified, Instant started) {
+    }
+}
@@ -2,30 +2,91 @@ package io.nomard.flux_file.infrastructure.service.remote.onedrive;
 
 import com.azure.identity.InteractiveBrowserCredential;
 import com.azure.identity.InteractiveBrowserCredentialBuilder;
+import com.google.gson.JsonPrimitive;
 import com.microsoft.graph.authentication.TokenCredentialAuthProvider;
+import com.microsoft.graph.http.GraphServiceException;
 import com.microsoft.graph.models.DriveItem;
+import com.microsoft.graph.models.DriveItemCreateUploadSessionParameterSet;
+import com.microsoft.graph.models.DriveItemDeltaParameterSet;
+import com.microsoft.graph.models.DriveItemUploadableProperties;
+import com.microsoft.graph.models.UploadSession;
 import com.microsoft.graph.requests.DriveItemCollectionPage;
+import com.microsoft.graph.requests.DriveItemCollectionRequest;
+import com.microsoft.graph.requests.DriveItemCollectionRequestBuilder;
+import com.microsoft.graph.requests.DriveItemDeltaCollectionPage;
+import com.microsoft.graph.requests.DriveItemDeltaCollectionRequestBuilder;
+import com.microsoft.graph.requests.DriveItemRequestBuilder;
 import com.microsoft.graph.requests.GraphServiceClient;
+import io.nomard.flux_file.core.domain.model.RemoteChange;
 import io.nomard.flux_file.core.domain.model.RemoteFileItem;
+import io.nomard.flux_file.infrastructure.service.io.BlockingIoSchedulers;
+import io.nomard.flux_file.infrastructure.service.operation.OperationProgress;
+import io.nomard.flux_file.infrastructure.service.remote.RemoteContentHashes;
 import io.nomard.flux_file.infrastructure.service.remote.RemoteFileSystemService;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
 
-import java.io.FileInputStream;
+import java.io.EOFException;
 import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
 import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
 
+@Slf4j
 @Service
 public class OneDriveService implements RemoteFileSystemService {
 
     private static final List<String> SCOPES = List.of("Files.ReadWrite.All", "User.Read");
-    private final reactor.core.scheduler.Scheduler ioScheduler = Schedulers.boundedElastic();
+    // Large pages with only the fields RemoteFileItem uses; nextLink keeps both for later pages
+    private static final int PAGE_SIZE = 999;
+    private static final String LIST_FIELDS = "id,name,size,folder,file,lastModifiedDateTime";
+    private static final String DELTA_FIELDS = LIST_FIELDS + ",parentReference,deleted";
+    private static final int GONE = 410;
+    // Graph's guidance: simple uploads up to 4 MiB, upload sessions above
+    private static final long SIMPLE_UPLOAD_LIMIT = 4L * 1024 * 1024;
+    // Session chunks must be multiples of 320 KiB; 32 of them is 10 MiB
+    private static final int UPLOAD_CHUNK_SIZE = 32 * 320 * 1024;
+    private static final int CHUNK_ATTEMPTS = 5;
+    private static final long CHUNK_RETRY_BASE_MILLIS = 1000;
+    private static final long CHUNK_RETRY_MAX_MILLIS = 30_000;
+    private final reactor.core.scheduler.Scheduler ioScheduler;
+    private final Duration pollInterval;
     private GraphServiceClient<okhttp3.Request> graphClient;
+    // Plain client for upload session URLs, which must not get the Graph auth header
+    private final OkHttpClient uploadHttp = new OkHttpClient.Builder()
+            .writeTimeout(Duration.ofMinutes(2))
+            .readTimeout(Duration.ofMinutes(2))
+            .build();
+    // Open upload sessions by local file and destination, so an interrupted upload can resume
+    private final Map<String, PendingUpload> pendingUploads = new ConcurrentHashMap<>();
+
+    public OneDriveService(BlockingIoSchedulers blockingIo,
+                           @Value("${flux.io.remote-max-concurrency:16}") int maxConcurrency,
+                           @Value("${flux.remote-watch.poll-interval:15s}") Duration pollInterval) {
+        this.ioScheduler = blockingIo.scheduler("onedrive", maxConcurrency);
+        this.pollInterval = pollInterval;
+    }
 
     @Override
     public Mono<Boolean> connect(String clientId) {
@@ -53,6 +114,7 @@ public class OneDriveService implements RemoteFileSystemService {
     public Mono<Boolean> disconnect() {
         return Mono.fromCallable(() -> {
             graphClient = null;
+            pendingUploads.clear();
             return true;
         }).subscribeOn(ioScheduler);
     }
@@ -62,52 +124,137 @@ public class OneDriveService implements RemoteFileSystemService {
         return Mono.just(graphClient != null);
     }
 
+    /**
+     * Lists a folder by following the Graph page chain. Each page is emitted as soon as it is
+     * parsed and the next one is only fetched once it has been consumed, so cancelling stops
+     * the paging.
+     */
     @Override
     public Flux<RemoteFileItem> listFiles(String folderId) {
         return Flux.defer(() -> {
-            try {
-                if (graphClient == null) {
-                    return Flux.error(new RuntimeException("Not connected to OneDrive"));
-                }
+            GraphServiceClient<okhttp3.Request> client = graphClient;
+            if (client == null) {
+                return Flux.error(new RuntimeException("Not connected to OneDrive"));
+            }
 
-                DriveItemCollectionPage itemsPage;
-                if (folderId == null || folderId.equals("root")) {
-                    itemsPage = graphClient.me().drive().root().children()
-                            .buildRequest()
-                            .get();
-                } else {
-                    itemsPage = graphClient.me().drive().items(folderId).children()
-                            .buildRequest()
-                            .get();
-                }
+            String parentId = folderId != null ? folderId : "root";
+            DriveItemCollectionRequestBuilder children = parentId.equals("root")
+                    ? client.me().drive().root().children()
+                    : client.me().drive().items(parentId).children();
+
+            return fetchPage(children.buildRequest().top(PAGE_SIZE).select(LIST_FIELDS))
+                    .expand(page -> page.getNextPage() != null
+                            ? fetchPage(page.getNextPage().buildRequest())
+                            : Mono.empty())
+                    .concatMapIterable(DriveItemCollectionPage::getCurrentPage, 1)
+                    .map(item -> toRemoteFileItem(item, parentId));
+        });
+    }
 
-                return Flux.fromIterable(Objects.requireNonNull(itemsPage).getCurrentPage())
-                        .map(item -> {
-                            boolean isFolder = item.folder != null;
-                            long size = item.size != null ? item.size : 0;
-                            Instant modified = item.lastModifiedDateTime != null
-                                    ? item.lastModifiedDateTime.toInstant()
-                                    : Instant.now();
-
-                            return new RemoteFileItem(
-                                    item.id,
-                                    item.name,
-                                    isFolder,
-                                    size,
-                                    modified,
-                                    "onedrive",
-                                    folderId != null ? folderId : "root"
-                            );
-                        });
-            } catch (Exception e) {
-                return Flux.error(new RuntimeException("Failed to list OneDrive files", e));
+    private Mono<DriveItemCollectionPage> fetchPage(DriveItemCollectionRequest request) {
+        return Mono.fromCallable(() -> Objects.requireNonNull(request.get()))
+                .subscribeOn(ioScheduler)
+                .onErrorMap(e -> new RuntimeException("Failed to list OneDrive files", e));
+    }
+
+    private RemoteFileItem toRemoteFileItem(DriveItem item, String parentId) {
+        boolean isFolder = item.folder != null;
+        long size = item.size != null ? item.size : 0;
+        Instant modified = item.lastModifiedDateTime != null
+                ? item.lastModifiedDateTime.toInstant()
+                : Instant.now();
+
+        return new RemoteFileItem(
+                item.id,
+                item.name,
+                isFolder,
+                size,
+                modified,
+                "onedrive",
+                parentId,
+                item.file != null && item.file.hashes != null ? item.file.hashes.quickXorHash : null
+        );
+    }
+
+    /**
+     * Polls the drive's {@code /delta} from a link taken at subscription. Delta covers the whole
+     * drive, so a changed item is an upsert when its parent is the watched folder and a removal
+     * otherwise. An expired link (410) restarts the feed and asks for a fresh listing.
+     */
+    @Override
+    public Flux<RemoteChange> watchChanges(String folderId) {
+        return Flux.defer(() -> {
+            GraphServiceClient<okhttp3.Request> client = graphClient;
+            if (client == null) {
+                return Flux.error(new RuntimeException("Not connected to OneDrive"));
             }
-        }).subscribeOn(ioScheduler);
+
+            String parentId = folderId != null ? folderId : "root";
+            AtomicReference<String> deltaLink = new AtomicReference<>();
+            return Mono.fromCallable(() -> {
+                        deltaLink.set(latestDeltaLink(client));
+                        // Changed items name their parent by id, never by the "root" alias
+                        return parentId.equals("root")
+                                ? Objects.requireNonNull(client.me().drive().root().buildRequest().select("id").get()).id
+                                : parentId;
+                    })
+                    .subscribeOn(ioScheduler)
+                    .onErrorMap(e -> new RuntimeException("Failed to watch OneDrive folder", e))
+                    .flatMapMany(resolvedId -> Flux.interval(pollInterval)
+                            .onBackpressureDrop()
+                            .concatMap(tick -> pollDelta(client, deltaLink, resolvedId, parentId), 1)
+                            .concatMapIterable(changes -> changes, 1));
+        });
+    }
+
+    // token=latest skips enumerating the whole drive and only returns a link for what comes next
+    private String latestDeltaLink(GraphServiceClient<okhttp3.Request> client) {
+        DriveItemDeltaCollectionPage page = client.me().drive().root()
+                .delta(DriveItemDeltaParameterSet.newBuilder().withToken("latest").build())
+                .buildRequest()
+                .select(DELTA_FIELDS)
+                .get();
+        return Objects.requireNonNull(page).deltaLink();
+    }
+
+    private Mono<List<RemoteChange>> pollDelta(GraphServiceClient<okhttp3.Request> client, AtomicReference<String> deltaLink,
+                                               String resolvedId, String parentId) {
+        return Mono.fromCallable(() -> {
+                    List<RemoteChange> changes = new ArrayList<>();
+                    DriveItemDeltaCollectionRequestBuilder next =
+                            new DriveItemDeltaCollectionRequestBuilder(deltaLink.get(), client, List.of());
+                    try {
+                        while (next != null) {
+                            DriveItemDeltaCollectionPage page = Objects.requireNonNull(next.buildRequest().get());
+                            for (DriveItem item : page.getCurrentPage()) {
+                                boolean here = item.deleted == null
+                                        && item.parentReference != null
+                                        && resolvedId.equals(item.parentReference.id);
+                                changes.add(here
+                                        ? RemoteChange.upserted(toRemoteFileItem(item, parentId))
+                                        : RemoteChange.removed(item.id));
+                            }
+                            if (page.deltaLink() != null) {
+                                deltaLink.set(page.deltaLink());
+                                break;
+                            }
+                            next = page.getNextPage();
+                        }
+                    } catch (GraphServiceException e) {
+                        if (e.getResponseCode() != GONE) throw e;
+                        deltaLink.set(latestDeltaLink(client));
+                        return List.of(RemoteChange.reset());
+                    }
+                    return changes;
+                })
+                .subscribeOn(ioScheduler)
+                .onErrorMap(e -> new RuntimeException("Failed to poll OneDrive changes", e));
     }
 
     @Override
-    public Mono<Void> downloadFile(String fileId, Path localDestination) {
+    public Mono<Void> downloadFile(String fileId, Path localDestination, OperationProgress progress) {
         return Mono.fromRunnable(() -> {
+            progress.checkpoint();
             try {
                 if (graphClient == null) {
                     throw new RuntimeException("Not connected to OneDrive");
@@ -125,6 +272,7 @@ public class OneDriveService implements RemoteFileSystemService {
                 }
                 outputStream.close();
                 inputStream.close();
+                progress.addBytes(Files.size(localDestination));
 
             } catch (Exception e) {
                 throw new RuntimeException("Failed to download file from OneDrive", e);
@@ -132,36 +280,220 @@ public class OneDriveService implements RemoteFileSystemService {
         }).subscribeOn(ioScheduler).then();
     }
 
+    /**
+     * Small files are sent in one request. Larger ones go through a Graph upload session,
+     * streamed from disk one chunk at a time through a single reused buffer, so memory does
+     * not grow with the file.
+     */
     @Override
-    public Mono<Void> uploadFile(Path localFile, String parentFolderId) {
-        return Mono.fromRunnable(() -> {
+    public Mono<RemoteFileItem> uploadFile(Path localFile, String remoteDestination, OperationProgress progress) {
+        return Mono.fromCallable(() -> {
+            if (graphClient == null) {
+                throw new RuntimeException("Not connected to OneDrive");
+            }
+            GraphServiceClient<okhttp3.Request> client = graphClient;
+            String parentId = parentOf(remoteDestination);
             try {
-                if (graphClient == null) {
-                    throw new RuntimeException("Not connected to OneDrive");
+                DriveItemRequestBuilder target = (parentId.equals("root")
+                        ? client.me().drive().root()
+                        : client.me().drive().items(parentId))
+                        .itemWithPath(nameOf(remoteDestination));
+                long size = Files.size(localFile);
+                progress.checkpoint();
+
+                DriveItem created;
+                if (size <= SIMPLE_UPLOAD_LIMIT) {
+                    created = target.content().buildRequest().put(Files.readAllBytes(localFile));
+                    progress.addBytes(size);
+                } else {
+                    created = sessionUpload(client, target, localFile, localFile.toAbsolutePath() + " -> " + remoteDestination,
+                            size, progress);
                 }
+                return toRemoteFileItem(Objects.requireNonNull(created), parentId);
 
-                FileInputStream fileStream = new FileInputStream(localFile.toFile());
+            } catch (CancellationException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new RuntimeException("Failed to upload file to OneDrive", e);
+            }
+        }).subscribeOn(ioScheduler);
+    }
 
-                if (parentFolderId == null || parentFolderId.equals("root")) {
-                    graphClient.me().drive().root()
-                            .itemWithPath(localFile.getFileName().toString())
-                            .content()
-                            .buildRequest()
-                            .put(fileStream.readAllBytes());
-                } else {
-                    graphClient.me().drive().items(parentFolderId)
-                            .itemWithPath(localFile.getFileName().toString())
-                            .content()
-                            .buildRequest()
-                            .put(fileStream.readAllBytes());
+    /**
+     * Upload through a session, chunk by chunk. Each chunk is retried on its own. If the upload
+     * still fails or is cancelled, the session is kept: uploading the same unchanged file to the
+     * same place again continues from the range the server expects next.
+     */
+    private DriveItem sessionUpload(GraphServiceClient<okhttp3.Request> client, DriveItemRequestBuilder target,
+                                    Path localFile, String key, long size, OperationProgress progress) throws IOException {
+        long modified = Files.getLastModifiedTime(localFile).toMillis();
+        pendingUploads.values().removeIf(pending -> pending.expires().isBefore(OffsetDateTime.now()));
+
+        PendingUpload pending = pendingUploads.get(key);
+        long offset = -1;
+        if (pending != null && pending.size() == size && pending.modified() == modified) {
+            offset = committedOffset(client, pending.uploadUrl());
+        }
+        if (offset < 0) {
+            DriveItemUploadableProperties properties = new DriveItemUploadableProperties();
+            // Same as the simple upload: an existing file is overwritten
+            properties.additionalDataManager().put("@microsoft.graph.conflictBehavior", new JsonPrimitive("replace"));
+            UploadSession session = Objects.requireNonNull(target
+                    .createUploadSession(DriveItemCreateUploadSessionParameterSet.newBuilder().withItem(properties).build())
+                    .buildRequest()
+                    .post());
+            pending = new PendingUpload(session.uploadUrl, size, modified,
+                    session.expirationDateTime != null ? session.expirationDateTime : OffsetDateTime.now().plusHours(1));
+            pendingUploads.put(key, pending);
+            offset = 0;
+        } else {
+            log.debug("Resuming OneDrive upload of {} at byte {}", localFile, offset);
+        }
+        progress.addBytes(offset);
+
+        byte[] buffer = new byte[UPLOAD_CHUNK_SIZE];
+        try (FileChannel channel = FileChannel.open(localFile, StandardOpenOption.READ)) {
+            while (true) {
+                progress.checkpoint();
+                int length = (int) Math.min(buffer.length, size - offset);
+                readFully(channel, buffer, offset, length);
+                ChunkResult result = putChunk(client, pending.uploadUrl(), buffer, offset, length, size);
+                if (result == null) {
+                    result = alreadyReceived(client, target, pending.uploadUrl(), offset, length, size);
                 }
+                progress.addBytes(result.nextOffset() - offset);
+                if (result.item() != null) {
+                    pendingUploads.remove(key);
+                    return result.item();
+                }
+                offset = result.nextOffset();
+            }
+        }
+    }
 
-                fileStream.close();
+    /**
+     * Send one chunk, retrying transient failures.
+     *
+     * @return the outcome, or {@code null} if Graph answered 416: the range was already received,
+     * typically because an earlier attempt reached the server but its response was lost
+     */
+    private ChunkResult putChunk(GraphServiceClient<okhttp3.Request> client, String uploadUrl, byte[] buffer,
+                                 long offset, int length, long size) throws IOException {
+        // The upload URL is pre-authenticated; Graph rejects chunks that carry a bearer token
+        Request request = new Request.Builder()
+                .url(uploadUrl)
+                .header("Content-Range", "bytes " + offset + "-" + (offset + length - 1) + "/" + size)
+                .put(RequestBody.create(buffer, null, 0, length))
+                .build();
+
+        IOException failure = null;
+        for (int attempt = 1; attempt <= CHUNK_ATTEMPTS; attempt++) {
+            int code;
+            String body;
+            String retryAfter;
+            try (Response response = uploadHttp.newCall(request).execute()) {
+                code = response.code();
+                body = response.body() != null ? response.body().string() : "";
+                retryAfter = response.header("Retry-After");
+            } catch (IOException e) {
+                failure = e;
+                backOff(attempt, null);
+                continue;
+            }
 
-            } catch (Exception e) {
-                throw new RuntimeException("Failed to upload file to OneDrive", e);
+            if (code == 200 || code == 201) {
+                return new ChunkResult(client.getSerializer().deserializeObject(body, DriveItem.class), size);
             }
-        }).subscribeOn(ioScheduler).then();
+            if (code == 202) {
+                UploadSession session = client.getSerializer().deserializeObject(body, UploadSession.class);
+                return new ChunkResult(null, nextExpectedOffset(session, offset + length));
+            }
+            if (code == 416) {
+                return null;
+            }
+            failure = new IOException("OneDrive rejected bytes " + offset + "-" + (offset + length - 1) + ": HTTP " + code);
+            if (code != 429 && code < 500) {
+                throw failure;
+            }
+            backOff(attempt, retryAfter);
+        }
+        throw failure;
+    }
+
+    /**
+     * Where to go on after Graph refused a chunk as already received: the session's next expected
+     * range if it is still open, or the finished item if that was the last chunk and the session
+     * has completed.
+     */
+    private ChunkResult alreadyReceived(GraphServiceClient<okhttp3.Request> client, DriveItemRequestBuilder target,
+                                        String uploadUrl, long offset, int length, long size) throws IOException {
+        long committed = committedOffset(client, uploadUrl);
+        if (committed > offset) {
+            log.debug("OneDrive already had bytes {}-{}; continuing at {}", offset, offset + length - 1, committed);
+            return new ChunkResult(null, committed);
+        }
+        if (committed < 0 && offset + length == size) {
+            DriveItem item = target.buildRequest().get();
+            if (item != null && item.size != null && item.size == size) {
+                return new ChunkResult(item, size);
+            }
+        }
+        throw new IOException("OneDrive rejected bytes " + offset + "-" + (offset + length - 1) + " as out of range");
+    }
+
+    // Where an existing session continues, or -1 if it is gone
+    private long committedOffset(GraphServiceClient<okhttp3.Request> client, String uploadUrl) {
+        try (Response response = uploadHttp.newCall(new Request.Builder().url(uploadUrl).get().build()).execute()) {
+            if (response.code() != 200 || response.body() == null) {
+                return -1;
+            }
+            UploadSession session = client.getSerializer().deserializeObject(response.body().string(), UploadSession.class);
+            return nextExpectedOffset(session, -1);
+        } catch (Exception e) {
+            log.debug("Could not query OneDrive upload session: {}", e.getMessage());
+            return -1;
+        }
+    }
+
+    // nextExpectedRanges look like "26214400-" or "26214400-52428799"; the first start is where to go on
+    private long nextExpectedOffset(UploadSession session, long fallback) {
+        if (session == null || session.nextExpectedRanges == null || session.nextExpectedRanges.isEmpty()) {
+            return fallback;
+        }
+        String range = session.nextExpectedRanges.get(0);
+        int dash = range.indexOf('-');
+        return Long.parseLong(dash >= 0 ? range.substring(0, dash) : range);
+    }
+
+    private void readFully(FileChannel channel, byte[] buffer, long position, int length) throws IOException {
+        ByteBuffer target = ByteBuffer.wrap(buffer, 0, length);
+        while (target.hasRemaining()) {
+            if (channel.read(target, position + target.position()) < 0) {
+                throw new EOFException("File shrank while uploading");
+            }
+        }
+    }
+
+    private void backOff(int attempt, String retryAfter) throws IOException {
+        long millis = Math.min(CHUNK_RETRY_BASE_MILLIS << (attempt - 1), CHUNK_RETRY_MAX_MILLIS);
+        if (retryAfter != null) {
+            try {
+                millis = Long.parseLong(retryAfter.trim()) * 1000;
+            } catch (NumberFormatException ignored) {
+                // An HTTP date; keep the exponential delay
+            }
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while retrying upload");
+        }
+    }
+
+    @Override
+    public String localContentHash(Path localFile) throws IOException {
+        return RemoteContentHashes.quickXorHash(localFile);
     }
 
     @Override
@@ -181,25 +513,38 @@ public class OneDriveService implements RemoteFileSystemService {
     }
 
     @Override
-    public Mono<Void> createDirectory(String folderName) {
-        return Mono.fromRunnable(() -> {
+    public Mono<RemoteFileItem> createDirectory(String remotePath) {
+        return Mono.fromCallable(() -> {
             try {
                 if (graphClient == null) {
                     throw new RuntimeException("Not connected to OneDrive");
                 }
 
+                String parentId = parentOf(remotePath);
                 DriveItem folder = new DriveItem();
-                folder.name = folderName;
+                folder.name = nameOf(remotePath);
                 folder.folder = new com.microsoft.graph.models.Folder();
 
-                graphClient.me().drive().root().children()
-                        .buildRequest()
-                        .post(folder);
+                DriveItemCollectionRequestBuilder children = parentId.equals("root")
+                        ? graphClient.me().drive().root().children()
+                        : graphClient.me().drive().items(parentId).children();
+                DriveItem created = children.buildRequest().post(folder);
+                return toRemoteFileItem(Objects.requireNonNull(created), parentId);
 
             } catch (Exception e) {
                 throw new RuntimeException("Failed to create folder in OneDrive", e);
             }
-        }).subscribeOn(ioScheduler).then();
+        }).subscribeOn(ioScheduler);
+    }
+
+    // "itemId/name" from the browser, or a bare name for the root
+    private String parentOf(String remotePath) {
+        int slash = remotePath.lastIndexOf('/');
+        return slash > 0 ? remotePath.substring(0, slash) : "root";
+    }
+
+    private String nameOf(String remotePath) {
+        return remotePath.substring(remotePath.lastIndexOf('/') + 1);
     }
 
     @Override
@@ -245,4 +590,19 @@ public class OneDriveService implements RemoteFileSystemService {
     public String getServiceName() {
         return "Microsoft OneDrive";
     }
-}
\ No newline at end of file
+
+    /**
+     * An upload session that has not been finished.
+     *
+     * @param uploadUrl pre-authenticated URL chunks are sent to
+     * @param size      size of the local file when the session was created
+     * @param modified  its modification time then; a changed file starts a new session
+     * @param expires   when Graph drops the session
+     */
+    private record PendingUpload(String uploadUrl, long size, long modified, OffsetDateTime expires) {
+    }
+
+    // item is set once the last chunk has been accepted
+    private record ChunkResult(DriveItem item, long nextOffset) {
+    }
+}
@@ -1,25 +1,42 @@
 package io.nomard.flux_file.infrastructure.service.remote.sftp;
 
 import com.jcraft.jsch.*;
+import io.nomard.flux_file.core.domain.model.RemoteChange;
 import io.nomard.flux_file.core.domain.model.RemoteFileItem;
+import io.nomard.flux_file.infrastructure.service.io.BlockingIoSchedulers;
+import io.nomard.flux_file.infrastructure.service.operation.OperationProgress;
 import io.nomard.flux_file.infrastructure.service.remote.RemoteFileSystemService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
 
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Vector;
 
 @Service
 public class SFTPService implements RemoteFileSystemService {
 
-    private final reactor.core.scheduler.Scheduler ioScheduler = Schedulers.boundedElastic();
+    private final reactor.core.scheduler.Scheduler ioScheduler;
+    private final Duration pollInterval;
     private Session session;
     private ChannelSftp sftpChannel;
 
+    public SFTPService(BlockingIoSchedulers blockingIo,
+                       @Value("${flux.remote-watch.poll-interval:15s}") Duration pollInterval) {
+        // ChannelSftp is not thread-safe; one call at a time per session
+        this.ioScheduler = blockingIo.scheduler("sftp", 1);
+        this.pollInterval = pollInterval;
+    }
+
     // Connection format: username:password@host:port or username@host:port (for key auth)
     @Override
     public Mono<Boolean> connect(String connectionString) {
@@ -145,14 +162,61 @@ public class SFTPService implements RemoteFileSystemService {
         }).subscribeOn(ioScheduler);
     }
 
+    /**
+     * SFTP has no change notification, so the folder is listed every poll interval and compared
+     * with the previous listing by type, size and modification time. Polls queue on the
+     * session's single lane like any other call.
+     */
+    @Override
+    public Flux<RemoteChange> watchChanges(String remotePath) {
+        return Flux.defer(() -> {
+            Map<String, RemoteFileItem> previous = new HashMap<>();
+            return snapshot(remotePath)
+                    .flatMapMany(initial -> {
+                        previous.putAll(initial);
+                        return Flux.interval(pollInterval)
+                                .onBackpressureDrop()
+                                .concatMap(tick -> snapshot(remotePath).map(current -> diff(previous, current)), 1)
+                                .concatMapIterable(changes -> changes, 1);
+                    });
+        });
+    }
+
+    private Mono<Map<String, RemoteFileItem>> snapshot(String remotePath) {
+        return listFiles(remotePath).collectMap(RemoteFileItem::getId);
+    }
+
+    private List<RemoteChange> diff(Map<String, RemoteFileItem> previous, Map<String, RemoteFileItem> current) {
+        List<RemoteChange> changes = new ArrayList<>();
+        for (RemoteFileItem item : current.values()) {
+            RemoteFileItem before = previous.get(item.getId());
+            if (before == null
+                    || before.isDirectory() != item.isDirectory()
+                    || before.getSize() != item.getSize()
+                    || !before.getModified().equals(item.getModified())) {
+                changes.add(RemoteChange.upserted(item));
+            }
+        }
+        for (String id : previous.keySet()) {
+            if (!current.containsKey(id)) {
+                changes.add(RemoteChange.removed(id));
+            }
+        }
+        previous.clear();
+        previous.putAll(current);
+        return changes;
+    }
+
     @Override
-    public Mono<Void> downloadFile(String remoteFile, Path localDestination) {
+    public Mono<Void> downloadFile(String remoteFile, Path localDestination, OperationProgress progress) {
         return Mono.fromRunnable(() -> {
+            progress.checkpoint();
             try {
                 if (sftpChannel == null || !sftpChannel.isConnected()) {
                     throw new RuntimeException("Not connected to SFTP server");
                 }
                 sftpChannel.get(remoteFile, localDestination.toString());
+                progress.addBytes(Files.size(localDestination));
             } catch (Exception e) {
                 throw new RuntimeException("Failed to download file from SFTP server", e);
             }
@@ -160,17 +224,22 @@ public class SFTPService implements RemoteFileSystemService {
     }
 
     @Override
-    public Mono<Void> uploadFile(Path localFile, String remoteDestination) {
-        return Mono.fromRunnable(() -> {
+    public Mono<RemoteFileItem> uploadFile(Path localFile, String remoteDestination, OperationProgress progress) {
+        return Mono.fromCallable(() -> {
+            progress.checkpoint();
             try {
                 if (sftpChannel == null || !sftpChannel.isConnected()) {
                     throw new RuntimeException("Not connected to SFTP server");
                 }
-                sftpChannel.put(localFile.toString(), remoteDestination);
+                String destination = absolute(remoteDestination);
+                sftpChannel.put(localFile.toString(), destination);
+                RemoteFileItem uploaded = stat(destination);
+                progress.addBytes(uploaded.getSize());
+                return uploaded;
             } catch (Exception e) {
                 throw new RuntimeException("Failed to upload file to SFTP server", e);
             }
-        }).subscribeOn(ioScheduler).then();
+        }).subscribeOn(ioScheduler);
     }
 
     @Override
@@ -194,17 +263,47 @@ public class SFTPService implements RemoteFileSystemService {
     }
 
     @Override
-    public Mono<Void> createDirectory(String remotePath) {
-        return Mono.fromRunnable(() -> {
+    public Mono<RemoteFileItem> createDirectory(String remotePath) {
+        return Mono.fromCallable(() -> {
             try {
                 if (sftpChannel == null || !sftpChannel.isConnected()) {
                     throw new RuntimeException("Not connected to SFTP server");
                 }
-                sftpChannel.mkdir(remotePath);
+                String path = absolute(remotePath);
+                sftpChannel.mkdir(path);
+                return stat(path);
             } catch (Exception e) {
                 throw new RuntimeException("Failed to create directory on SFTP server", e);
             }
-        }).subscribeOn(ioScheduler).then();
+        }).subscribeOn(ioScheduler);
+    }
+
+    /**
+     * A destination as listings name it. Uploads into the top folder come as a bare name, which
+     * the server would resolve against the home folder; listings use absolute paths there, so
+     * the same file must get the same id.
+     */
+    private String absolute(String remotePath) throws SftpException {
+        if (remotePath.startsWith("/")) {
+            return remotePath;
+        }
+        String home = sftpChannel.getHome();
+        return home.endsWith("/") ? home + remotePath : home + "/" + remotePath;
+    }
+
+    // Item for an absolute path just written, so listings can be updated without another ls
+    private RemoteFileItem stat(String remotePath) throws SftpException {
+        SftpATTRS attrs = sftpChannel.stat(remotePath);
+        int slash = remotePath.lastIndexOf('/');
+        return new RemoteFileItem(
+                remotePath,
+                remotePath.substring(slash + 1),
+                attrs.isDir(),
+                attrs.getSize(),
+                Instant.ofEpochSecond(attrs.getMTime()),
+                "sftp",
+                slash > 0 ? remotePath.substring(0, slash) : "/"
+        );
     }
 
     @Override
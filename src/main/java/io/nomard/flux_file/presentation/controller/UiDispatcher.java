@@ -0,0 +1,176 @@
+package io.nomard.flux_file.presentation.controller;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import javafx.scene.control.Labeled;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Batches UI updates from background work into the FX pulse.
+ * <p>
+ * Updates are queued from any thread and applied together on the next pulse, in submission
+ * order, instead of one {@code Platform.runLater} each. Keyed updates coalesce: submitting a
+ * key that is still pending drops the older update and queues the new one at the end, so the
+ * latest status text wins. A pulse stops applying after a time budget and leaves the rest for
+ * the next one; the timer only runs while something is queued. {@link #stats()} is logged
+ * every {@code flux.io.metrics-interval}, alongside the I/O queue depths, while there is activity.
+ * <p>
+ * Updates run inside an animation pulse, where {@code showAndWait} is not allowed; open
+ * blocking dialogs with {@code Platform.runLater}.
+ */
+@Slf4j
+@Component
+public class UiDispatcher {
+
+    private static final long PULSE_BUDGET_NANOS = Duration.ofMillis(8).toNanos();
+    private static final long SLOW_PULSE_NANOS = Duration.ofMillis(16).toNanos();
+
+    private final LinkedHashMap<Object, Runnable> pending = new LinkedHashMap<>();
+    private final AnimationTimer timer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            pulse();
+        }
+    };
+    private boolean scheduled = false;
+
+    private long submitted = 0;
+    private long coalesced = 0;
+    private long applied = 0;
+    private long pulses = 0;
+    private int maxQueueDepth = 0;
+    private long lastPulseNanos = 0;
+    private long maxPulseNanos = 0;
+    private long reportedPulses = 0;
+
+    public UiDispatcher(@Value("${flux.io.metrics-interval:30s}") Duration metricsInterval) {
+        if (!metricsInterval.isZero() && !metricsInterval.isNegative()) {
+            Flux.interval(metricsInterval, metricsInterval)
+                    .subscribe(tick -> reportStats());
+        }
+    }
+
+    /**
+     * Apply {@code update} on the next pulse.
+     */
+    public void run(Runnable update) {
+        submit(new Object(), update);
+    }
+
+    /**
+     * Apply {@code update} on the next pulse, replacing any pending update with the same key.
+     */
+    public void run(Object key, Runnable update) {
+        submit(key, update);
+    }
+
+    /**
+     * Set a label's text on the next pulse; only the latest text per label is applied.
+     */
+    public void setText(Labeled control, String text) {
+        submit(new TextKey(control), () -> control.setText(text));
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(pending.size(), maxQueueDepth, submitted, coalesced, applied, pulses,
+                Duration.ofNanos(lastPulseNanos), Duration.ofNanos(maxPulseNanos));
+    }
+
+    private void reportStats() {
+        Stats stats;
+        synchronized (this) {
+            if (pulses == reportedPulses && pending.isEmpty()) {
+                return;
+            }
+            reportedPulses = pulses;
+            stats = stats();
+        }
+        log.debug("UI dispatcher: queued={} maxQueued={} submitted={} coalesced={} applied={} pulses={} lastPulse={}ms maxPulse={}ms",
+                stats.queueDepth(), stats.maxQueueDepth(), stats.submitted(), stats.coalesced(), stats.applied(),
+                stats.pulses(), stats.lastPulse().toMillis(), stats.maxPulse().toMillis());
+    }
+
+    private void submit(Object key, Runnable update) {
+        boolean start;
+        synchronized (this) {
+            if (pending.remove(key) != null) {
+                coalesced++;
+            }
+            pending.put(key, update);
+            submitted++;
+            maxQueueDepth = Math.max(maxQueueDepth, pending.size());
+            start = !scheduled;
+            scheduled = true;
+        }
+        if (start) {
+            Platform.runLater(timer::start);
+        }
+    }
+
+    private void pulse() {
+        long started = System.nanoTime();
+        int ran = 0;
+        int left;
+        while (true) {
+            Runnable update;
+            synchronized (this) {
+                if (pending.isEmpty()) {
+                    scheduled = false;
+                    timer.stop();
+                    left = 0;
+                    break;
+                }
+                if (ran > 0 && System.nanoTime() - started > PULSE_BUDGET_NANOS) {
+                    left = pending.size();
+                    break;
+                }
+                Iterator<Runnable> iterator = pending.values().iterator();
+                update = iterator.next();
+                iterator.remove();
+            }
+            try {
+                update.run();
+            } catch (RuntimeException e) {
+                log.error("UI update failed", e);
+            }
+            ran++;
+        }
+
+        long elapsed = System.nanoTime() - started;
+        synchronized (this) {
+            applied += ran;
+            pulses++;
+            lastPulseNanos = elapsed;
+            maxPulseNanos = Math.max(maxPulseNanos, elapsed);
+        }
+        if (elapsed > SLOW_PULSE_NANOS) {
+            log.debug("Slow UI pulse: {} updates in {} ms, {} still queued", ran, elapsed / 1_000_000, left);
+        }
+    }
+
+    private record TextKey(Labeled control) {
+    }
+
+    /**
+     * Dispatcher counters since startup.
+     *
+     * @param queueDepth    updates waiting now
+     * @param maxQueueDepth most updates ever waiting at once
+     * @param submitted     updates submitted
+     * @param coalesced     updates replaced by a newer one with the same key
+     * @param applied       updates run
+     * @param pulses        pulses that ran updates
+     * @param lastPulse     time spent in the last pulse
+     * @param maxPulse      longest pulse
+     */
+    public record Stats(int queueDepth, int maxQueueDepth, long submitted, long coalesced, long applied,
+                        long pulses, Duration lastPulse, Duration maxPulse) {
+    }
+}
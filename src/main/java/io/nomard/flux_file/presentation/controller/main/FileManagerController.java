@@ -1,13 +1,32 @@
 package io.nomard.flux_file.presentation.controller.main;
 
+import io.nomard.flux_file.core.domain.diff.KeyedListDiff;
+import io.nomard.flux_file.core.domain.model.ConflictPolicy;
 import io.nomard.flux_file.core.domain.model.FileItem;
+import io.nomard.flux_file.core.domain.model.FileProperties;
+import io.nomard.flux_file.core.domain.sort.FileSortOrder;
+import io.nomard.flux_file.core.domain.sort.SortField;
+import io.nomard.flux_file.core.domain.sync.SyncActionType;
+import io.nomard.flux_file.core.domain.sync.SyncOptions;
+import io.nomard.flux_file.core.domain.sync.SyncPlan;
+import io.nomard.flux_file.infrastructure.service.DirectoryListingCache;
+import io.nomard.flux_file.infrastructure.service.DirectoryPrefetcher;
 import io.nomard.flux_file.infrastructure.service.FileService;
+import io.nomard.flux_file.infrastructure.service.FileSortService;
 import io.nomard.flux_file.infrastructure.service.FileWatchService;
 import io.nomard.flux_file.infrastructure.service.PreferencesService;
 import io.nomard.flux_file.infrastructure.service.SystemService;
+import io.nomard.flux_file.infrastructure.service.io.IoPriority;
+import io.nomard.flux_file.infrastructure.service.io.MountIoScheduler;
+import io.nomard.flux_file.infrastructure.service.io.MountPoint;
+import io.nomard.flux_file.infrastructure.service.operation.OperationKind;
+import io.nomard.flux_file.infrastructure.service.operation.OperationManager;
+import io.nomard.flux_file.infrastructure.service.operation.OperationState;
 import io.nomard.flux_file.infrastructure.service.remote.RemoteFileSystemService;
+import io.nomard.flux_file.presentation.controller.UiDispatcher;
 import io.nomard.flux_file.presentation.controller.remote.RemoteBrowserController;
 import io.nomard.flux_file.presentation.view.main.FileManagerView;
+import io.nomard.flux_file.presentation.view.main.OperationsPanel;
 import io.nomard.flux_file.presentation.view.remote.RemoteBrowserView;
 import javafx.application.Platform;
 import javafx.collections.FXCollections;
@@ -20,16 +39,21 @@ import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
 
-import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.LinkOption;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.attribute.BasicFileAttributes;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 @Component
@@ -37,36 +61,84 @@ import java.util.stream.Collectors;
 @Setter
 public class FileManagerController {
 
+    private static final Object MOUNT_STATUS_KEY = new Object();
+    private static final Object RESORT_KEY = new Object();
+    private static final Object OPERATIONS_KEY = new Object();
+    private static final int SYNC_PREVIEW_LIMIT = 1000;
+
     private final ObservableList<FileItem> fileItems = FXCollections.observableArrayList();
     private final FileService fileService;
+    private final FileSortService fileSortService;
+    private final DirectoryListingCache listingCache;
+    private final DirectoryPrefetcher prefetcher;
+    private final MountIoScheduler mountIo;
+    private final OperationManager operations;
+    private final UiDispatcher ui;
     private final FileWatchService fileWatchService;
     private final SystemService systemService;
     private final PreferencesService preferencesService;
     private final RemoteBrowserController remoteBrowserController;
     private final RemoteBrowserView remoteBrowserView;
     private final Map<Path, Disposable> watcherDisposables = new HashMap<>();
+    private final NavigationHistory history = new NavigationHistory();
     private FileManagerView view;
     private Path currentPath;
     private Disposable watchDisposable;
-    private Path clipboard;
+    // Paths copied or cut together; pasted as one batch
+    private List<Path> clipboard = List.of();
     private boolean isCutOperation = false;
-    // Suppress refreshes from the directory watcher while long operations run
-    private volatile boolean suppressWatchRefresh = false;
     // Preference: show hidden files/folders
     private boolean showHidden = false;
-
-    public FileManagerController(RemoteBrowserView remoteBrowserView, RemoteBrowserController remoteBrowserController, PreferencesService preferencesService, SystemService systemService, FileWatchService fileWatchService, FileService fileService) {
+    // Current table ordering; applied to every listing before it reaches fileItems
+    private FileSortOrder sortOrder = FileSortOrder.DEFAULT;
+    private Disposable sortDisposable;
+    // Bumped whenever fileItems is replaced, so a stale re-sort is never applied
+    private long listingVersion = 0;
+    // Loads and searches form one switch-latest stream; a new request cancels the previous one
+    private final Sinks.Many<ListingRequest> listingRequests = Sinks.many().unicast().onBackpressureBuffer();
+    private Disposable listingSubscription;
+    // Generation of the latest request; UI updates from older requests are dropped
+    private long listingGeneration = 0;
+    private Disposable mountHealthSubscription;
+    private Disposable operationsSubscription;
+
+    public FileManagerController(RemoteBrowserView remoteBrowserView, RemoteBrowserController remoteBrowserController, PreferencesService preferencesService, SystemService systemService, FileWatchService fileWatchService, FileService fileService, FileSortService fileSortService, DirectoryListingCache listingCache, DirectoryPrefetcher prefetcher, MountIoScheduler mountIo, OperationManager operations, UiDispatcher ui) {
         this.remoteBrowserView = remoteBrowserView;
         this.remoteBrowserController = remoteBrowserController;
         this.preferencesService = preferencesService;
         this.systemService = systemService;
         this.fileWatchService = fileWatchService;
         this.fileService = fileService;
+        this.fileSortService = fileSortService;
+        this.listingCache = listingCache;
+        this.prefetcher = prefetcher;
+        this.mountIo = mountIo;
+        this.operations = operations;
+        this.ui = ui;
     }
 
     public void initialize() {
         setupEventHandlers();
 
+        listingSubscription = listingRequests.asFlux()
+                .switchMap(request -> request.updates()
+                        .doOnNext(update -> ui.run(() -> {
+                            if (request.generation() == listingGeneration) {
+                                update.run();
+                            }
+                        })))
+                .subscribe();
+
+        mountHealthSubscription = mountIo.healthChanges()
+                .subscribe(change -> ui.run(MOUNT_STATUS_KEY, this::updateMountStatus));
+
+        OperationsPanel operationsPanel = view.getOperationsPanel();
+        operationsPanel.setOnPause(operations::pause);
+        operationsPanel.setOnResume(operations::resume);
+        operationsPanel.setOnCancel(operations::cancel);
+        operationsSubscription = operations.updates()
+                .subscribe(snapshots -> ui.run(OPERATIONS_KEY, () -> operationsPanel.update(snapshots)));
+
         String userHome = System.getProperty("user.home");
         currentPath = Paths.get(userHome);
         view.getPathField().setText(currentPath.toString());
@@ -90,7 +162,7 @@ public class FileManagerController {
     private void setupEventHandlers() {
         view.getPathField().setOnAction(e -> {
             Path path = Paths.get(view.getPathField().getText());
-            loadDirectory(path);
+            navigateToDirectory(path);
         });
 
         view.getSearchField().setOnKeyPressed(e -> {
@@ -114,11 +186,108 @@ public class FileManagerController {
                 }
             });
 
+            // Hovering a folder hints that it may be opened next
+            row.setOnMouseEntered(event -> {
+                if (!row.isEmpty() && row.getItem().isDirectory()) {
+                    prefetchAround(row.getItem().path());
+                }
+            });
+
             // Right-click context menu
             row.setContextMenu(createContextMenu(row));
 
             return row;
         });
+
+        view.getFileTable().getSelectionModel().selectedItemProperty().addListener((obs, oldItem, newItem) -> {
+            if (newItem != null && newItem.isDirectory()) {
+                prefetchAround(newItem.path());
+            }
+        });
+
+        // Replace the table's in-place string sort with a background sort on raw keys
+        view.getFileTable().setSortPolicy(table -> {
+            sortOrder = toSortOrder(table.getSortOrder());
+            resortItems();
+            return true;
+        });
+    }
+
+    /**
+     * Prefetch the folder the user is pointing at, the parent and the most visited siblings.
+     */
+    private void prefetchAround(Path folder) {
+        List<Path> candidates = new ArrayList<>();
+        candidates.add(folder);
+        if (currentPath != null && currentPath.getParent() != null) {
+            candidates.add(currentPath.getParent());
+        }
+        candidates.addAll(prefetcher.frequentChildren(currentPath, 3));
+        prefetcher.prefetch(candidates);
+    }
+
+    private FileSortOrder toSortOrder(List<TableColumn<FileItem, ?>> columns) {
+        for (TableColumn<FileItem, ?> column : columns) {
+            if (column.getUserData() instanceof SortField field) {
+                boolean ascending = column.getSortType() == TableColumn.SortType.ASCENDING;
+                return new FileSortOrder(field, ascending, true);
+            }
+        }
+        return FileSortOrder.DEFAULT;
+    }
+
+    private void resortItems() {
+        if (sortDisposable != null && !sortDisposable.isDisposed()) {
+            sortDisposable.dispose();
+        }
+
+        long version = listingVersion;
+        List<FileItem> snapshot = new ArrayList<>(fileItems);
+        sortDisposable = fileSortService.sort(snapshot, sortOrder)
+                .subscribe(sorted -> ui.run(RESORT_KEY, () -> {
+                    if (version == listingVersion) {
+                        fileItems.setAll(sorted);
+                    }
+                }));
+    }
+
+    private void applyListing(List<FileItem> sortedItems) {
+        listingVersion++;
+        fileItems.setAll(sortedItems);
+    }
+
+    /**
+     * Apply a refresh as the minimal set of row changes, keeping selection stable.
+     * Falls back to a wholesale replace when the rows changed since the diff was taken.
+     */
+    private long applyListingDiff(KeyedListDiff<FileItem> diff, long version) {
+        if (diff.isWholesale() || version != listingVersion) {
+            applyListing(diff.target());
+            return listingVersion;
+        }
+        if (diff.isEmpty()) {
+            return listingVersion;
+        }
+
+        TableView.TableViewSelectionModel<FileItem> selectionModel = view.getFileTable().getSelectionModel();
+        Set<Path> selectedPaths = selectionModel.getSelectedItems().stream()
+                .map(FileItem::path)
+                .collect(Collectors.toSet());
+
+        listingVersion++;
+        diff.applyTo(fileItems);
+
+        // Replaced rows drop out of the selection; reselect them by key
+        if (!selectedPaths.isEmpty() && selectionModel.getSelectedItems().size() != selectedPaths.size()) {
+            for (int i = 0; i < fileItems.size(); i++) {
+                if (selectedPaths.contains(fileItems.get(i).path()) && !selectionModel.isSelected(i)) {
+                    selectionModel.select(i);
+                }
+            }
+        }
+        log.debug("Reconciled {}: +{} -{} ~{} moved {}", currentPath,
+                diff.insertedCount(), diff.removedCount(), diff.changedCount(), diff.movedCount());
+        return listingVersion;
     }
 
     private ContextMenu createContextMenu(TableRow<FileItem> row) {
@@ -180,7 +349,8 @@ public class FileManagerController {
 
         MenuItem pasteItem = new MenuItem("Paste");
         pasteItem.setOnAction(e -> handlePaste());
-        pasteItem.setDisable(clipboard == null);
+        // Menus are built once per row, so check the clipboard each time one opens
+        contextMenu.setOnShowing(e -> pasteItem.setDisable(clipboard.isEmpty()));
 
         MenuItem deleteItem = new MenuItem("Delete");
         deleteItem.setOnAction(e -> {
@@ -310,6 +480,17 @@ public class FileManagerController {
     }
 
     private void showPropertiesDialog(FileItem item) {
+        // Extended attributes are read on the item's I/O lane, never on the FX thread
+        fileService.readProperties(item.path())
+                .map(Optional::of)
+                .onErrorResume(e -> {
+                    log.debug("Could not read properties of {}: {}", item.path(), e.getMessage());
+                    return Mono.just(Optional.empty());
+                })
+                .subscribe(properties -> Platform.runLater(() -> showPropertiesDialog(item, properties.orElse(null))));
+    }
+
+    private void showPropertiesDialog(FileItem item, FileProperties properties) {
         Dialog<Void> dialog = new Dialog<>();
         dialog.setTitle("Properties");
         dialog.setHeaderText(item.name());
@@ -335,25 +516,23 @@ public class FileManagerController {
         grid.add(new Label("Modified:"), 0, row);
         grid.add(new Label(item.getFormattedDate()), 1, row++);
 
-        try {
-            BasicFileAttributes attrs = Files.readAttributes(item.path(), BasicFileAttributes.class);
-
+        if (properties != null) {
             grid.add(new Label("Created:"), 0, row);
             DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")
                     .withZone(ZoneId.systemDefault());
-            grid.add(new Label(formatter.format(attrs.creationTime().toInstant())), 1, row++);
+            grid.add(new Label(formatter.format(properties.created())), 1, row++);
 
             grid.add(new Label("Accessed:"), 0, row);
-            grid.add(new Label(formatter.format(attrs.lastAccessTime().toInstant())), 1, row++);
+            grid.add(new Label(formatter.format(properties.accessed())), 1, row++);
 
             grid.add(new Label("Readable:"), 0, row);
-            grid.add(new Label(Files.isReadable(item.path()) ? "Yes" : "No"), 1, row++);
+            grid.add(new Label(properties.readable() ? "Yes" : "No"), 1, row++);
 
             grid.add(new Label("Writable:"), 0, row);
-            grid.add(new Label(Files.isWritable(item.path()) ? "Yes" : "No"), 1, row++);
+            grid.add(new Label(properties.writable() ? "Yes" : "No"), 1, row++);
 
             grid.add(new Label("Executable:"), 0, row);
-            grid.add(new Label(Files.isExecutable(item.path()) ? "Yes" : "No"), 1, row++);
+            grid.add(new Label(properties.executable() ? "Yes" : "No"), 1, row++);
 
             if (!item.isDirectory() && !item.getExtension().isEmpty()) {
                 String defaultApp = preferencesService.getDefaultApplication(item.getExtension());
@@ -362,9 +541,6 @@ public class FileManagerController {
                     grid.add(new Label(defaultApp), 1, row++);
                 }
             }
-
-        } catch (IOException e) {
-            // Ignore
         }
 
         dialog.getDialogPane().setContent(grid);
@@ -382,7 +558,10 @@ public class FileManagerController {
         result.ifPresent(newName -> {
             if (!newName.equals(item.name())) {
                 fileService.renameFile(item.path(), newName)
-                        .doOnSuccess(v -> Platform.runLater(this::refreshDirectory))
+                        .doOnSuccess(v -> ui.run(() -> {
+                            listingCache.invalidate(item.path());
+                            refreshDirectory();
+                        }))
                         .doOnError(e -> Platform.runLater(() ->
                                 showError("Rename Failed", e.getMessage())))
                         .subscribe();
@@ -391,81 +570,134 @@ public class FileManagerController {
     }
 
     private void handleCopy(FileItem item) {
-        clipboard = item.path();
+        clipboard = selectionFor(item);
         isCutOperation = false;
-        view.getStatusLabel().setText("Copied: " + item.name());
+        view.getStatusLabel().setText("Copied: " + describe(clipboard));
     }
 
     private void handleCut(FileItem item) {
-        clipboard = item.path();
+        clipboard = selectionFor(item);
         isCutOperation = true;
-        view.getStatusLabel().setText("Cut: " + item.name());
+        view.getStatusLabel().setText("Cut: " + describe(clipboard));
+    }
+
+    /**
+     * The selected paths if {@code item} is part of the selection, otherwise just the item.
+     */
+    private List<Path> selectionFor(FileItem item) {
+        ObservableList<FileItem> selected = view.getFileTable().getSelectionModel().getSelectedItems();
+        if (!selected.contains(item)) {
+            return List.of(item.path());
+        }
+        return selected.stream().map(FileItem::path).toList();
+    }
+
+    private String describe(List<Path> paths) {
+        return paths.size() == 1 ? paths.getFirst().getFileName().toString() : paths.size() + " items";
     }
 
     private void handlePaste() {
-        if (clipboard == null) return;
-
-        Path target = currentPath.resolve(clipboard.getFileName());
-
-        // Handle file name conflicts
-        if (Files.exists(target)) {
-            int counter = 1;
-            String baseName = clipboard.getFileName().toString();
-            String extension = "";
-            int lastDot = baseName.lastIndexOf('.');
-            if (lastDot > 0) {
-                extension = baseName.substring(lastDot);
-                baseName = baseName.substring(0, lastDot);
-            }
+        if (clipboard.isEmpty()) return;
+
+        List<Path> sources = clipboard;
+        boolean move = isCutOperation;
+        Path targetDirectory = currentPath;
+
+        // Decide conflicts once for the whole batch; pasting into an item's own folder never asks.
+        // Counted on the target's mount lane, so a large selection or a hung mount cannot freeze the UI
+        view.getStatusLabel().setText("Checking " + targetDirectory + "…");
+        mountIo.call(targetDirectory, IoPriority.INTERACTIVE, () -> sources.stream()
+                        .filter(source -> !targetDirectory.equals(source.getParent()))
+                        .filter(source -> Files.exists(targetDirectory.resolve(source.getFileName()), LinkOption.NOFOLLOW_LINKS))
+                        .count())
+                .subscribe(conflicts -> Platform.runLater(() -> paste(sources, move, targetDirectory, conflicts)),
+                        e -> ui.run(() -> {
+                            view.getStatusLabel().setText("Paste failed");
+                            showError("Paste Failed", e.getMessage());
+                        }));
+    }
 
-            while (Files.exists(target)) {
-                target = currentPath.resolve(baseName + " (" + counter + ")" + extension);
-                counter++;
+    // Called through runLater rather than a dispatcher pulse, since the conflict dialog blocks
+    private void paste(List<Path> sources, boolean move, Path targetDirectory, long conflicts) {
+        ConflictPolicy policy = ConflictPolicy.KEEP_BOTH;
+        if (conflicts > 0) {
+            Optional<ConflictPolicy> choice = askConflictPolicy(conflicts);
+            if (choice.isEmpty()) {
+                view.getStatusLabel().setText("Paste cancelled");
+                return;
             }
+            policy = choice.get();
         }
 
-        Path finalTarget = target;
-
-        if (isCutOperation) {
-            // Show feedback for long running move operation
-            view.getProgressIndicator().setVisible(true);
-            view.getStatusLabel().setText("Moving…");
-            suppressWatchRefresh = true;
-            fileService.moveFile(clipboard, finalTarget)
-                    .doOnSuccess(v -> Platform.runLater(() -> {
-                        clipboard = null;
-                        isCutOperation = false;
-                        view.getProgressIndicator().setVisible(false);
-                        view.getStatusLabel().setText("Move completed");
-                        suppressWatchRefresh = false;
+        List<Path> touched = new ArrayList<>();
+        sources.forEach(source -> touched.add(targetDirectory.resolve(source.getFileName())));
+        if (move) {
+            touched.addAll(sources);
+        }
+        String description = describe(sources) + " → " + targetDirectory;
+        ConflictPolicy finalPolicy = policy;
+
+        if (move) {
+            view.getStatusLabel().setText("Moving " + describe(sources) + "…");
+            operations.submit(OperationKind.MOVE, description, touched,
+                            progress -> fileService.moveBatch(sources, targetDirectory, finalPolicy, progress))
+                    .subscribe(state -> ui.run(() -> {
+                        invalidateAfterPaste(sources, targetDirectory);
+                        if (state == OperationState.COMPLETED && sources.equals(clipboard)) {
+                            clipboard = List.of();
+                            isCutOperation = false;
+                        }
+                        view.getStatusLabel().setText(state == OperationState.COMPLETED ? "Move completed" : "Move cancelled");
                         refreshDirectory();
-                    }))
-                    .doOnError(e -> Platform.runLater(() -> {
-                        view.getProgressIndicator().setVisible(false);
+                    }), e -> ui.run(() -> {
+                        invalidateAfterPaste(sources, targetDirectory);
                         view.getStatusLabel().setText("Move failed");
-                        suppressWatchRefresh = false;
                         showError("Move Failed", e.getMessage());
-                    }))
-                    .subscribe();
+                        refreshDirectory();
+                    }));
         } else {
-            // Show feedback for long running copy operation
-            view.getProgressIndicator().setVisible(true);
-            view.getStatusLabel().setText("Copying…");
-            suppressWatchRefresh = true;
-            fileService.copyFile(clipboard, finalTarget)
-                    .doOnSuccess(v -> Platform.runLater(() -> {
-                        view.getProgressIndicator().setVisible(false);
-                        view.getStatusLabel().setText("Copy completed");
-                        suppressWatchRefresh = false;
+            view.getStatusLabel().setText("Copying " + describe(sources) + "…");
+            operations.submit(OperationKind.COPY, description, touched,
+                            progress -> fileService.copyBatch(sources, targetDirectory, finalPolicy, progress))
+                    .subscribe(state -> ui.run(() -> {
+                        listingCache.invalidate(targetDirectory);
+                        view.getStatusLabel().setText(state == OperationState.COMPLETED ? "Copy completed" : "Copy cancelled");
                         refreshDirectory();
-                    }))
-                    .doOnError(e -> Platform.runLater(() -> {
-                        view.getProgressIndicator().setVisible(false);
+                    }), e -> ui.run(() -> {
+                        listingCache.invalidate(targetDirectory);
                         view.getStatusLabel().setText("Copy failed");
-                        suppressWatchRefresh = false;
                         showError("Copy Failed", e.getMessage());
-                    }))
-                    .subscribe();
+                        refreshDirectory();
+                    }));
+        }
+    }
+
+    private Optional<ConflictPolicy> askConflictPolicy(long conflicts) {
+        ButtonType keepBoth = new ButtonType("Keep both");
+        ButtonType replace = new ButtonType("Replace");
+        ButtonType skip = new ButtonType("Skip");
+
+        Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
+        alert.setTitle("Paste");
+        alert.setHeaderText(conflicts == 1
+                ? "An item with the same name already exists here."
+                : conflicts + " items with the same names already exist here.");
+        alert.setContentText("Replacing swaps the existing item for the pasted one; folders are not merged. The existing item is kept until the paste succeeds.");
+        alert.getButtonTypes().setAll(keepBoth, replace, skip, ButtonType.CANCEL);
+
+        return alert.showAndWait().map(button -> {
+            if (button == keepBoth) return ConflictPolicy.KEEP_BOTH;
+            if (button == replace) return ConflictPolicy.REPLACE;
+            if (button == skip) return ConflictPolicy.SKIP;
+            return null;
+        });
+    }
+
+    private void invalidateAfterPaste(List<Path> sources, Path targetDirectory) {
+        listingCache.invalidate(targetDirectory);
+        for (Path source : sources) {
+            listingCache.invalidate(source);
+            listingCache.invalidate(source.getParent());
         }
     }
 
@@ -508,12 +740,29 @@ public class FileManagerController {
     }
 
     private void loadDirectory(Path directory) {
+        boolean sameDirectory = directory.equals(currentPath);
+
+        // Speculative work for the old location is no longer useful
+        prefetcher.cancel();
+        if (!sameDirectory) {
+            prefetcher.recordVisit(directory);
+        }
+
         // Dispose old watcher before creating new one
         disposeCurrentWatcher();
 
         currentPath = directory;
+        updateNavigationButtons();
+
+        // A recently visited directory is shown from cache at once, then revalidated
+        List<FileItem> cached = sameDirectory
+                ? null
+                : listingCache.get(directory).map(DirectoryListingCache.CachedListing::items).orElse(null);
 
-        fileItems.clear();
+        // A refresh keeps the current rows so it can be reconciled in place
+        if (!sameDirectory) {
+            applyListing(Collections.emptyList());
+        }
         view.getProgressIndicator().setVisible(true);
         view.getStatusLabel().setText("Loading...");
 
@@ -521,23 +770,65 @@ public class FileManagerController {
             watchDisposable.dispose();
         }
 
-        fileService.listFiles(directory)
+        FileSortOrder order = sortOrder;
+        AtomicLong expectedVersion = new AtomicLong(listingVersion);
+        AtomicReference<List<FileItem>> previous = new AtomicReference<>(new ArrayList<>(fileItems));
+
+        Mono<List<FileItem>> fresh = fileService.listFiles(directory)
                 .collectList()
+                .doOnNext(list -> listingCache.put(directory, list));
+        Flux<List<FileItem>> listings = cached != null
+                ? Flux.concat(Mono.just(cached), fresh)
+                : fresh.flux();
+
+        Flux<Runnable> updates = listings.subscribeOn(Schedulers.boundedElastic())
                 .map(list -> filterHidden(list))
-                .doOnSuccess(list -> Platform.runLater(() -> {
-                    fileItems.setAll(list);
+                .concatMap(list -> fileSortService.sort(list, order))
+                .map(list -> KeyedListDiff.compute(previous.getAndSet(list), list, FileItem::path))
+                .<Runnable>map(diff -> () -> {
+                    expectedVersion.set(applyListingDiff(diff, expectedVersion.get()));
+                    view.getStatusLabel().setText(fileItems.size() + " items");
+                })
+                .concatWith(Mono.<Runnable>just(() -> {
                     view.getProgressIndicator().setVisible(false);
-                    view.getStatusLabel().setText(list.size() + " items");
+                    view.getStatusLabel().setText(fileItems.size() + " items");
                     currentPath = directory;
                     view.getPathField().setText(directory.toString());
                     startWatching(directory);
                 }))
-                .doOnError(error -> Platform.runLater(() -> {
+                .onErrorResume(error -> Mono.<Runnable>just(() -> {
                     view.getProgressIndicator().setVisible(false);
                     view.getStatusLabel().setText("Error loading directory");
                     showError("Error", "Failed to load directory: " + error.getMessage());
-                }))
-                .subscribe();
+                }));
+
+        submitListing(updates);
+    }
+
+    /**
+     * Make {@code updates} the only listing work in flight.
+     * The previous request is cancelled, which closes its directory stream and stops its stat calls,
+     * and any of its UI updates still queued on the FX thread are discarded.
+     */
+    private void submitListing(Flux<Runnable> updates) {
+        long generation = ++listingGeneration;
+        Sinks.EmitResult result = listingRequests.tryEmitNext(new ListingRequest(generation, updates));
+        if (result.isFailure()) {
+            log.warn("Listing request {} was not accepted: {}", generation, result);
+        }
+    }
+
+    /**
+     * Show which mounts are currently not responding, if any.
+     */
+    private void updateMountStatus() {
+        List<MountPoint> unhealthy = mountIo.unhealthyMounts();
+        Label label = view.getMountStatusLabel();
+        label.setText(unhealthy.isEmpty() ? "" : "⚠ Not responding: " + unhealthy.stream()
+                .map(mount -> mount.path().toString())
+                .collect(Collectors.joining(", ")));
+        label.setVisible(!unhealthy.isEmpty());
+        label.setManaged(!unhealthy.isEmpty());
     }
 
     private void startWatching(Path directory) {
@@ -551,10 +842,13 @@ public class FileManagerController {
         Disposable disposable = fileWatchService.watchDirectory(directory)
                 .subscribe(
                         event -> {
-                            if (suppressWatchRefresh) {
+                            listingCache.invalidate(directory);
+                            // Our own operations refresh when they finish
+                            if (operations.isBusy(directory)) {
                                 return;
                             }
-                            Platform.runLater(() -> {
+                            // A burst of events becomes one refresh per pulse
+                            ui.run("refresh:" + directory, () -> {
                                 log.debug("File change detected, refreshing directory: {}", directory);
                                 refreshDirectory();
                             });
@@ -589,6 +883,16 @@ public class FileManagerController {
     public void cleanup() {
         log.info("Cleaning up controller, disposing all watchers");
 
+        if (listingSubscription != null && !listingSubscription.isDisposed()) {
+            listingSubscription.dispose();
+        }
+        if (mountHealthSubscription != null && !mountHealthSubscription.isDisposed()) {
+            mountHealthSubscription.dispose();
+        }
+        if (operationsSubscription != null && !operationsSubscription.isDisposed()) {
+            operationsSubscription.dispose();
+        }
+
         watcherDisposables.values().forEach(disposable -> {
             if (!disposable.isDisposed()) {
                 disposable.dispose();
@@ -599,15 +903,32 @@ public class FileManagerController {
     }
 
     private void navigateToDirectory(Path path) {
+        if (!path.equals(currentPath)) {
+            history.visit(currentPath);
+        }
         loadDirectory(path);
     }
 
     public void navigateBack() {
+        history.back(currentPath).ifPresent(this::loadDirectory);
+    }
+
+    public void navigateForward() {
+        history.forward(currentPath).ifPresent(this::loadDirectory);
+    }
+
+    public void navigateUp() {
         if (currentPath.getParent() != null) {
-            loadDirectory(currentPath.getParent());
+            navigateToDirectory(currentPath.getParent());
         }
     }
 
+    private void updateNavigationButtons() {
+        view.getBackButton().setDisable(!history.canGoBack());
+        view.getForwardButton().setDisable(!history.canGoForward());
+        view.getUpButton().setDisable(currentPath == null || currentPath.getParent() == null);
+    }
+
     public void refreshDirectory() {
         loadDirectory(currentPath);
     }
@@ -619,55 +940,41 @@ public class FileManagerController {
             return;
         }
 
-        fileItems.clear();
+        applyListing(Collections.emptyList());
         view.getProgressIndicator().setVisible(true);
         view.getStatusLabel().setText("Searching...");
 
-        fileService.searchFiles(currentPath, searchTerm)
+        Flux<Runnable> updates = fileService.searchFiles(currentPath, searchTerm)
                 .collectList()
                 .map(list -> filterHidden(list))
-                .doOnSuccess(list -> Platform.runLater(() -> {
-                    fileItems.setAll(list);
+                .flatMap(list -> fileSortService.sort(list, sortOrder))
+                .<Runnable>map(list -> () -> {
+                    applyListing(list);
                     view.getProgressIndicator().setVisible(false);
                     view.getStatusLabel().setText("Found " + list.size() + " items");
-                }))
-                .doOnError(error -> Platform.runLater(() -> {
+                })
+                .onErrorResume(error -> Mono.<Runnable>just(() -> {
                     view.getProgressIndicator().setVisible(false);
                     view.getStatusLabel().setText("Search failed");
                     showError("Search Error", error.getMessage());
                 }))
-                .subscribe();
+                .flux();
+
+        submitListing(updates);
     }
 
     private java.util.List<FileItem> filterHidden(java.util.List<FileItem> items) {
         if (showHidden) return items;
         java.util.List<FileItem> out = new java.util.ArrayList<>(items.size());
         for (FileItem fi : items) {
-            try {
-                if (!isPathHidden(fi.path(), fi.name())) {
-                    out.add(fi);
-                }
-            } catch (Exception e) {
-                // If we cannot determine hidden-ness, show it to avoid hiding legitimate files
+            // Hidden bit (dotfile or DOS attribute) was read together with the listing
+            if (!fi.hidden()) {
                 out.add(fi);
             }
         }
         return out;
     }
 
-    private boolean isPathHidden(Path path, String name) {
-        try {
-            if (Files.isHidden(path)) {
-                return true;
-            }
-        } catch (IOException ignored) {
-            // Fall through to name-based check
-        }
-
-        // Treat dotfiles as hidden on Unix-like systems; often also desired on Windows
-        return name != null && name.startsWith(".");
-    }
-
     public void handleDelete() {
         ObservableList<FileItem> selected = view.getFileTable().getSelectionModel().getSelectedItems();
         if (selected.isEmpty()) return;
@@ -679,40 +986,29 @@ public class FileManagerController {
 
         Optional<ButtonType> result = alert.showAndWait();
         if (result.isPresent() && result.get() == ButtonType.OK) {
-            List<FileItem> itemsToDelete = new ArrayList<>(selected);
-            // Show feedback while deleting
-            view.getProgressIndicator().setVisible(true);
-            view.getStatusLabel().setText("Deleting " + itemsToDelete.size() + " item(s)…");
-            suppressWatchRefresh = true;
-
-            java.util.concurrent.atomic.AtomicInteger completed = new java.util.concurrent.atomic.AtomicInteger(0);
-            java.util.concurrent.atomic.AtomicInteger failed = new java.util.concurrent.atomic.AtomicInteger(0);
-
-            Runnable onFinish = () -> {
-                if (completed.get() + failed.get() == itemsToDelete.size()) {
-                    view.getProgressIndicator().setVisible(false);
-                    String message = failed.get() == 0
-                            ? "Deleted " + completed.get() + " item(s)"
-                            : "Deleted " + completed.get() + ", failed " + failed.get();
-                    view.getStatusLabel().setText(message);
-                    suppressWatchRefresh = false;
-                    refreshDirectory();
-                }
-            };
-
-            for (FileItem item : itemsToDelete) {
-                fileService.deleteFile(item.path())
-                        .doOnSuccess(v -> Platform.runLater(() -> {
-                            completed.incrementAndGet();
-                            onFinish.run();
-                        }))
-                        .doOnError(e -> Platform.runLater(() -> {
-                            failed.incrementAndGet();
-                            showError("Delete Failed", e.getMessage());
-                            onFinish.run();
-                        }))
-                        .subscribe();
-            }
+            List<Path> paths = selected.stream().map(FileItem::path).toList();
+            String description = paths.size() == 1
+                    ? paths.getFirst().getFileName().toString()
+                    : paths.size() + " items in " + currentPath;
+            view.getStatusLabel().setText("Deleting " + paths.size() + " item(s)…");
+
+            // One operation for the whole selection; a failed item does not stop the rest
+            operations.submit(OperationKind.DELETE, description, paths,
+                            progress -> Flux.fromIterable(paths)
+                                    .concatMapDelayError(path -> fileService.deleteFile(path, progress))
+                                    .then())
+                    .subscribe(state -> ui.run(() -> {
+                        paths.forEach(listingCache::invalidate);
+                        view.getStatusLabel().setText(state == OperationState.COMPLETED
+                                ? "Deleted " + paths.size() + " item(s)"
+                                : "Delete cancelled");
+                        refreshDirectory();
+                    }), e -> ui.run(() -> {
+                        paths.forEach(listingCache::invalidate);
+                        view.getStatusLabel().setText("Delete failed");
+                        showError("Delete Failed", e.getMessage());
+                        refreshDirectory();
+                    }));
         }
     }
 
@@ -726,7 +1022,7 @@ public class FileManagerController {
         result.ifPresent(name -> {
             Path newFolder = currentPath.resolve(name);
             fileService.createDirectory(newFolder)
-                    .doOnSuccess(success -> Platform.runLater(() -> {
+                    .doOnSuccess(success -> ui.run(() -> {
                         if (success) {
                             refreshDirectory();
                         } else {
@@ -757,27 +1053,126 @@ public class FileManagerController {
                     .collect(Collectors.toList());
 
             String finalName = name;
-            // Show feedback for long running compression
-            view.getProgressIndicator().setVisible(true);
             view.getStatusLabel().setText("Compressing…");
-            suppressWatchRefresh = true;
-            fileService.compressFiles(files, zipFile)
-                    .doOnSuccess(v -> Platform.runLater(() -> {
-                        view.getProgressIndicator().setVisible(false);
-                        view.getStatusLabel().setText("Compressed to " + finalName);
-                        suppressWatchRefresh = false;
+            operations.submit(OperationKind.COMPRESS, finalName, List.of(zipFile),
+                            progress -> fileService.compressFiles(files, zipFile, progress))
+                    .subscribe(state -> ui.run(() -> {
+                        view.getStatusLabel().setText(state == OperationState.COMPLETED
+                                ? "Compressed to " + finalName
+                                : "Compression cancelled");
                         refreshDirectory();
-                    }))
-                    .doOnError(e -> Platform.runLater(() -> {
-                        view.getProgressIndicator().setVisible(false);
+                    }), e -> ui.run(() -> {
                         view.getStatusLabel().setText("Compression failed");
-                        suppressWatchRefresh = false;
                         showError("Compression Failed", e.getMessage());
-                    }))
-                    .subscribe();
+                    }));
         });
     }
 
+    public void handleSync() {
+        Path source = currentPath;
+
+        javafx.stage.DirectoryChooser chooser = new javafx.stage.DirectoryChooser();
+        chooser.setTitle("Mirror " + source.getFileName() + " to…");
+        java.io.File chosen = chooser.showDialog(view.getView().getScene().getWindow());
+        if (chosen == null) return;
+        Path target = chosen.toPath();
+
+        Optional<SyncOptions> options = askSyncOptions(source, target);
+        if (options.isEmpty()) return;
+
+        view.getStatusLabel().setText("Comparing " + source.getFileName() + " with " + target + "…");
+        fileService.planSync(source, target, options.get())
+                // The preview is modal, so it cannot open inside a dispatcher pulse
+                .subscribe(plan -> Platform.runLater(() -> confirmSync(plan)),
+                        e -> ui.run(() -> {
+                            view.getStatusLabel().setText("Sync failed");
+                            showError("Sync Failed", e.getMessage());
+                        }));
+    }
+
+    private Optional<SyncOptions> askSyncOptions(Path source, Path target) {
+        Dialog<SyncOptions> dialog = new Dialog<>();
+        dialog.setTitle("Sync");
+        dialog.setHeaderText("Make " + target + " match " + source);
+
+        CheckBox deleteExtraneous = new CheckBox("Delete items that are not in " + source.getFileName());
+        deleteExtraneous.setSelected(true);
+        CheckBox verifyContents = new CheckBox("Compare file contents (slower)");
+
+        GridPane grid = new GridPane();
+        grid.setHgap(10);
+        grid.setVgap(10);
+        grid.setPadding(new javafx.geometry.Insets(20));
+        grid.add(deleteExtraneous, 0, 0);
+        grid.add(verifyContents, 0, 1);
+
+        dialog.getDialogPane().setContent(grid);
+        dialog.getDialogPane().getButtonTypes().addAll(ButtonType.OK, ButtonType.CANCEL);
+        dialog.setResultConverter(button -> button == ButtonType.OK
+                ? new SyncOptions(deleteExtraneous.isSelected(), verifyContents.isSelected())
+                : null);
+        return dialog.showAndWait();
+    }
+
+    private void confirmSync(SyncPlan plan) {
+        if (plan.isEmpty()) {
+            view.getStatusLabel().setText("Already in sync (" + plan.unchanged() + " files checked)");
+            return;
+        }
+        view.getStatusLabel().setText("Ready to sync");
+
+        Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
+        alert.setTitle("Sync");
+        alert.setHeaderText("Apply " + plan.actions().size() + " change(s) to " + plan.target() + "?");
+        alert.setContentText(String.format("%d folder(s) to create, %d file(s) to copy (%s), %d to update, %d to delete. %d unchanged.",
+                plan.count(SyncActionType.CREATE_DIRECTORY), plan.count(SyncActionType.COPY),
+                formatSize(plan.bytesToCopy()), plan.count(SyncActionType.UPDATE),
+                plan.count(SyncActionType.DELETE), plan.unchanged()));
+
+        // Preview of the plan; very large plans are cut short
+        StringBuilder preview = new StringBuilder();
+        plan.actions().stream().limit(SYNC_PREVIEW_LIMIT).forEach(action -> preview
+                .append(switch (action.type()) {
+                    case CREATE_DIRECTORY, COPY -> "+ ";
+                    case UPDATE -> "~ ";
+                    case DELETE -> "- ";
+                })
+                .append(plan.target().relativize(action.target()))
+                .append('\n'));
+        if (plan.actions().size() > SYNC_PREVIEW_LIMIT) {
+            preview.append("… and ").append(plan.actions().size() - SYNC_PREVIEW_LIMIT).append(" more\n");
+        }
+        TextArea details = new TextArea(preview.toString());
+        details.setEditable(false);
+        details.setPrefRowCount(15);
+        alert.getDialogPane().setExpandableContent(details);
+
+        Optional<ButtonType> result = alert.showAndWait();
+        if (result.isEmpty() || result.get() != ButtonType.OK) return;
+
+        Path target = plan.target();
+        operations.submit(OperationKind.SYNC, plan.source().getFileName() + " → " + target, List.of(target),
+                        progress -> fileService.executeSync(plan, progress))
+                .subscribe(state -> ui.run(() -> {
+                    listingCache.invalidate(target);
+                    view.getStatusLabel().setText(state == OperationState.COMPLETED ? "Sync completed" : "Sync cancelled");
+                    if (currentPath.startsWith(target)) {
+                        refreshDirectory();
+                    }
+                }), e -> ui.run(() -> {
+                    listingCache.invalidate(target);
+                    view.getStatusLabel().setText("Sync failed");
+                    showError("Sync Failed", e.getMessage());
+                }));
+    }
+
+    private String formatSize(long size) {
+        if (size < 1024) return size + " B";
+        if (size < 1024 * 1024) return String.format("%.2f KB", size / 1024.0);
+        if (size < 1024 * 1024 * 1024) return String.format("%.2f MB", size / (1024.0 * 1024));
+        return String.format("%.2f GB", size / (1024.0 * 1024 * 1024));
+    }
+
     public void handleOpenTerminal() {
         openTerminalAt(currentPath);
     }
@@ -809,22 +1204,26 @@ public class FileManagerController {
         }
 
         // Upload to current remote service
-        view.getProgressIndicator().setVisible(true);
         view.getStatusLabel().setText("Backing up to cloud...");
 
         RemoteFileSystemService service =
                 remoteBrowserController.getCurrentService();
-
-        service.uploadFile(item.path(), item.name())
-                .doOnSuccess(v -> Platform.runLater(() -> {
-                    view.getProgressIndicator().setVisible(false);
-                    view.getStatusLabel().setText("Backup complete: " + item.name());
-                }))
-                .doOnError(error -> Platform.runLater(() -> {
-                    view.getProgressIndicator().setVisible(false);
-                    showError("Backup Failed", error.getMessage());
-                }))
-                .subscribe();
+        long size = item.isDirectory() ? 0 : item.size();
+
+        // Nothing local changes, so no paths to keep the watcher away from
+        operations.submit(OperationKind.UPLOAD, item.name(), List.of(),
+                        progress -> {
+                            progress.expect(size, 1);
+                            return service.uploadFile(item.path(), item.name(), progress)
+                                    .doOnSuccess(uploaded -> {
+                                        progress.addFiles(1);
+                                        remoteBrowserController.remoteItemAdded(service, "root", uploaded);
+                                    })
+                                    .then();
+                        })
+                .subscribe(state -> ui.run(() -> view.getStatusLabel().setText(
+                        state == OperationState.COMPLETED ? "Backup complete: " + item.name() : "Backup cancelled")),
+                        error -> ui.run(() -> showError("Backup Failed", error.getMessage())));
     }
 
     private void showError(String title, String message) {
@@ -832,6 +1231,16 @@ public class FileManagerController {
         alert.setTitle(title);
         alert.setHeaderText(null);
         alert.setContentText(message);
-        alert.showAndWait();
+        // Not showAndWait: errors are also reported from dispatcher pulses, where blocking is not allowed
+        alert.show();
+    }
+
+    /**
+     * One load or search, tagged with the generation it was issued in.
+     *
+     * @param generation value of {@code listingGeneration} when the request was made
+     * @param updates    UI mutations to run on the FX thread, in order
+     */
+    private record ListingRequest(long generation, Flux<Runnable> updates) {
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,70 @@
+package io.nomard.flux_file.presentation.controller.main;
+
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Optional;
+
+/**
+ * Back/forward stack of visited directories, as in a web browser.
+ * Visiting a new directory clears the forward stack.
+ */
+class NavigationHistory {
+
+    private static final int MAX_ENTRIES = 100;
+
+    private final Deque<Path> backStack = new ArrayDeque<>();
+    private final Deque<Path> forwardStack = new ArrayDeque<>();
+
+    /**
+     * Record that the user left {@code current} for a new directory.
+     */
+    void visit(Path current) {
+        if (current == null) {
+            return;
+        }
+        if (!current.equals(backStack.peek())) {
+            backStack.push(current);
+            trim(backStack);
+        }
+        forwardStack.clear();
+    }
+
+    /**
+     * Step back from {@code current}, returning the directory to show.
+     */
+    Optional<Path> back(Path current) {
+        Path previous = backStack.poll();
+        if (previous != null && current != null) {
+            forwardStack.push(current);
+            trim(forwardStack);
+        }
+        return Optional.ofNullable(previous);
+    }
+
+    /**
+     * Step forward from {@code current}, returning the directory to show.
+     */
+    Optional<Path> forward(Path current) {
+        Path next = forwardStack.poll();
+        if (next != null && current != null) {
+            backStack.push(current);
+            trim(backStack);
+        }
+        return Optional.ofNullable(next);
+    }
+
+    boolean canGoBack() {
+        return !backStack.isEmpty();
+    }
+
+    boolean canGoForward() {
+        return !forwardStack.isEmpty();
+    }
+
+    private void trim(Deque<Path> stack) {
+        while (stack.size() > MAX_ENTRIES) {
+            stack.removeLast();
+        }
+    }
+}
@@ -1,41 +1,68 @@
 package io.nomard.flux_file.presentation.controller.remote;
 
+import io.nomard.flux_file.core.domain.model.RemoteChange;
 import io.nomard.flux_file.core.domain.model.RemoteFileItem;
+import io.nomard.flux_file.infrastructure.service.operation.OperationState;
 import io.nomard.flux_file.infrastructure.service.remote.RemoteConnectionManager;
 import io.nomard.flux_file.infrastructure.service.remote.RemoteFileSystemService;
+import io.nomard.flux_file.infrastructure.service.remote.RemoteListingCache;
+import io.nomard.flux_file.infrastructure.service.remote.RemoteTransferQueue;
+import io.nomard.flux_file.presentation.controller.UiDispatcher;
 import io.nomard.flux_file.presentation.view.remote.RemoteBrowserView;
 import io.nomard.flux_file.presentation.view.remote.RemoteConnectionDialog;
-import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.scene.control.*;
 import javafx.scene.input.MouseButton;
 import javafx.stage.DirectoryChooser;
 import javafx.stage.FileChooser;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.util.retry.Retry;
 
 import java.io.File;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
+@Slf4j
 @Component
 public class RemoteBrowserController {
 
+    // A change feed that keeps failing is dropped; Refresh starts a new one
+    private static final int WATCH_RETRIES = 3;
+    private static final Duration WATCH_RETRY_DELAY = Duration.ofSeconds(5);
+
     @Autowired
     private RemoteConnectionManager connectionManager;
     
     @Autowired
     private RemoteConnectionDialog connectionDialog;
 
+    @Autowired
+    private UiDispatcher ui;
+
+    @Autowired
+    private RemoteListingCache listingCache;
+
+    @Autowired
+    private RemoteTransferQueue transfers;
+
     private RemoteBrowserView view;
     private ObservableList<RemoteFileItem> remoteFileItems = FXCollections.observableArrayList();
     private RemoteFileSystemService currentService;
     private String currentRemotePath;
     private String connectionName;
+    // Bumped on every navigation so a slow listing cannot overwrite a newer one
+    private long listingGeneration = 0;
+    private Disposable listing;
+    private Disposable changeFeed;
 
     public void setView(RemoteBrowserView view) {
         this.view = view;
@@ -102,8 +129,9 @@ public class RemoteBrowserController {
             view.getStatusLabel().setText("Connecting to " + connection.getService() + "...");
             
             currentService.connect(connection.getCredentials())
-                .doOnSuccess(success -> Platform.runLater(() -> {
+                .doOnSuccess(success -> ui.run(() -> {
                     if (success) {
+                        listingCache.invalidateAll(currentService.getServiceName());
                         connectionManager.registerConnection(connectionName, currentService);
                         view.getConnectionLabel().setText(connectionName + " (" + connection.getService() + ")");
                         view.getStatusLabel().setText("Connected successfully");
@@ -118,7 +146,7 @@ public class RemoteBrowserController {
                         showError("Connection Failed", "Could not connect to " + connection.getService());
                     }
                 }))
-                .doOnError(error -> Platform.runLater(() -> {
+                .doOnError(error -> ui.run(() -> {
                     view.getProgressIndicator().setVisible(false);
                     showError("Connection Error", error.getMessage());
                 }))
@@ -146,7 +174,7 @@ public class RemoteBrowserController {
         
         currentService.getUsedSpace()
             .zipWith(currentService.getAvailableSpace())
-            .doOnSuccess(tuple -> Platform.runLater(() -> {
+            .doOnSuccess(tuple -> ui.run(() -> {
                 long used = tuple.getT1();
                 long available = tuple.getT2();
                 
@@ -174,10 +202,19 @@ public class RemoteBrowserController {
     public void disconnect() {
         if (currentService != null) {
             currentService.disconnect()
-                .doOnSuccess(v -> Platform.runLater(() -> {
+                .doOnSuccess(v -> ui.run(() -> {
                     if (connectionName != null) {
                         connectionManager.removeConnection(connectionName);
                     }
+                    if (currentService != null) {
+                        listingCache.invalidateAll(currentService.getServiceName());
+                    }
+                    if (listing != null) {
+                        listing.dispose();
+                    }
+                    if (changeFeed != null) {
+                        changeFeed.dispose();
+                    }
                     currentService = null;
                     currentRemotePath = null;
                     connectionName = null;
@@ -190,31 +227,153 @@ public class RemoteBrowserController {
         }
     }
 
+    /**
+     * Show a folder. A cached listing is shown at once; if it is no longer fresh it is
+     * refetched in the background and swapped in when it arrives.
+     */
     private void loadDirectory(String remotePath) {
         if (currentService == null) {
             showError("Error", "Not connected to any remote service");
             return;
         }
-        
+        if (listing != null) {
+            listing.dispose();
+        }
+
+        long generation = ++listingGeneration;
+        RemoteFileSystemService service = currentService;
+        String serviceName = service.getServiceName();
+        String folder = remotePath != null ? remotePath : "root";
+        currentRemotePath = folder;
+        view.getPathField().setText(folder);
+        watch(service, remotePath, folder, generation);
+
+        Optional<RemoteListingCache.CachedListing> cached = listingCache.get(serviceName, folder);
+        if (cached.isPresent()) {
+            showListing(cached.get().items());
+            if (listingCache.isFresh(cached.get())) {
+                return;
+            }
+            view.getStatusLabel().setText(remoteFileItems.size() + " items (refreshing...)");
+            listing = service.listFiles(remotePath)
+                .collectList()
+                .subscribe(
+                    items -> {
+                        listingCache.put(serviceName, folder, items);
+                        ui.run(() -> {
+                            if (generation == listingGeneration) showListing(items);
+                        });
+                    },
+                    error -> {
+                        // The cached listing stays up; only say it may be out of date
+                        log.warn("Failed to refresh remote listing {}: {}", folder, error.getMessage());
+                        ui.run(() -> {
+                            if (generation == listingGeneration) {
+                                view.getStatusLabel().setText(remoteFileItems.size() + " items (could not refresh)");
+                            }
+                        });
+                    });
+            return;
+        }
+
         remoteFileItems.clear();
         view.getProgressIndicator().setVisible(true);
         view.getStatusLabel().setText("Loading...");
-        
-        currentService.listFiles(remotePath)
-            .doOnNext(item -> Platform.runLater(() -> remoteFileItems.add(item)))
-            .doOnComplete(() -> Platform.runLater(() -> {
-                view.getProgressIndicator().setVisible(false);
-                view.getStatusLabel().setText(remoteFileItems.size() + " items");
-                currentRemotePath = remotePath != null ? remotePath : "root";
-                view.getPathField().setText(currentRemotePath);
-            }))
-            .doOnError(error -> Platform.runLater(() -> {
+
+        // Filled on the listing's thread, one page after another
+        List<RemoteFileItem> loaded = new ArrayList<>();
+        listing = service.listFiles(remotePath)
+            .doOnNext(item -> {
+                loaded.add(item);
+                ui.run(() -> {
+                    if (generation == listingGeneration) remoteFileItems.add(item);
+                });
+            })
+            .doOnComplete(() -> {
+                listingCache.put(serviceName, folder, loaded);
+                ui.run(() -> {
+                    if (generation != listingGeneration) return;
+                    view.getProgressIndicator().setVisible(false);
+                    view.getStatusLabel().setText(remoteFileItems.size() + " items");
+                });
+            })
+            .doOnError(error -> ui.run(() -> {
+                if (generation != listingGeneration) return;
                 view.getProgressIndicator().setVisible(false);
                 showError("Error", "Failed to load directory: " + error.getMessage());
             }))
             .subscribe();
     }
 
+    /**
+     * Follow the service's change feed for the shown folder, applying each change in place to
+     * the table and to the cached listing. Replaced on every navigation.
+     */
+    private void watch(RemoteFileSystemService service, String remotePath, String folder, long generation) {
+        if (changeFeed != null) {
+            changeFeed.dispose();
+        }
+        String serviceName = service.getServiceName();
+        changeFeed = service.watchChanges(remotePath)
+            .retryWhen(Retry.backoff(WATCH_RETRIES, WATCH_RETRY_DELAY))
+            .subscribe(
+                change -> applyChange(serviceName, folder, generation, change),
+                error -> log.warn("Stopped watching remote folder {}: {}", folder, error.getMessage()));
+    }
+
+    private void applyChange(String serviceName, String folder, long generation, RemoteChange change) {
+        switch (change.type()) {
+            case UPSERTED -> listingCache.added(serviceName, folder, change.item());
+            case REMOVED -> listingCache.removed(serviceName, folder, change.itemId());
+            case RESET -> listingCache.invalidate(serviceName, folder);
+        }
+        ui.run(() -> {
+            if (generation != listingGeneration) return;
+            switch (change.type()) {
+                case UPSERTED -> upsertRow(change.item());
+                case REMOVED -> remoteFileItems.removeIf(item -> item.getId().equals(change.itemId()));
+                case RESET -> refreshDirectory();
+            }
+        });
+    }
+
+    private void upsertRow(RemoteFileItem item) {
+        for (int i = 0; i < remoteFileItems.size(); i++) {
+            if (remoteFileItems.get(i).getId().equals(item.getId())) {
+                remoteFileItems.set(i, item);
+                return;
+            }
+        }
+        remoteFileItems.add(item);
+    }
+
+    private void showListing(List<RemoteFileItem> items) {
+        remoteFileItems.setAll(items);
+        view.getProgressIndicator().setVisible(false);
+        view.getStatusLabel().setText(items.size() + " items");
+    }
+
+    /**
+     * Re-show the current folder after a local change, from the cache when it is still there.
+     */
+    private void showCurrentFolder() {
+        if (currentService == null) return;
+        listingCache.get(currentService.getServiceName(), currentRemotePath)
+            .ifPresentOrElse(cached -> showListing(cached.items()), () -> loadDirectory(currentRemotePath));
+    }
+
+    /**
+     * Record an item uploaded from elsewhere in the app, e.g. a backup, in {@code folder}'s listing.
+     */
+    public void remoteItemAdded(RemoteFileSystemService service, String folder, RemoteFileItem item) {
+        listingCache.added(service.getServiceName(), folder, item);
+        ui.run(() -> {
+            if (service == currentService && Objects.equals(folder, currentRemotePath)) {
+                showCurrentFolder();
+            }
+        });
+    }
+
     private void navigateToDirectory(String remotePath) {
         loadDirectory(remotePath);
     }
@@ -239,6 +398,9 @@ public class RemoteBrowserController {
     }
 
     public void refreshDirectory() {
+        if (currentService != null) {
+            listingCache.invalidate(currentService.getServiceName(), currentRemotePath);
+        }
         loadDirectory(currentRemotePath);
     }
 
@@ -260,43 +422,19 @@ public class RemoteBrowserController {
             view.getStatusLabel().setText("Downloading " + selected.size() + " item(s)...");
             
             List<RemoteFileItem> itemsToDownload = new ArrayList<>(selected);
-            downloadFiles(itemsToDownload, downloadPath, 0);
+            downloadFiles(itemsToDownload, downloadPath);
         }
     }
 
-    private void downloadFiles(List<RemoteFileItem> items, Path downloadPath, int index) {
-        if (index >= items.size()) {
-            Platform.runLater(() -> {
-                view.getProgressIndicator().setVisible(false);
-                view.getStatusLabel().setText("Download complete");
-            });
-            return;
-        }
-        
-        RemoteFileItem item = items.get(index);
-        
-        if (item.isDirectory()) {
-            // Skip directories for now - could implement recursive download
-            downloadFiles(items, downloadPath, index + 1);
-            return;
-        }
-        
-        Path localFile = downloadPath.resolve(item.getName());
-        
-        currentService.downloadFile(item.getId(), localFile)
-            .doOnSuccess(v -> {
-                Platform.runLater(() -> {
-                    view.getStatusLabel().setText(
-                        String.format("Downloaded %d of %d", index + 1, items.size())
-                    );
-                });
-                downloadFiles(items, downloadPath, index + 1);
-            })
-            .doOnError(error -> Platform.runLater(() -> {
-                view.getProgressIndicator().setVisible(false);
-                showError("Download Failed", "Failed to download " + item.getName() + ": " + error.getMessage());
-            }))
-            .subscribe();
+    // Folders are walked as they download; files already in place are skipped
+    private void downloadFiles(List<RemoteFileItem> items, Path downloadPath) {
+        transfers.download(currentService, items, downloadPath)
+            .subscribe(
+                state -> ui.run(() -> transferFinished(state, "Download complete")),
+                error -> ui.run(() -> {
+                    view.getProgressIndicator().setVisible(false);
+                    showError("Download Failed", "Failed to download: " + error.getMessage());
+                }));
     }
 
     public void handleUpload() {
@@ -313,39 +451,43 @@ public class RemoteBrowserController {
             view.getProgressIndicator().setVisible(true);
             view.getStatusLabel().setText("Uploading " + files.size() + " file(s)...");
             
-            uploadFiles(files, 0);
+            uploadFiles(files.stream().map(File::toPath).toList(), currentRemotePath);
         }
     }
 
-    private void uploadFiles(List<File> files, int index) {
-        if (index >= files.size()) {
-            Platform.runLater(() -> {
-                view.getProgressIndicator().setVisible(false);
-                view.getStatusLabel().setText("Upload complete");
-                refreshDirectory();
-            });
+    public void handleUploadFolder() {
+        if (currentService == null) {
+            showError("Error", "Not connected to any remote service");
             return;
         }
-        
-        File file = files.get(index);
-        String remoteDestination = currentRemotePath != null && !currentRemotePath.equals("root")
-            ? currentRemotePath + "/" + file.getName()
-            : file.getName();
-        
-        currentService.uploadFile(file.toPath(), remoteDestination)
-            .doOnSuccess(v -> {
-                Platform.runLater(() -> {
-                    view.getStatusLabel().setText(
-                        String.format("Uploaded %d of %d", index + 1, files.size())
-                    );
-                });
-                uploadFiles(files, index + 1);
-            })
-            .doOnError(error -> Platform.runLater(() -> {
-                view.getProgressIndicator().setVisible(false);
-                showError("Upload Failed", "Failed to upload " + file.getName() + ": " + error.getMessage());
-            }))
-            .subscribe();
+
+        DirectoryChooser directoryChooser = new DirectoryChooser();
+        directoryChooser.setTitle("Select Folder to Upload");
+        File directory = directoryChooser.showDialog(view.getView().getScene().getWindow());
+
+        if (directory != null) {
+            view.getProgressIndicator().setVisible(true);
+            view.getStatusLabel().setText("Uploading " + directory.getName() + "...");
+
+            uploadFiles(List.of(directory.toPath()), currentRemotePath);
+        }
+    }
+
+    // One transfer for the whole selection: folders are walked, files run in parallel
+    private void uploadFiles(List<Path> locals, String folder) {
+        RemoteFileSystemService service = currentService;
+        transfers.upload(service, locals, folder,
+                (parent, item) -> listingCache.added(service.getServiceName(), parent, item))
+            .subscribe(
+                state -> ui.run(() -> {
+                    showCurrentFolder();
+                    transferFinished(state, "Upload complete");
+                }),
+                error -> ui.run(() -> {
+                    view.getProgressIndicator().setVisible(false);
+                    showCurrentFolder();
+                    showError("Upload Failed", "Failed to upload: " + error.getMessage());
+                }));
     }
 
     public void handleDelete() {
@@ -362,36 +504,29 @@ public class RemoteBrowserController {
             view.getProgressIndicator().setVisible(true);
             
             List<RemoteFileItem> itemsToDelete = new ArrayList<>(selected);
-            deleteFiles(itemsToDelete, 0);
+            deleteFiles(itemsToDelete);
         }
     }
 
-    private void deleteFiles(List<RemoteFileItem> items, int index) {
-        if (index >= items.size()) {
-            Platform.runLater(() -> {
-                view.getProgressIndicator().setVisible(false);
-                view.getStatusLabel().setText("Deletion complete");
-                refreshDirectory();
-            });
-            return;
-        }
-        
-        RemoteFileItem item = items.get(index);
-        
-        currentService.deleteFile(item.getId())
-            .doOnSuccess(v -> {
-                Platform.runLater(() -> {
-                    view.getStatusLabel().setText(
-                        String.format("Deleted %d of %d", index + 1, items.size())
-                    );
-                });
-                deleteFiles(items, index + 1);
-            })
-            .doOnError(error -> Platform.runLater(() -> {
-                view.getProgressIndicator().setVisible(false);
-                showError("Delete Failed", "Failed to delete " + item.getName() + ": " + error.getMessage());
-            }))
-            .subscribe();
+    private void deleteFiles(List<RemoteFileItem> items) {
+        RemoteFileSystemService service = currentService;
+        transfers.delete(service, items, item -> listingCache.removed(service.getServiceName(), item.getId()))
+            .subscribe(
+                state -> ui.run(() -> {
+                    showCurrentFolder();
+                    transferFinished(state, "Deletion complete");
+                }),
+                error -> ui.run(() -> {
+                    view.getProgressIndicator().setVisible(false);
+                    showCurrentFolder();
+                    showError("Delete Failed", "Failed to delete: " + error.getMessage());
+                }));
+    }
+
+    // Progress itself is shown in the operations panel
+    private void transferFinished(OperationState state, String completed) {
+        view.getProgressIndicator().setVisible(false);
+        view.getStatusLabel().setText(state == OperationState.CANCELLED ? "Cancelled" : completed);
     }
 
     public void handleNewFolder() {
@@ -407,16 +542,20 @@ public class RemoteBrowserController {
         
         Optional<String> result = dialog.showAndWait();
         result.ifPresent(name -> {
-            String remotePath = currentRemotePath != null && !currentRemotePath.equals("root")
-                ? currentRemotePath + "/" + name
+            String folder = currentRemotePath;
+            String remotePath = folder != null && !folder.equals("root")
+                ? folder + "/" + name
                 : name;
             
             currentService.createDirectory(remotePath)
-                .doOnSuccess(v -> Platform.runLater(() -> {
-                    view.getStatusLabel().setText("Folder created");
-                    refreshDirectory();
-                }))
-                .doOnError(error -> Platform.runLater(() -> 
+                .doOnSuccess(created -> {
+                    listingCache.added(currentService.getServiceName(), folder, created);
+                    ui.run(() -> {
+                        showCurrentFolder();
+                        view.getStatusLabel().setText("Folder created");
+                    });
+                })
+                .doOnError(error -> ui.run(() -> 
                     showError("Error", "Failed to create folder: " + error.getMessage())))
                 .subscribe();
         });
@@ -427,7 +566,8 @@ public class RemoteBrowserController {
         alert.setTitle(title);
         alert.setHeaderText(null);
         alert.setContentText(message);
-        alert.showAndWait();
+        // Not showAndWait: errors are reported from dispatcher pulses, where blocking is not allowed
+        alert.show();
     }
 
     public RemoteFileSystemService getCurrentService() {
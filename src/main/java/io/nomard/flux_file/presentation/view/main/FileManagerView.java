@@ -1,6 +1,7 @@
 package io.nomard.flux_file.presentation.view.main;
 
 import io.nomard.flux_file.core.domain.model.FileItem;
+import io.nomard.flux_file.core.domain.sort.SortField;
 import io.nomard.flux_file.presentation.controller.main.FileManagerController;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
@@ -22,8 +23,12 @@ public class FileManagerView {
     private TextField searchField;
     private TableView<FileItem> fileTable;
     private Label statusLabel;
+    private Label mountStatusLabel;
     private ProgressIndicator progressIndicator;
+    private OperationsPanel operationsPanel;
     private Button backButton;
+    private Button forwardButton;
+    private Button upButton;
     private Button refreshButton;
     private CheckBox showHiddenCheckBox;
 
@@ -47,11 +52,13 @@ public class FileManagerView {
         // Toolbar
         ToolBar toolBar = new ToolBar();
         backButton = new Button("◄ Back");
-        Button forwardButton = new Button("► Forward");
+        forwardButton = new Button("► Forward");
+        upButton = new Button("▲ Up");
         refreshButton = new Button("⟳ Refresh");
         Button newFolderButton = new Button("📁 New Folder");
         Button deleteButton = new Button("🗑 Delete");
         Button compressButton = new Button("📦 Compress");
+        Button syncButton = new Button("⇄ Sync");
         Button terminalButton = new Button("⌨ Terminal");
         Button cloudButton = new Button("☁ Cloud");
         showHiddenCheckBox = new CheckBox("Show hidden");
@@ -59,11 +66,13 @@ public class FileManagerView {
         toolBar.getItems().addAll(
                 backButton,
                 forwardButton,
+                upButton,
                 refreshButton,
                 new Separator(),
                 newFolderButton,
                 deleteButton,
                 compressButton,
+                syncButton,
                 terminalButton,
                 cloudButton,
                 new Separator(),
@@ -89,11 +98,13 @@ public class FileManagerView {
 
         // Wire up button actions
         backButton.setOnAction(e -> controller.navigateBack());
-        forwardButton.setOnAction(e -> controller.refreshDirectory());
+        forwardButton.setOnAction(e -> controller.navigateForward());
+        upButton.setOnAction(e -> controller.navigateUp());
         refreshButton.setOnAction(e -> controller.refreshDirectory());
         newFolderButton.setOnAction(e -> controller.handleNewFolder());
         deleteButton.setOnAction(e -> controller.handleDelete());
         compressButton.setOnAction(e -> controller.handleCompress());
+        syncButton.setOnAction(e -> controller.handleSync());
         terminalButton.setOnAction(e -> controller.handleOpenTerminal());
         cloudButton.setOnAction(e -> controller.handleRemoteConnect());
 
@@ -106,6 +117,9 @@ public class FileManagerView {
 
         fileTable = new TableView<>();
         VBox.setVgrow(fileTable, Priority.ALWAYS);
+        fileTable.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+
+        // Columns carry their sort field; the controller sorts on raw keys off the FX thread
 
         // Create columns
         TableColumn<FileItem, String> nameColumn = new TableColumn<>("Name");
@@ -113,24 +127,28 @@ public class FileManagerView {
                 new javafx.beans.property.SimpleStringProperty(cellData.getValue().name())
         );
         nameColumn.setPrefWidth(400);
+        nameColumn.setUserData(SortField.NAME);
 
         TableColumn<FileItem, String> typeColumn = new TableColumn<>("Type");
         typeColumn.setCellValueFactory(cellData ->
                 new javafx.beans.property.SimpleStringProperty(cellData.getValue().getType())
         );
         typeColumn.setPrefWidth(100);
+        typeColumn.setUserData(SortField.TYPE);
 
         TableColumn<FileItem, String> sizeColumn = new TableColumn<>("Size");
         sizeColumn.setCellValueFactory(cellData ->
                 new javafx.beans.property.SimpleStringProperty(cellData.getValue().getFormattedSize())
         );
         sizeColumn.setPrefWidth(150);
+        sizeColumn.setUserData(SortField.SIZE);
 
         TableColumn<FileItem, String> modifiedColumn = new TableColumn<>("Modified");
         modifiedColumn.setCellValueFactory(cellData ->
                 new javafx.beans.property.SimpleStringProperty(cellData.getValue().getFormattedDate())
         );
         modifiedColumn.setPrefWidth(200);
+        modifiedColumn.setUserData(SortField.MODIFIED);
 
         fileTable.getColumns().addAll(nameColumn, typeColumn, sizeColumn, modifiedColumn);
         fileTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
@@ -140,7 +158,13 @@ public class FileManagerView {
         return centerSection;
     }
 
-    private HBox createBottomSection() {
+    private VBox createBottomSection() {
+        // Running operations sit above the status bar
+        operationsPanel = new OperationsPanel();
+        return new VBox(operationsPanel, createStatusBar());
+    }
+
+    private HBox createStatusBar() {
         HBox bottomSection = new HBox(10);
         bottomSection.setAlignment(Pos.CENTER_LEFT);
         bottomSection.setPadding(new Insets(5));
@@ -150,11 +174,17 @@ public class FileManagerView {
         Region spacer = new Region();
         HBox.setHgrow(spacer, Priority.ALWAYS);
 
+        // Shown only while a mount is not responding
+        mountStatusLabel = new Label();
+        mountStatusLabel.setStyle("-fx-text-fill: #b00020;");
+        mountStatusLabel.setVisible(false);
+        mountStatusLabel.setManaged(false);
+
         progressIndicator = new ProgressIndicator();
         progressIndicator.setPrefSize(20, 20);
         progressIndicator.setVisible(false);
 
-        bottomSection.getChildren().addAll(statusLabel, spacer, progressIndicator);
+        bottomSection.getChildren().addAll(statusLabel, spacer, mountStatusLabel, progressIndicator);
 
         return bottomSection;
     }
@@ -0,0 +1,136 @@
+package io.nomard.flux_file.presentation.view.main;
+
+import io.nomard.flux_file.infrastructure.service.operation.OperationSnapshot;
+import io.nomard.flux_file.infrastructure.service.operation.OperationState;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+import lombok.Setter;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongConsumer;
+
+/**
+ * One row per queued, running or recently finished operation: description, progress,
+ * throughput, and pause/resume and cancel buttons. Hidden while there is nothing to show.
+ */
+@Setter
+public class OperationsPanel extends VBox {
+
+    private final Map<Long, Row> rows = new HashMap<>();
+    private LongConsumer onPause = id -> {
+    };
+    private LongConsumer onResume = id -> {
+    };
+    private LongConsumer onCancel = id -> {
+    };
+
+    public OperationsPanel() {
+        super(4);
+        setPadding(new Insets(5));
+        setStyle("-fx-background-color: #fafafa; -fx-border-color: #dddddd; -fx-border-width: 1 0 0 0;");
+        setVisible(false);
+        setManaged(false);
+    }
+
+    /**
+     * Show the given operations; rows are reused by id so updates do not rebuild the panel.
+     */
+    public void update(List<OperationSnapshot> snapshots) {
+        Set<Long> seen = new HashSet<>();
+        for (OperationSnapshot snapshot : snapshots) {
+            seen.add(snapshot.id());
+            Row row = rows.get(snapshot.id());
+            if (row == null) {
+                row = new Row(snapshot.id());
+                rows.put(snapshot.id(), row);
+                getChildren().add(row);
+            }
+            row.update(snapshot);
+        }
+        rows.entrySet().removeIf(entry -> {
+            if (seen.contains(entry.getKey())) return false;
+            getChildren().remove(entry.getValue());
+            return true;
+        });
+        boolean any = !rows.isEmpty();
+        setVisible(any);
+        setManaged(any);
+    }
+
+    private static String formatSize(double size) {
+        if (size < 1024) return String.format("%.0f B", size);
+        if (size < 1024 * 1024) return String.format("%.2f KB", size / 1024.0);
+        if (size < 1024 * 1024 * 1024) return String.format("%.2f MB", size / (1024.0 * 1024));
+        return String.format("%.2f GB", size / (1024.0 * 1024 * 1024));
+    }
+
+    private final class Row extends HBox {
+        private final Label description = new Label();
+        private final ProgressBar progressBar = new ProgressBar(0);
+        private final Label detail = new Label();
+        private final Button pauseButton = new Button("Pause");
+        private final Button cancelButton = new Button("Cancel");
+        private OperationState state;
+
+        private Row(long id) {
+            super(10);
+            setAlignment(Pos.CENTER_LEFT);
+            description.setPrefWidth(300);
+            progressBar.setPrefWidth(200);
+            detail.setMinWidth(220);
+            HBox.setHgrow(detail, Priority.ALWAYS);
+
+            pauseButton.setOnAction(e -> {
+                if (state == OperationState.PAUSED) {
+                    onResume.accept(id);
+                } else {
+                    onPause.accept(id);
+                }
+            });
+            cancelButton.setOnAction(e -> onCancel.accept(id));
+
+            getChildren().addAll(description, progressBar, detail, pauseButton, cancelButton);
+        }
+
+        private void update(OperationSnapshot snapshot) {
+            state = snapshot.state();
+            description.setText(snapshot.kind().label() + ": " + snapshot.description());
+            progressBar.setProgress(snapshot.state() == OperationState.COMPLETED ? 1 : snapshot.fraction());
+            detail.setText(detailText(snapshot));
+            pauseButton.setText(state == OperationState.PAUSED ? "Resume" : "Pause");
+            pauseButton.setDisable(state.isTerminal());
+            cancelButton.setDisable(state.isTerminal());
+        }
+
+        private String detailText(OperationSnapshot snapshot) {
+            return switch (snapshot.state()) {
+                case QUEUED -> "Queued";
+                case PAUSED -> "Paused";
+                case COMPLETED -> "Done";
+                case CANCELLED -> "Cancelled";
+                case FAILED -> "Failed: " + snapshot.error();
+                case RUNNING -> {
+                    StringBuilder text = new StringBuilder();
+                    if (snapshot.filesTotal() > 0) {
+                        text.append(snapshot.filesDone()).append(" of ").append(snapshot.filesTotal()).append(" files");
+                    }
+                    if (snapshot.bytesPerSecond() > 0) {
+                        if (!text.isEmpty()) text.append(" · ");
+                        text.append(formatSize(snapshot.bytesPerSecond())).append("/s");
+                    }
+                    yield text.toString();
+                }
+            };
+        }
+    }
+}
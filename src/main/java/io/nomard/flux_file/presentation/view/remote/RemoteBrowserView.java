@@ -61,6 +61,7 @@ public class RemoteBrowserView {
         Button refreshButton = new Button("⟳ Refresh");
         downloadButton = new Button("⬇ Download");
         uploadButton = new Button("⬆ Upload");
+        Button uploadFolderButton = new Button("⬆ Upload Folder");
         Button newFolderButton = new Button("📁 New Folder");
         deleteButton = new Button("🗑 Delete");
         
@@ -70,6 +71,7 @@ public class RemoteBrowserView {
             new Separator(),
             downloadButton,
             uploadButton,
+            uploadFolderButton,
             newFolderButton,
             deleteButton
         );
@@ -93,6 +95,7 @@ public class RemoteBrowserView {
         refreshButton.setOnAction(e -> controller.refreshDirectory());
         downloadButton.setOnAction(e -> controller.handleDownload());
         uploadButton.setOnAction(e -> controller.handleUpload());
+        uploadFolderButton.setOnAction(e -> controller.handleUploadFolder());
         newFolderButton.setOnAction(e -> controller.handleNewFolder());
         deleteButton.setOnAction(e -> controller.handleDelete());
         
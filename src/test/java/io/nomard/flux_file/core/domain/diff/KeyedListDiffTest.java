@@ -0,0 +1,185 @@
+package io.nomard.flux_file.core.domain.diff;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeyedListDiffTest {
+
+    @Test
+    void identicalListingsProduceNoEdits() {
+        List<Item> items = items("a", "b", "c");
+
+        KeyedListDiff<Item> diff = apply(items, items("a", "b", "c"));
+
+        assertTrue(diff.isEmpty());
+    }
+
+    @Test
+    void movedItemIsRemovedAndReinserted() {
+        KeyedListDiff<Item> diff = apply(items("a", "b", "c", "d", "e"), items("e", "a", "b", "c", "d"));
+
+        assertFalse(diff.isWholesale());
+        assertEquals(1, diff.movedCount());
+        assertEquals(0, diff.insertedCount());
+        assertEquals(0, diff.removedCount());
+    }
+
+    @Test
+    void insertsAtStartMiddleAndEnd() {
+        KeyedListDiff<Item> diff = apply(items("b", "d"), items("a", "b", "c", "d", "e"));
+
+        assertFalse(diff.isWholesale());
+        assertEquals(3, diff.insertedCount());
+        assertEquals(0, diff.removedCount());
+    }
+
+    @Test
+    void removesSeveralRunsHighestFirst() {
+        KeyedListDiff<Item> diff = apply(items("a", "b", "c", "d", "e", "f", "g"), items("b", "e", "g"));
+
+        assertFalse(diff.isWholesale());
+        assertEquals(4, diff.removedCount());
+        assertEquals(0, diff.insertedCount());
+    }
+
+    @Test
+    void changedItemsAreReplacedInPlace() {
+        List<Item> target = items("a", "b", "c");
+        target.set(1, new Item("b", 1));
+
+        KeyedListDiff<Item> diff = apply(items("a", "b", "c"), target);
+
+        assertEquals(1, diff.changedCount());
+        assertEquals(0, diff.movedCount());
+    }
+
+    @Test
+    void removalsInsertionsMovesAndChangesTogether() {
+        List<Item> target = items("x", "d", "a", "y", "c", "f");
+        target.set(4, new Item("c", 2));
+
+        KeyedListDiff<Item> diff = apply(items("a", "b", "c", "d", "e", "f"), target);
+
+        assertFalse(diff.isWholesale());
+        assertEquals(2, diff.insertedCount());
+        assertEquals(2, diff.removedCount());
+        assertEquals(1, diff.movedCount());
+    }
+
+    @Test
+    void duplicateTargetKeysFallBackToWholesale() {
+        KeyedListDiff<Item> diff = apply(items("a", "b", "c"), items("a", "b", "b", "c"));
+
+        assertTrue(diff.isWholesale());
+    }
+
+    @Test
+    void duplicateSourceKeysStillReachTheTarget() {
+        apply(items("a", "b", "a", "c", "b"), items("c", "b", "a"));
+    }
+
+    @Test
+    void emptyListingsAreReplacedWholesale() {
+        assertTrue(apply(items(), items("a", "b")).isWholesale());
+        assertTrue(apply(items("a", "b"), items()).isWholesale());
+    }
+
+    @Test
+    void listThatNoLongerHoldsTheSourceIsRefilled() {
+        KeyedListDiff<Item> diff = KeyedListDiff.compute(items("a", "b"), items("b", "c"), Item::key);
+        List<Item> list = items("a", "b", "z");
+
+        diff.applyTo(list);
+
+        assertEquals(items("b", "c"), list);
+    }
+
+    @Test
+    void reversalStaysIncremental() {
+        List<Item> source = numbered(1_000);
+        List<Item> target = new ArrayList<>(source);
+        Collections.reverse(target);
+
+        KeyedListDiff<Item> diff = apply(source, target);
+
+        assertFalse(diff.isWholesale());
+        assertEquals(999, diff.movedCount());
+    }
+
+    @Test
+    void largeShuffleReachesTheTarget() {
+        List<Item> source = numbered(5_000);
+        List<Item> target = new ArrayList<>(source);
+        Collections.shuffle(target, new Random(7));
+
+        apply(source, target);
+    }
+
+    @Test
+    void scatteredMovesPastTheOperationCapAreWholesale() {
+        // Every adjacent pair swapped: one separate removal and insertion run per pair
+        List<Item> source = numbered(2_000);
+        List<Item> target = new ArrayList<>(source);
+        for (int k = 0; k + 1 < target.size(); k += 2) {
+            Collections.swap(target, k, k + 1);
+        }
+
+        assertTrue(apply(source, target).isWholesale());
+        assertFalse(apply(source, target.subList(0, 200)).isWholesale());
+    }
+
+    @Test
+    void randomEditsAlwaysReachTheTarget() {
+        Random random = new Random(11);
+        for (int round = 0; round < 500; round++) {
+            List<Item> source = new ArrayList<>();
+            List<Item> target = new ArrayList<>();
+            for (int k = 0; k < 60; k++) {
+                if (random.nextInt(4) != 0) source.add(new Item("k" + k, 0));
+                if (random.nextInt(4) != 0) target.add(new Item("k" + k, random.nextInt(8) == 0 ? 1 : 0));
+            }
+            Collections.shuffle(source, random);
+            if (random.nextBoolean()) {
+                Collections.shuffle(target, random);
+            }
+
+            apply(source, target);
+        }
+    }
+
+    // Computes the diff, applies it to a copy of the source and checks the copy equals the target
+    private static KeyedListDiff<Item> apply(List<Item> source, List<Item> target) {
+        KeyedListDiff<Item> diff = KeyedListDiff.compute(source, target, Item::key);
+        List<Item> list = new ArrayList<>(source);
+        diff.applyTo(list);
+        assertEquals(target, list);
+        return diff;
+    }
+
+    private static List<Item> items(String... keys) {
+        List<Item> items = new ArrayList<>();
+        for (String key : keys) {
+            items.add(new Item(key, 0));
+        }
+        return items;
+    }
+
+    private static List<Item> numbered(int count) {
+        List<Item> items = new ArrayList<>(count);
+        for (int k = 0; k < count; k++) {
+            items.add(new Item("item-" + k, 0));
+        }
+        return items;
+    }
+
+    private record Item(String key, int version) {
+    }
+}
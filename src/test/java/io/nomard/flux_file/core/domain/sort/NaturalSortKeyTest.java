@@ -0,0 +1,63 @@
+package io.nomard.flux_file.core.domain.sort;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NaturalSortKeyTest {
+
+    @Test
+    void numbersOrderByValue() {
+        assertEquals(List.of("file1", "file2", "file10", "file100"),
+                sorted("file100", "file10", "file2", "file1"));
+    }
+
+    @Test
+    void numbersSortBeforeLetters() {
+        assertEquals(List.of("1", "9", "a", "b2"), sorted("b2", "a", "9", "1"));
+    }
+
+    @Test
+    void leadingZerosDoNotChangeTheValue() {
+        assertEquals(NaturalSortKey.of("file1"), NaturalSortKey.of("file01"));
+        assertEquals(NaturalSortKey.of("file1"), NaturalSortKey.of("file0001"));
+        assertEquals(NaturalSortKey.of("a0"), NaturalSortKey.of("a000"));
+        assertTrue(NaturalSortKey.of("file002").compareTo(NaturalSortKey.of("file10")) < 0);
+    }
+
+    @Test
+    void caseIsFolded() {
+        assertEquals(NaturalSortKey.of("readme.TXT"), NaturalSortKey.of("README.txt"));
+        assertEquals(List.of("apple", "Banana", "cherry"), sorted("cherry", "Banana", "apple"));
+    }
+
+    @Test
+    void digitRunsLongerThanACharOrderByLength() {
+        String shortRun = "9".repeat(65_534);
+        String escapedRun = "9".repeat(65_535);
+        String longRun = "1" + "0".repeat(70_000);
+        String longerRun = "1" + "0".repeat(131_072);
+
+        assertEquals(List.of(shortRun, escapedRun, longRun, longerRun),
+                sorted(longerRun, longRun, escapedRun, shortRun));
+        assertTrue(NaturalSortKey.of(longRun).compareTo(NaturalSortKey.of("2" + "0".repeat(70_000))) < 0);
+        assertEquals(NaturalSortKey.of(longRun), NaturalSortKey.of("000" + longRun));
+    }
+
+    @Test
+    void emptyAndNullNamesHaveEmptyKeys() {
+        assertEquals("", NaturalSortKey.of(""));
+        assertEquals("", NaturalSortKey.of(null));
+    }
+
+    private static List<String> sorted(String... names) {
+        List<String> list = new ArrayList<>(List.of(names));
+        list.sort(Comparator.comparing(NaturalSortKey::of));
+        return list;
+    }
+}
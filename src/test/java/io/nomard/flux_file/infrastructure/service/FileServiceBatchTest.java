@@ -0,0 +1,170 @@
+package io.nomard.flux_file.infrastructure.service;
+
+import io.nomard.flux_file.core.domain.model.ConflictPolicy;
+import io.nomard.flux_file.infrastructure.service.operation.OperationProgress;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FileServiceBatchTest {
+
+    @TempDir
+    Path root;
+
+    private final FileService fileService = new FileService();
+
+    @Test
+    void keepBothPastesUnderAFreeName() throws IOException {
+        Path source = write(root.resolve("source/report.txt"), "new");
+        Path target = write(root.resolve("target/report.txt"), "old");
+
+        copy(List.of(source), target.getParent(), ConflictPolicy.KEEP_BOTH);
+
+        assertEquals("old", Files.readString(target));
+        assertEquals("new", Files.readString(target.resolveSibling("report (1).txt")));
+    }
+
+    @Test
+    void skipLeavesTheExistingItem() throws IOException {
+        Path source = write(root.resolve("source/report.txt"), "new");
+        Path other = write(root.resolve("source/other.txt"), "other");
+        Path target = write(root.resolve("target/report.txt"), "old");
+
+        copy(List.of(source, other), target.getParent(), ConflictPolicy.SKIP);
+
+        assertEquals("old", Files.readString(target));
+        assertEquals("other", Files.readString(target.resolveSibling("other.txt")));
+    }
+
+    @Test
+    void replaceOverwritesAFile() throws IOException {
+        Path source = write(root.resolve("source/report.txt"), "new");
+        Path target = write(root.resolve("target/report.txt"), "old");
+
+        copy(List.of(source), target.getParent(), ConflictPolicy.REPLACE);
+
+        assertEquals("new", Files.readString(target));
+        assertEquals(List.of("report.txt"), names(target.getParent()));
+    }
+
+    @Test
+    void replaceSwapsAFolderWholeRatherThanMerging() throws IOException {
+        write(root.resolve("source/folder/shared.txt"), "new");
+        write(root.resolve("target/folder/shared.txt"), "old");
+        write(root.resolve("target/folder/extra.txt"), "extra");
+
+        copy(List.of(root.resolve("source/folder")), root.resolve("target"), ConflictPolicy.REPLACE);
+
+        Path folder = root.resolve("target/folder");
+        assertEquals(List.of("shared.txt"), names(folder));
+        assertEquals("new", Files.readString(folder.resolve("shared.txt")));
+        // No staged or set-aside copies are left behind
+        assertEquals(List.of("folder"), names(root.resolve("target")));
+    }
+
+    @Test
+    void replaceSwapsAFileForAFolder() throws IOException {
+        write(root.resolve("source/item/inside.txt"), "inside");
+        write(root.resolve("target/item"), "a file");
+
+        copy(List.of(root.resolve("source/item")), root.resolve("target"), ConflictPolicy.REPLACE);
+
+        assertTrue(Files.isDirectory(root.resolve("target/item")));
+        assertEquals("inside", Files.readString(root.resolve("target/item/inside.txt")));
+    }
+
+    @Test
+    void replaceRemovesALinkWithoutTouchingWhereItPoints() throws IOException {
+        Path elsewhere = write(root.resolve("elsewhere/keep.txt"), "keep");
+        Path source = write(root.resolve("source/report.txt"), "new");
+        Files.createDirectories(root.resolve("target"));
+        Path link = Files.createSymbolicLink(root.resolve("target/report.txt"), elsewhere);
+
+        copy(List.of(source), root.resolve("target"), ConflictPolicy.REPLACE);
+
+        assertFalse(Files.isSymbolicLink(link));
+        assertEquals("new", Files.readString(link));
+        assertEquals("keep", Files.readString(elsewhere));
+    }
+
+    @Test
+    void linksAreCopiedAsLinks() throws IOException {
+        write(root.resolve("source/folder/file.txt"), "content");
+        Files.createSymbolicLink(root.resolve("source/folder/link"), Path.of("file.txt"));
+        Files.createDirectories(root.resolve("target"));
+
+        copy(List.of(root.resolve("source/folder")), root.resolve("target"), ConflictPolicy.REPLACE);
+
+        Path link = root.resolve("target/folder/link");
+        assertTrue(Files.isSymbolicLink(link));
+        assertEquals(Path.of("file.txt"), Files.readSymbolicLink(link));
+    }
+
+    @Test
+    void pastingIntoTheSameFolderCopiesUnderANewName() throws IOException {
+        Path source = write(root.resolve("folder/report.txt"), "content");
+
+        copy(List.of(source), source.getParent(), ConflictPolicy.REPLACE);
+
+        assertEquals(List.of("report (1).txt", "report.txt"), names(source.getParent()));
+    }
+
+    @Test
+    void movingIntoTheSameFolderDoesNothing() throws IOException {
+        Path source = write(root.resolve("folder/report.txt"), "content");
+
+        fileService.moveBatch(List.of(source), source.getParent(), ConflictPolicy.REPLACE, OperationProgress.NONE)
+                .block();
+
+        assertEquals(List.of("report.txt"), names(source.getParent()));
+    }
+
+    @Test
+    void pastingAFolderIntoItselfIsRefused() throws IOException {
+        write(root.resolve("folder/file.txt"), "content");
+        Path inside = Files.createDirectories(root.resolve("folder/inside"));
+
+        assertThrows(RuntimeException.class,
+                () -> copy(List.of(root.resolve("folder")), inside, ConflictPolicy.KEEP_BOTH));
+        assertEquals(List.of(), names(inside));
+    }
+
+    @Test
+    void moveReplaceSwapsInTheSource() throws IOException {
+        write(root.resolve("source/folder/new.txt"), "new");
+        write(root.resolve("target/folder/old.txt"), "old");
+
+        fileService.moveBatch(List.of(root.resolve("source/folder")), root.resolve("target"),
+                ConflictPolicy.REPLACE, OperationProgress.NONE).block();
+
+        assertFalse(Files.exists(root.resolve("source/folder"), LinkOption.NOFOLLOW_LINKS));
+        assertEquals(List.of("new.txt"), names(root.resolve("target/folder")));
+        assertEquals(List.of("folder"), names(root.resolve("target")));
+    }
+
+    private void copy(List<Path> sources, Path targetDirectory, ConflictPolicy policy) {
+        fileService.copyBatch(sources, targetDirectory, policy, OperationProgress.NONE).block();
+    }
+
+    private static Path write(Path file, String content) throws IOException {
+        Files.createDirectories(file.getParent());
+        return Files.writeString(file, content);
+    }
+
+    private static List<String> names(Path directory) throws IOException {
+        try (Stream<Path> entries = Files.list(directory)) {
+            return entries.map(entry -> entry.getFileName().toString()).sorted().toList();
+        }
+    }
+}
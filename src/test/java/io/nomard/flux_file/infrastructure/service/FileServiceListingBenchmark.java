@@ -0,0 +1,97 @@
+package io.nomard.flux_file.infrastructure.service;
+
+import io.nomard.flux_file.core.domain.model.FileItem;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the batch listing pipeline with the previous per-entry {@code Mono} pipeline and
+ * fails unless the batch pipeline is at least {@link #MIN_SPEEDUP} times as fast; the failure
+ * message carries both throughputs. Run with
+ * {@code FLUX_BENCHMARK=true ./gradlew test --tests '*FileServiceListingBenchmark'}.
+ */
+@EnabledIfEnvironmentVariable(named = "FLUX_BENCHMARK", matches = "true")
+class FileServiceListingBenchmark {
+
+    private static final int ENTRIES = 50_000;
+    private static final int ROUNDS = 5;
+    // Every tenth entry is a dotfile
+    private static final int VISIBLE_ENTRIES = ENTRIES - ENTRIES / 10;
+    // The batch pipeline must list at least this many times as fast
+    private static final double MIN_SPEEDUP = 2.0;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void batchListingOutperformsPerEntryMonos() throws IOException {
+        for (int i = 0; i < ENTRIES; i++) {
+            Files.createFile(directory.resolve((i % 10 == 0 ? "." : "") + "file-" + i + ".txt"));
+        }
+        FileService fileService = new FileService();
+
+        // Warm up both pipelines
+        assertEquals(VISIBLE_ENTRIES, batchListing(fileService).size());
+        assertEquals(VISIBLE_ENTRIES, perEntryListing().size());
+
+        long batchNanos = 0;
+        long perEntryNanos = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            batchListing(fileService);
+            batchNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            perEntryListing();
+            perEntryNanos += System.nanoTime() - start;
+        }
+
+        double speedup = (double) perEntryNanos / batchNanos;
+        assertTrue(speedup >= MIN_SPEEDUP, String.format(
+                "Listing %d entries: batch %.1f entries/ms, per-entry Mono %.1f entries/ms (%.1fx, expected %.1fx)",
+                ENTRIES, throughput(batchNanos), throughput(perEntryNanos), speedup, MIN_SPEEDUP));
+    }
+
+    private List<FileItem> batchListing(FileService fileService) {
+        return fileService.listFiles(directory)
+                .filter(item -> !item.hidden())
+                .collectList()
+                .block();
+    }
+
+    // The pipeline listFiles used before: one Mono and scheduler hop per entry, then Files.isHidden per item
+    private List<FileItem> perEntryListing() throws IOException {
+        return Flux.fromStream(Files.list(directory))
+                .flatMap(path -> Mono.fromCallable(() -> {
+                    BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+                    return new FileItem(path, path.getFileName().toString(), attrs.isDirectory(),
+                            attrs.size(), attrs.lastModifiedTime().toInstant());
+                }).subscribeOn(Schedulers.boundedElastic()))
+                .filter(item -> {
+                    try {
+                        return !Files.isHidden(item.path());
+                    } catch (IOException e) {
+                        return true;
+                    }
+                })
+                .collectList()
+                .block();
+    }
+
+    private double throughput(long nanos) {
+        return (double) ENTRIES * ROUNDS / (nanos / 1_000_000.0);
+    }
+}
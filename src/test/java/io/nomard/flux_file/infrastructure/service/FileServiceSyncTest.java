@@ -0,0 +1,196 @@
+package io.nomard.flux_file.infrastructure.service;
+
+import io.nomard.flux_file.core.domain.sync.SyncAction;
+import io.nomard.flux_file.core.domain.sync.SyncActionType;
+import io.nomard.flux_file.core.domain.sync.SyncOptions;
+import io.nomard.flux_file.core.domain.sync.SyncPlan;
+import io.nomard.flux_file.infrastructure.service.operation.OperationProgress;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributeView;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FileServiceSyncTest {
+
+    private static final FileTime PAST = FileTime.from(Instant.parse("2001-09-09T01:46:40.123Z"));
+
+    private static final SyncOptions UPDATE_ONLY = new SyncOptions(false, false);
+
+    @TempDir
+    Path root;
+
+    private final FileService fileService = new FileService();
+
+    @Test
+    void resyncingAnUnchangedTreePlansNothing() throws IOException {
+        Path source = root.resolve("source");
+        write(source.resolve("top.txt"), "top");
+        write(source.resolve("folder/nested.txt"), "nested");
+        write(source.resolve("folder/deeper/deepest.txt"), "deepest");
+        link(source.resolve("folder/link"), Path.of("nested.txt"));
+        Path target = root.resolve("target");
+
+        SyncPlan first = plan(source, target, SyncOptions.MIRROR);
+        assertFalse(first.isEmpty());
+        execute(first);
+
+        SyncPlan second = plan(source, target, SyncOptions.MIRROR);
+        assertTrue(second.isEmpty(), () -> "unexpected actions " + second.actions());
+        assertEquals(4, second.unchanged());
+    }
+
+    @Test
+    void copiedEntriesKeepTheSourceModificationTime() throws IOException {
+        Path source = root.resolve("source");
+        Path file = write(source.resolve("file.txt"), "content");
+        Files.setLastModifiedTime(file, PAST);
+        Path link = link(source.resolve("link"), Path.of("file.txt"));
+        linkTime(link, PAST);
+        Path target = root.resolve("target");
+
+        execute(plan(source, target, SyncOptions.MIRROR));
+
+        assertEquals(PAST.toMillis(), Files.getLastModifiedTime(target.resolve("file.txt")).toMillis());
+        assertEquals(PAST.toMillis(),
+                Files.getLastModifiedTime(target.resolve("link"), LinkOption.NOFOLLOW_LINKS).toMillis());
+        assertTrue(plan(source, target, SyncOptions.MIRROR).isEmpty());
+    }
+
+    @Test
+    void changedFilesAreUpdated() throws IOException {
+        Path source = root.resolve("source");
+        Path file = write(source.resolve("file.txt"), "before");
+        Path target = root.resolve("target");
+        execute(plan(source, target, SyncOptions.MIRROR));
+
+        Files.writeString(file, "after, and longer");
+        SyncPlan plan = plan(source, target, SyncOptions.MIRROR);
+
+        assertEquals(1, plan.count(SyncActionType.UPDATE));
+        execute(plan);
+        assertEquals("after, and longer", Files.readString(target.resolve("file.txt")));
+    }
+
+    @Test
+    void typeConflictsAreDeletedBeforeTheyAreReplaced() throws IOException {
+        Path source = root.resolve("source");
+        Path target = root.resolve("target");
+        // Folder in the source, file in the target
+        write(source.resolve("folder/inside.txt"), "inside");
+        write(target.resolve("folder"), "a file");
+        // File in the source, folder in the target
+        write(source.resolve("file"), "a file");
+        write(target.resolve("file/inside.txt"), "inside");
+        // Link in the source, file in the target
+        write(source.resolve("pointed.txt"), "pointed");
+        link(source.resolve("link"), Path.of("pointed.txt"));
+        write(target.resolve("link"), "a file");
+        // File in the source, link in the target
+        write(source.resolve("plain.txt"), "plain");
+        link(target.resolve("plain.txt"), target.resolve("file"));
+
+        SyncPlan plan = plan(source, target, UPDATE_ONLY);
+
+        for (String name : List.of("folder", "file", "link", "plain.txt")) {
+            List<SyncAction> actions = actionsOn(plan, target.resolve(name));
+            assertEquals(2, actions.size(), name);
+            assertEquals(SyncActionType.DELETE, actions.get(0).type(), name);
+        }
+
+        execute(plan);
+
+        assertTrue(Files.isDirectory(target.resolve("folder"), LinkOption.NOFOLLOW_LINKS));
+        assertEquals("inside", Files.readString(target.resolve("folder/inside.txt")));
+        assertTrue(Files.isRegularFile(target.resolve("file"), LinkOption.NOFOLLOW_LINKS));
+        assertTrue(Files.isSymbolicLink(target.resolve("link")));
+        assertEquals(Path.of("pointed.txt"), Files.readSymbolicLink(target.resolve("link")));
+        assertTrue(Files.isRegularFile(target.resolve("plain.txt"), LinkOption.NOFOLLOW_LINKS));
+        assertEquals("plain", Files.readString(target.resolve("plain.txt")));
+        assertTrue(plan(source, target, UPDATE_ONLY).isEmpty());
+    }
+
+    @Test
+    void extraneousEntriesAreKeptUnlessMirroring() throws IOException {
+        Path source = root.resolve("source");
+        write(source.resolve("kept.txt"), "kept");
+        Path target = root.resolve("target");
+        Path extraFile = write(target.resolve("extra.txt"), "extra");
+        Path extraFolder = write(target.resolve("extra/inside.txt"), "extra").getParent();
+
+        SyncPlan update = plan(source, target, UPDATE_ONLY);
+        assertEquals(0, update.count(SyncActionType.DELETE));
+        execute(update);
+        assertTrue(Files.exists(extraFile));
+        assertTrue(Files.exists(extraFolder));
+        assertTrue(plan(source, target, UPDATE_ONLY).isEmpty());
+
+        SyncPlan mirror = plan(source, target, SyncOptions.MIRROR);
+        assertEquals(2, mirror.count(SyncActionType.DELETE));
+        execute(mirror);
+        assertFalse(Files.exists(extraFile, LinkOption.NOFOLLOW_LINKS));
+        assertFalse(Files.exists(extraFolder, LinkOption.NOFOLLOW_LINKS));
+        assertEquals("kept", Files.readString(target.resolve("kept.txt")));
+    }
+
+    @Test
+    void mirroringDoesNotFollowLinksOutOfTheTarget() throws IOException {
+        Path source = root.resolve("source");
+        write(source.resolve("kept.txt"), "kept");
+        Path outside = write(root.resolve("outside/keep.txt"), "keep").getParent();
+        Path target = root.resolve("target");
+        link(target.resolve("outside"), outside);
+
+        execute(plan(source, target, SyncOptions.MIRROR));
+
+        assertFalse(Files.exists(target.resolve("outside"), LinkOption.NOFOLLOW_LINKS));
+        assertEquals("keep", Files.readString(outside.resolve("keep.txt")));
+    }
+
+    @Test
+    void syncingAFolderIntoItselfIsRefused() throws IOException {
+        Path source = root.resolve("source");
+        write(source.resolve("file.txt"), "content");
+
+        assertThrows(RuntimeException.class, () -> plan(source, source.resolve("copy"), SyncOptions.MIRROR));
+        assertThrows(RuntimeException.class, () -> plan(source.resolve("inner"), source, SyncOptions.MIRROR));
+    }
+
+    private SyncPlan plan(Path source, Path target, SyncOptions options) {
+        return fileService.planSync(source, target, options).block();
+    }
+
+    private void execute(SyncPlan plan) {
+        fileService.executeSync(plan, OperationProgress.NONE).block();
+    }
+
+    private static List<SyncAction> actionsOn(SyncPlan plan, Path target) {
+        return plan.actions().stream().filter(action -> action.target().equals(target)).toList();
+    }
+
+    private static Path write(Path file, String content) throws IOException {
+        Files.createDirectories(file.getParent());
+        return Files.writeString(file, content);
+    }
+
+    private static Path link(Path link, Path pointsTo) throws IOException {
+        Files.createDirectories(link.getParent());
+        return Files.createSymbolicLink(link, pointsTo);
+    }
+
+    private static void linkTime(Path link, FileTime time) throws IOException {
+        Files.getFileAttributeView(link, BasicFileAttributeView.class, LinkOption.NOFOLLOW_LINKS)
+                .setTimes(time, null, null);
+    }
+}
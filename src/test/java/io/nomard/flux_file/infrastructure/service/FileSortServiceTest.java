@@ -0,0 +1,74 @@
+package io.nomard.flux_file.infrastructure.service;
+
+import io.nomard.flux_file.core.domain.model.FileItem;
+import io.nomard.flux_file.core.domain.sort.FileSortOrder;
+import io.nomard.flux_file.core.domain.sort.SortField;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FileSortServiceTest {
+
+    // Well above the parallel sort threshold
+    private static final int LARGE_LISTING = 20_000;
+
+    private final FileSortService sortService = new FileSortService();
+
+    @Test
+    void directoriesFirstThenNaturalNameOrder() {
+        List<FileItem> items = List.of(file("b10.txt"), folder("docs"), file("b2.txt"), file("a.txt"), folder("Apps"));
+
+        assertEquals(List.of("Apps", "docs", "a.txt", "b2.txt", "b10.txt"),
+                names(sortService.sortNow(items, FileSortOrder.DEFAULT)));
+    }
+
+    @Test
+    void rawNameBreaksTiesBetweenEqualKeys() {
+        List<FileItem> items = List.of(file("file1"), file("file01"), file("File1"));
+
+        assertEquals(List.of("File1", "file01", "file1"),
+                names(sortService.sortNow(items, FileSortOrder.DEFAULT)));
+        assertEquals(List.of("file1", "file01", "File1"),
+                names(sortService.sortNow(items, new FileSortOrder(SortField.NAME, false, true))));
+    }
+
+    @Test
+    void parallelSortMatchesSequentialOrder() {
+        Random random = new Random(42);
+        List<FileItem> items = new ArrayList<>(LARGE_LISTING);
+        for (int i = 0; i < LARGE_LISTING; i++) {
+            String name = (random.nextBoolean() ? "File" : "file") + random.nextInt(500) + "-" + i
+                    + (random.nextInt(4) == 0 ? "" : "." + List.of("txt", "PNG", "md").get(random.nextInt(3)));
+            items.add(new FileItem(Path.of(name), name, random.nextInt(10) == 0, random.nextInt(1000),
+                    Instant.ofEpochMilli(random.nextInt(100_000))));
+        }
+
+        for (SortField field : SortField.values()) {
+            for (boolean ascending : new boolean[]{true, false}) {
+                FileSortOrder order = new FileSortOrder(field, ascending, true);
+                List<FileItem> expected = new ArrayList<>(items);
+                expected.sort(sortService.comparator(order));
+
+                assertEquals(expected, sortService.sortNow(items, order), order.toString());
+            }
+        }
+    }
+
+    private static FileItem file(String name) {
+        return new FileItem(Path.of(name), name, false, 0, Instant.EPOCH);
+    }
+
+    private static FileItem folder(String name) {
+        return new FileItem(Path.of(name), name, true, 0, Instant.EPOCH);
+    }
+
+    private static List<String> names(List<FileItem> items) {
+        return items.stream().map(FileItem::name).toList();
+    }
+}
@@ -0,0 +1,147 @@
+package io.nomard.flux_file.infrastructure.service.remote;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RemoteContentHashesTest {
+
+    private static final int DROPBOX_BLOCK = 4 * 1024 * 1024;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void md5MatchesTheKnownDigest() throws IOException {
+        assertEquals("d41d8cd98f00b204e9800998ecf8427e", RemoteContentHashes.md5(file(new byte[0])));
+        assertEquals("900150983cd24fb0d6963f7d28e17f72", RemoteContentHashes.md5(file("abc".getBytes())));
+    }
+
+    @Test
+    void dropboxHashOfAnEmptyFileHasNoBlocks() throws IOException {
+        // SHA-256 over nothing, since there are no block hashes to concatenate
+        assertEquals("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855",
+                RemoteContentHashes.dropboxContentHash(file(new byte[0])));
+    }
+
+    @Test
+    void dropboxHashOfASmallFileIsOneBlock() throws IOException {
+        byte[] data = random(1000, 1);
+        assertEquals(dropboxReference(data), RemoteContentHashes.dropboxContentHash(file(data)));
+        assertEquals(hex(sha256(sha256(data))), RemoteContentHashes.dropboxContentHash(file(data)));
+    }
+
+    @Test
+    void dropboxHashSplitsAtBlockBoundaries() throws IOException {
+        for (int size : new int[]{DROPBOX_BLOCK - 1, DROPBOX_BLOCK, DROPBOX_BLOCK + 1, 2 * DROPBOX_BLOCK,
+                2 * DROPBOX_BLOCK + 12345}) {
+            byte[] data = random(size, size);
+            assertEquals(dropboxReference(data), RemoteContentHashes.dropboxContentHash(file(data)),
+                    "size " + size);
+        }
+    }
+
+    @Test
+    void quickXorHashOfAnEmptyFileIsZero() throws IOException {
+        assertEquals("AAAAAAAAAAAAAAAAAAAAAAAAAAA=", RemoteContentHashes.quickXorHash(file(new byte[0])));
+    }
+
+    @Test
+    void quickXorHashOfShortInputs() throws IOException {
+        for (int size = 1; size <= 40; size++) {
+            byte[] data = random(size, size);
+            assertEquals(quickXorReference(data), RemoteContentHashes.quickXorHash(file(data)), "size " + size);
+        }
+    }
+
+    @Test
+    void quickXorHashWrapsPastTheRegisterWidth() throws IOException {
+        // 160 bytes is where the position comes back round to the first bit
+        for (int size : new int[]{159, 160, 161, 320, 1000}) {
+            byte[] data = random(size, size);
+            assertEquals(quickXorReference(data), RemoteContentHashes.quickXorHash(file(data)), "size " + size);
+        }
+    }
+
+    @Test
+    void quickXorHashCarriesPositionAcrossReads() throws IOException {
+        // Longer than one read buffer, with a remainder that leaves the position mid-register
+        for (int size : new int[]{64 * 1024, 64 * 1024 + 1, 3 * 64 * 1024 + 77}) {
+            byte[] data = random(size, size);
+            assertEquals(quickXorReference(data), RemoteContentHashes.quickXorHash(file(data)), "size " + size);
+        }
+    }
+
+    private Path file(byte[] data) throws IOException {
+        Path file = Files.createTempFile(directory, "content", ".bin");
+        Files.write(file, data);
+        return file;
+    }
+
+    private static byte[] random(int size, long seed) {
+        byte[] data = new byte[size];
+        new Random(seed).nextBytes(data);
+        return data;
+    }
+
+    private static String dropboxReference(byte[] data) {
+        MessageDigest overall = sha256();
+        for (int start = 0; start < data.length; start += DROPBOX_BLOCK) {
+            int end = Math.min(data.length, start + DROPBOX_BLOCK);
+            MessageDigest block = sha256();
+            block.update(data, start, end - start);
+            overall.update(block.digest());
+        }
+        return hex(overall.digest());
+    }
+
+    // The algorithm spelled out bit by bit: byte i goes in at bit 11 * i, wrapping at 160 bits
+    private static String quickXorReference(byte[] data) {
+        boolean[] bits = new boolean[160];
+        for (int i = 0; i < data.length; i++) {
+            int position = (int) (11L * i % 160);
+            for (int bit = 0; bit < 8; bit++) {
+                if ((data[i] >>> bit & 1) != 0) {
+                    bits[(position + bit) % 160] ^= true;
+                }
+            }
+        }
+        byte[] hash = new byte[20];
+        for (int bit = 0; bit < 160; bit++) {
+            if (bits[bit]) {
+                hash[bit / 8] |= (byte) (1 << bit % 8);
+            }
+        }
+        long length = data.length;
+        for (int b = 0; b < 8; b++) {
+            hash[12 + b] ^= (byte) (length >>> 8 * b);
+        }
+        return Base64.getEncoder().encodeToString(hash);
+    }
+
+    private static byte[] sha256(byte[] data) {
+        return sha256().digest(data);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String hex(byte[] bytes) {
+        return HexFormat.of().formatHex(bytes);
+    }
+}